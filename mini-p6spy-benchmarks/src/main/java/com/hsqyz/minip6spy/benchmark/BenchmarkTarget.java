@@ -0,0 +1,65 @@
+package com.hsqyz.minip6spy.benchmark;
+
+import com.hsqyz.minip6spy.benchmark.stub.StubDataSource;
+import com.hsqyz.minip6spy.datasource.SpyDataSource;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+
+import javax.sql.DataSource;
+
+/**
+ * 基准对照组：裸桩数据源与挂载 0/1/N 个监听器的 SpyDataSource，
+ * 以及开启事件复用（{@link SpyContext.Builder#reuseEvents(boolean)}）的单监听器。
+ */
+public enum BenchmarkTarget {
+    RAW(-1),
+    SPY_NO_LISTENER(0),
+    SPY_ONE_LISTENER(1),
+    SPY_FOUR_LISTENERS(4),
+    SPY_REUSED_EVENTS(1, true);
+
+    private final int listeners;
+    private final boolean reuseEvents;
+
+    BenchmarkTarget(int listeners) {
+        this(listeners, false);
+    }
+
+    BenchmarkTarget(int listeners, boolean reuseEvents) {
+        this.listeners = listeners;
+        this.reuseEvents = reuseEvents;
+    }
+
+    /**
+     * 构造对应的数据源。
+     *
+     * @param rows executeQuery 返回的行数
+     */
+    public DataSource dataSource(int rows) {
+        DataSource raw = new StubDataSource(rows);
+        if (listeners < 0) {
+            return raw;
+        }
+        SqlListener[] array = new SqlListener[listeners];
+        for (int i = 0; i < listeners; i++) {
+            array[i] = new SinkListener();
+        }
+        if (reuseEvents) {
+            return SpyDataSource.wrap(raw, SpyContext.builder().listeners(array).reuseEvents(true).build());
+        }
+        return SpyDataSource.wrap(raw, array);
+    }
+
+    /**
+     * 最廉价的监听器：仅保存最后一个事件引用，保证事件对象真实逃逸、不会被 JIT 消除。
+     */
+    static final class SinkListener implements SqlListener {
+        SqlEvent last;
+
+        @Override
+        public void onEvent(SqlEvent event) {
+            last = event;
+        }
+    }
+}
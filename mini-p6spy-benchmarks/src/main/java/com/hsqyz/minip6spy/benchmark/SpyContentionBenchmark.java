@@ -0,0 +1,92 @@
+package com.hsqyz.minip6spy.benchmark;
+
+import com.hsqyz.minip6spy.benchmark.stub.StubDataSource;
+import com.hsqyz.minip6spy.datasource.SpyDataSource;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多线程共享同一个 SpyDataSource 时的争用开销：每个线程持有自己的连接与语句，
+ * 但共享代理上下文与监听器（监听器内做一次原子累加，模拟常见的计数型指标）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SpyContentionBenchmark {
+
+    private static final String PREPARED_UPDATE = "UPDATE user_demo SET age = ? WHERE name = ?";
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"false", "true"})
+        public boolean spy;
+
+        final AtomicLong executed = new AtomicLong();
+        DataSource dataSource;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            DataSource raw = new StubDataSource(1);
+            SqlListener counting = event -> executed.incrementAndGet();
+            dataSource = spy ? SpyDataSource.wrap(raw, counting) : raw;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        Connection connection;
+        PreparedStatement statement;
+
+        @Setup(Level.Trial)
+        public void setUp(Shared shared) throws SQLException {
+            connection = shared.dataSource.getConnection();
+            statement = connection.prepareStatement(PREPARED_UPDATE);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int preparedExecuteUpdate(PerThread state) throws SQLException {
+        state.statement.setInt(1, 31);
+        state.statement.setString(2, "Carol");
+        return state.statement.executeUpdate();
+    }
+
+    @Benchmark
+    public int connectionRoundTrip(Shared shared) throws SQLException {
+        try (Connection conn = shared.dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(PREPARED_UPDATE)) {
+            ps.setInt(1, 31);
+            ps.setString(2, "Carol");
+            return ps.executeUpdate();
+        }
+    }
+}
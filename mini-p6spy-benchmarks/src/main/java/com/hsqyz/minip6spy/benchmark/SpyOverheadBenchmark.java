@@ -0,0 +1,135 @@
+package com.hsqyz.minip6spy.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单线程下每条语句的代理开销：裸驱动 vs SpyDataSource（0/1/N 个监听器），
+ * 覆盖普通/预编译语句的 executeQuery、executeUpdate、addBatch + executeBatch。
+ * 建议配合 {@code -prof gc} 运行，同时观察 ns/op 与 B/op。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpyOverheadBenchmark {
+
+    private static final String QUERY = "SELECT id, name, age FROM user_demo WHERE id = 1";
+    private static final String UPDATE = "UPDATE user_demo SET age = 31 WHERE id = 1";
+    private static final String PREPARED_QUERY = "SELECT id, name, age FROM user_demo WHERE id = ?";
+    private static final String PREPARED_UPDATE = "UPDATE user_demo SET age = ? WHERE name = ?";
+    private static final int BATCH_SIZE = 16;
+    private static final int ROWS = 10;
+
+    @Param
+    public BenchmarkTarget target;
+
+    private DataSource dataSource;
+    private Connection connection;
+    private Statement statement;
+    private PreparedStatement preparedQuery;
+    private PreparedStatement preparedUpdate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = target.dataSource(ROWS);
+        connection = dataSource.getConnection();
+        statement = connection.createStatement();
+        preparedQuery = connection.prepareStatement(PREPARED_QUERY);
+        preparedUpdate = connection.prepareStatement(PREPARED_UPDATE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public ResultSet statementExecuteQuery() throws SQLException {
+        return statement.executeQuery(QUERY);
+    }
+
+    @Benchmark
+    public int statementExecuteUpdate() throws SQLException {
+        return statement.executeUpdate(UPDATE);
+    }
+
+    @Benchmark
+    public int[] statementBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            statement.addBatch(UPDATE);
+        }
+        return statement.executeBatch();
+    }
+
+    @Benchmark
+    public ResultSet preparedExecuteQuery() throws SQLException {
+        preparedQuery.setLong(1, 1L);
+        return preparedQuery.executeQuery();
+    }
+
+    @Benchmark
+    public int preparedExecuteUpdate() throws SQLException {
+        preparedUpdate.setInt(1, 31);
+        preparedUpdate.setString(2, "Carol");
+        return preparedUpdate.executeUpdate();
+    }
+
+    @Benchmark
+    public int[] preparedBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            preparedUpdate.setInt(1, i);
+            preparedUpdate.setString(2, "Carol");
+            preparedUpdate.addBatch();
+        }
+        return preparedUpdate.executeBatch();
+    }
+
+    /**
+     * 查询并遍历全部结果行，衡量结果集路径的开销。
+     */
+    @Benchmark
+    public void preparedQueryAndIterate(Blackhole bh) throws SQLException {
+        preparedQuery.setLong(1, 1L);
+        try (ResultSet rs = preparedQuery.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * 完整的一次借出：获取连接、预编译、执行、关闭，衡量每次创建代理对象的成本。
+     */
+    @Benchmark
+    public int connectionRoundTrip() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(PREPARED_UPDATE)) {
+            ps.setInt(1, 31);
+            ps.setString(2, "Carol");
+            return ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hsqyz.minip6spy.benchmark.stub;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * 桩数据源：每次 getConnection 返回新的 {@link StubConnection}，不做任何网络或磁盘 I/O。
+ */
+public final class StubDataSource implements DataSource {
+
+    private final int rows; // executeQuery 返回的结果集行数
+
+    public StubDataSource(int rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return new StubConnection(rows);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return new StubConnection(rows);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("not a wrapper for " + iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
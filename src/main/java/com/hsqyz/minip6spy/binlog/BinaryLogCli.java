@@ -0,0 +1,52 @@
+package com.hsqyz.minip6spy.binlog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令行解码工具：把段文件转成每行一条的文本。
+ * <pre>
+ * java -cp mini-p6spy.jar com.hsqyz.minip6spy.binlog.BinaryLogCli &lt;段文件或目录&gt; [--slower-than-ms N] [--errors]
+ * </pre>
+ */
+public final class BinaryLogCli {
+
+    private BinaryLogCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: BinaryLogCli <segment-file|directory> [--slower-than-ms N] [--errors]");
+            System.exit(2);
+        }
+        long minNanos = 0;
+        boolean errorsOnly = false;
+        for (int i = 1; i < args.length; i++) {
+            if ("--slower-than-ms".equals(args[i]) && i + 1 < args.length) {
+                minNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[++i]));
+            } else if ("--errors".equals(args[i])) {
+                errorsOnly = true;
+            } else {
+                System.err.println("unknown option: " + args[i]);
+                System.exit(2);
+            }
+        }
+        long threshold = minNanos;
+        boolean onlyErrors = errorsOnly;
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        try {
+            BinaryLogReader.read(Paths.get(args[0]), record -> {
+                if (record.getElapsedNanos() >= threshold && (!onlyErrors || !record.isSuccess())) {
+                    out.println(record);
+                }
+            });
+        } finally {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hsqyz.minip6spy.binlog;
+
+/**
+ * 段文件格式常量。
+ * <pre>
+ * 段头（16 字节）：int magic "MP6L" | short version | short 保留 | long 创建时间（Unix 毫秒）
+ * 记录：int bodyLength | body
+ * body：byte type | byte flags | long startedAtMillis | long elapsedNanos | int batchSize
+ *       | str sql | [str error] | [str parameters]
+ * str：int 字节数（-1 表示 null）| UTF-8 字节
+ * </pre>
+ * bodyLength 为 0 或读到文件末尾表示段结束；长度在 body 写完后才回填，读取方不会看到半条记录。
+ * 所有整数为大端序。
+ */
+final class BinaryLogFormat {
+
+    static final int MAGIC = 0x4D50364C; // "MP6L"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final String FILE_SUFFIX = ".binlog";
+
+    static final byte TYPE_SQL_EVENT = 1;
+
+    static final byte FLAG_SUCCESS = 1;
+    static final byte FLAG_ERROR = 1 << 1;
+    static final byte FLAG_PARAMETERS = 1 << 2;
+
+    private BinaryLogFormat() {
+    }
+}
@@ -0,0 +1,121 @@
+package com.hsqyz.minip6spy.binlog;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二进制事件日志的配置：输出目录、段文件大小、按时间切换与刷盘策略。
+ */
+public final class BinaryLogOptions {
+
+    private final Path directory;
+    private final String filePrefix;
+    private final int segmentSize;
+    private final long rotateIntervalMillis;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+
+    private BinaryLogOptions(Builder builder) {
+        this.directory = builder.directory;
+        this.filePrefix = builder.filePrefix;
+        this.segmentSize = builder.segmentSize;
+        this.rotateIntervalMillis = builder.rotateIntervalMillis;
+        this.fsyncPolicy = builder.fsyncPolicy;
+        this.fsyncIntervalMillis = builder.fsyncIntervalMillis;
+    }
+
+    /**
+     * @param directory 段文件所在目录，不存在时自动创建
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String getFilePrefix() {
+        return filePrefix;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public long getRotateIntervalMillis() {
+        return rotateIntervalMillis;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public long getFsyncIntervalMillis() {
+        return fsyncIntervalMillis;
+    }
+
+    public static final class Builder {
+        private final Path directory;
+        private String filePrefix = "sql-events";
+        private int segmentSize = 64 * 1024 * 1024;
+        private long rotateIntervalMillis;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        private long fsyncIntervalMillis = 1000;
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory");
+        }
+
+        /**
+         * 段文件名前缀（默认 sql-events），文件名形如 {@code <prefix>-<创建毫秒>-<序号>.binlog}。
+         */
+        public Builder filePrefix(String filePrefix) {
+            if (filePrefix == null || filePrefix.isEmpty()) {
+                throw new IllegalArgumentException("filePrefix must not be empty");
+            }
+            this.filePrefix = filePrefix;
+            return this;
+        }
+
+        /**
+         * 单个段文件大小（默认 64MB），写满后切换到新段；上限受 mmap 限制为 2GB。
+         */
+        public Builder segmentSize(int bytes) {
+            if (bytes < 4096) {
+                throw new IllegalArgumentException("segmentSize must be at least 4096: " + bytes);
+            }
+            this.segmentSize = bytes;
+            return this;
+        }
+
+        /**
+         * 按时间切换段文件，0 表示只按大小切换（默认）。
+         */
+        public Builder rotateInterval(long interval, TimeUnit unit) {
+            this.rotateIntervalMillis = Math.max(0, unit.toMillis(interval));
+            return this;
+        }
+
+        /**
+         * 刷盘策略（默认 {@link FsyncPolicy#INTERVAL}）。
+         */
+        public Builder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = Objects.requireNonNull(fsyncPolicy, "fsyncPolicy");
+            return this;
+        }
+
+        /**
+         * {@link FsyncPolicy#INTERVAL} 的刷盘间隔（默认 1 秒）。
+         */
+        public Builder fsyncInterval(long interval, TimeUnit unit) {
+            this.fsyncIntervalMillis = Math.max(1, unit.toMillis(interval));
+            return this;
+        }
+
+        public BinaryLogOptions build() {
+            return new BinaryLogOptions(this);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.hsqyz.minip6spy.binlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 读取 {@link BinaryLogWriter} 生成的段文件，逐条回调 {@link BinaryLogRecord}。
+ * 段内遇到长度为 0、越界或被截断的记录即视为段结束（进程崩溃时最后一条可能不完整）。
+ */
+public final class BinaryLogReader {
+
+    private BinaryLogReader() {
+    }
+
+    /**
+     * 列出目录下的段文件，按文件名（创建时间 + 序号）排序；传入文件时只返回该文件。
+     */
+    public static List<Path> segments(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(path)) {
+            stream.filter(p -> p.getFileName().toString().endsWith(BinaryLogFormat.FILE_SUFFIX)).forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * 依次读取目录（或单个文件）中的全部记录。
+     *
+     * @return 读取的记录数
+     */
+    public static long read(Path path, Consumer<BinaryLogRecord> consumer) throws IOException {
+        long count = 0;
+        for (Path segment : segments(path)) {
+            count += readSegment(segment, consumer);
+        }
+        return count;
+    }
+
+    /**
+     * 读取单个段文件。
+     *
+     * @return 读取的记录数
+     */
+    public static long readSegment(Path segment, Consumer<BinaryLogRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BinaryLogFormat.HEADER_SIZE) {
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != BinaryLogFormat.MAGIC) {
+                throw new IOException("not a mini-p6spy binary log: " + segment);
+            }
+            short version = buffer.getShort();
+            if (version != BinaryLogFormat.VERSION) {
+                throw new IOException("unsupported binary log version " + version + ": " + segment);
+            }
+            buffer.position(BinaryLogFormat.HEADER_SIZE);
+            long count = 0;
+            while (buffer.remaining() >= 4) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer body = buffer.slice();
+                body.limit(length);
+                buffer.position(buffer.position() + length);
+                BinaryLogRecord record = decode(body);
+                if (record != null) {
+                    consumer.accept(record);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static BinaryLogRecord decode(ByteBuffer body) {
+        byte type = body.get();
+        if (type != BinaryLogFormat.TYPE_SQL_EVENT) {
+            return null; // 未知类型跳过，便于后续扩展
+        }
+        byte flags = body.get();
+        long startedAtMillis = body.getLong();
+        long elapsedNanos = body.getLong();
+        int batchSize = body.getInt();
+        String sql = getString(body);
+        String error = (flags & BinaryLogFormat.FLAG_ERROR) != 0 ? getString(body) : null;
+        String parameters = (flags & BinaryLogFormat.FLAG_PARAMETERS) != 0 ? getString(body) : null;
+        return new BinaryLogRecord(startedAtMillis, elapsedNanos, batchSize,
+                (flags & BinaryLogFormat.FLAG_SUCCESS) != 0, sql, error, parameters);
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package com.hsqyz.minip6spy.binlog;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从二进制日志读回的一条事件记录（不可变）。
+ * 异常与绑定参数以写入时的文本保存，无法还原为原始对象。
+ */
+public final class BinaryLogRecord {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final long startedAtMillis;
+    private final long elapsedNanos;
+    private final int batchSize;
+    private final boolean success;
+    private final String sql;
+    private final String error;      // Throwable#toString()，无异常为 null
+    private final String parameters; // 绑定参数文本，无参数为 null
+
+    BinaryLogRecord(long startedAtMillis, long elapsedNanos, int batchSize, boolean success,
+                    String sql, String error, String parameters) {
+        this.startedAtMillis = startedAtMillis;
+        this.elapsedNanos = elapsedNanos;
+        this.batchSize = batchSize;
+        this.success = success;
+        this.sql = sql;
+        this.error = error;
+        this.parameters = parameters;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 还原为 {@link SqlEvent}，以便复用现有监听器离线处理；异常还原为携带原文本的 {@link SQLException}，参数不还原。
+     */
+    public SqlEvent toSqlEvent() {
+        return SqlEvent.builder(sql)
+                .startedAtMillis(startedAtMillis)
+                .elapsedNanos(elapsedNanos)
+                .batchSize(batchSize)
+                .success(success)
+                .error(error == null ? null : new SQLException(error))
+                .build();
+    }
+
+    /**
+     * @return 单行文本：时间 | 耗时 | 状态 | 批量 | SQL | 参数 | 异常
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(sql.length() + 64)
+                .append(FORMATTER.format(Instant.ofEpochMilli(startedAtMillis)))
+                .append(" | ").append(TimeUnit.NANOSECONDS.toMicros(elapsedNanos)).append(" us")
+                .append(" | ").append(success ? "ok" : "error")
+                .append(" | batch=").append(batchSize)
+                .append(" | ").append(sql);
+        if (parameters != null) {
+            sb.append(" | params=").append(parameters);
+        }
+        if (error != null) {
+            sb.append(" | ").append(error);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,235 @@
+package com.hsqyz.minip6spy.binlog;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.param.BoundParameters;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把 {@link SqlEvent} 以长度前缀的二进制格式追加到内存映射的段文件中，格式见 {@link BinaryLogFormat}。
+ * - 每条记录先编码到复用的字节数组，再一次性拷贝进 {@link MappedByteBuffer}，写入不经过系统调用；
+ * - 段写满或到达切换间隔时关闭当前段（按策略刷盘并截断尾部空白）并创建新段；
+ * - 单条记录超过段容量时丢弃并计数。
+ * 方法均为同步方法，可被多个 JDBC 线程或异步消费线程并发调用。
+ */
+public final class BinaryLogWriter implements Closeable {
+
+    private final BinaryLogOptions options;
+    private final long rotateIntervalNanos;
+    private final long fsyncIntervalNanos;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private Path currentSegment;
+    private long segmentOpenedNanos;
+    private long lastForceNanos;
+    private int sequence;
+    private byte[] scratch = new byte[1024];
+    private int scratchLength;
+    private long writtenCount;
+    private long droppedCount;
+    private boolean closed;
+
+    public BinaryLogWriter(BinaryLogOptions options) throws IOException {
+        this.options = options;
+        this.rotateIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getRotateIntervalMillis());
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getFsyncIntervalMillis());
+        Files.createDirectories(options.getDirectory());
+        openSegment(System.nanoTime());
+    }
+
+    /**
+     * 追加一条事件。
+     *
+     * @return 是否写入；已关闭或记录过大时返回 false
+     */
+    public synchronized boolean append(SqlEvent event) throws IOException {
+        if (closed) {
+            return false;
+        }
+        encode(event);
+        int recordSize = 4 + scratchLength;
+        if (recordSize > options.getSegmentSize() - BinaryLogFormat.HEADER_SIZE - 4) {
+            droppedCount++;
+            return false;
+        }
+        long now = System.nanoTime();
+        if (buffer.remaining() < recordSize + 4 || rotateDue(now)) { // 预留 4 字节作为段结束标记
+            closeSegment();
+            openSegment(now);
+        }
+        int position = buffer.position();
+        buffer.position(position + 4);
+        buffer.put(scratch, 0, scratchLength);
+        buffer.putInt(position, scratchLength); // body 写完后回填长度
+        writtenCount++;
+        FsyncPolicy policy = options.getFsyncPolicy();
+        if (policy == FsyncPolicy.EVERY_WRITE || policy == FsyncPolicy.INTERVAL && now - lastForceNanos >= fsyncIntervalNanos) {
+            buffer.force();
+            lastForceNanos = now;
+        }
+        return true;
+    }
+
+    /**
+     * @return 当前正在写入的段文件
+     */
+    public synchronized Path getCurrentSegment() {
+        return currentSegment;
+    }
+
+    public synchronized long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * 关闭当前段；关闭后 {@link #append} 返回 false。
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeSegment();
+    }
+
+    private boolean rotateDue(long now) {
+        return rotateIntervalNanos > 0 && now - segmentOpenedNanos >= rotateIntervalNanos
+                && buffer.position() > BinaryLogFormat.HEADER_SIZE;
+    }
+
+    private void openSegment(long now) throws IOException {
+        long createdMillis = System.currentTimeMillis();
+        String name = String.format("%s-%013d-%06d%s", options.getFilePrefix(), createdMillis, sequence++, BinaryLogFormat.FILE_SUFFIX);
+        Path file = options.getDirectory().resolve(name);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, options.getSegmentSize());
+        buffer.putInt(BinaryLogFormat.MAGIC)
+                .putShort(BinaryLogFormat.VERSION)
+                .putShort((short) 0)
+                .putLong(createdMillis);
+        currentSegment = file;
+        segmentOpenedNanos = now;
+        lastForceNanos = now;
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (options.getFsyncPolicy() != FsyncPolicy.NEVER) {
+                buffer.force();
+            }
+            try {
+                channel.truncate(buffer.position()); // 去掉未使用的尾部，映射仍有效的平台上可能失败
+            } catch (IOException ignore) {
+                // 保留整段大小，读取方遇到长度 0 即停止
+            }
+        } finally {
+            channel.close();
+            channel = null;
+            buffer = null; // 映射在 GC 时释放
+        }
+    }
+
+    /**
+     * 把事件编码到 scratch。
+     */
+    private void encode(SqlEvent event) {
+        scratchLength = 0;
+        Throwable error = event.getError();
+        BoundParameters parameters = event.getParameters();
+        byte flags = 0;
+        if (event.isSuccess()) {
+            flags |= BinaryLogFormat.FLAG_SUCCESS;
+        }
+        if (error != null) {
+            flags |= BinaryLogFormat.FLAG_ERROR;
+        }
+        if (!parameters.isEmpty()) {
+            flags |= BinaryLogFormat.FLAG_PARAMETERS;
+        }
+        ensure(2 + 8 + 8 + 4);
+        scratch[scratchLength++] = BinaryLogFormat.TYPE_SQL_EVENT;
+        scratch[scratchLength++] = flags;
+        putLong(event.getStartedAtMillis());
+        putLong(event.getElapsedNanos());
+        putInt(event.getBatchSize());
+        putString(event.getSql());
+        if (error != null) {
+            putString(error.toString());
+        }
+        if (!parameters.isEmpty()) {
+            putString(parameters.toString());
+        }
+    }
+
+    private void putString(String s) {
+        if (s == null) {
+            ensure(4);
+            putInt(-1);
+            return;
+        }
+        int len = s.length();
+        ensure(4 + len * 3);
+        int lengthAt = scratchLength;
+        scratchLength += 4;
+        byte[] b = scratch;
+        int p = scratchLength;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | c >> 6);
+                b[p++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[p++] = (byte) (0xF0 | cp >> 18);
+                b[p++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                b[p++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                b[p++] = (byte) (0x80 | cp & 0x3F);
+            } else {
+                b[p++] = (byte) (0xE0 | c >> 12);
+                b[p++] = (byte) (0x80 | c >> 6 & 0x3F);
+                b[p++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        int bytes = p - scratchLength;
+        scratchLength = lengthAt;
+        putInt(bytes);
+        scratchLength = p;
+    }
+
+    private void putInt(int v) {
+        scratch[scratchLength++] = (byte) (v >>> 24);
+        scratch[scratchLength++] = (byte) (v >>> 16);
+        scratch[scratchLength++] = (byte) (v >>> 8);
+        scratch[scratchLength++] = (byte) v;
+    }
+
+    private void putLong(long v) {
+        putInt((int) (v >>> 32));
+        putInt((int) v);
+    }
+
+    private void ensure(int extra) {
+        int required = scratchLength + extra;
+        if (required > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(required, scratch.length << 1));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.hsqyz.minip6spy.binlog;
+
+/**
+ * 二进制日志刷盘策略：映射内存的数据何时强制写回磁盘。
+ */
+public enum FsyncPolicy {
+    /**
+     * 从不主动刷盘，由操作系统回写；进程崩溃不丢数据，机器掉电可能丢失最近的数据。
+     */
+    NEVER,
+    /**
+     * 段文件切换和关闭时刷盘。
+     */
+    ON_ROTATE,
+    /**
+     * 距上次刷盘超过设定间隔时，在写入线程上顺带刷盘（默认，间隔 1 秒）。
+     */
+    INTERVAL,
+    /**
+     * 每条记录写入后刷盘，最安全也最慢，仅用于排障。
+     */
+    EVERY_WRITE
+}
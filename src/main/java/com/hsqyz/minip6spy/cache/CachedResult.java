@@ -0,0 +1,214 @@
+package com.hsqyz.minip6spy.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 物化后的查询结果：列元数据 + 按行保存的值数组，不持有任何连接资源，可被多个游标同时读取。
+ * 构建完成后不再修改；可变的值（byte[]、日期时间）由 {@link CachedResultSet} 返回副本。
+ */
+final class CachedResult {
+
+    // 对象头与引用的粗略估算，只用于内存上限，不追求精确
+    private static final int ROW_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 4;
+
+    final int columnCount;
+    final String[] labels;
+    final String[] names;
+    final int[] types;
+    final String[] typeNames;
+    final String[] classNames;
+    final String[] tableNames;
+    final String[] schemaNames;
+    final String[] catalogNames;
+    final int[] precisions;
+    final int[] scales;
+    final int[] nullables;
+    final int[] displaySizes;
+    final boolean[] signed;
+    final boolean[] autoIncrement;
+    final boolean[] caseSensitive;
+    final boolean[] currency;
+    final Object[][] rows;
+    final long estimatedBytes;
+    // 是否读完了整个结果集；为 false 时只含超出上限前的行，数据库游标未关闭
+    final boolean complete;
+    private final Map<String, Integer> columnIndex; // 小写列标签/列名 -> 下标（从 1 开始），先出现的优先
+
+    private CachedResult(ResultSetMetaData md, Object[][] rows, long estimatedBytes, boolean complete) throws SQLException {
+        int n = md.getColumnCount();
+        this.columnCount = n;
+        this.labels = new String[n];
+        this.names = new String[n];
+        this.types = new int[n];
+        this.typeNames = new String[n];
+        this.classNames = new String[n];
+        this.tableNames = new String[n];
+        this.schemaNames = new String[n];
+        this.catalogNames = new String[n];
+        this.precisions = new int[n];
+        this.scales = new int[n];
+        this.nullables = new int[n];
+        this.displaySizes = new int[n];
+        this.signed = new boolean[n];
+        this.autoIncrement = new boolean[n];
+        this.caseSensitive = new boolean[n];
+        this.currency = new boolean[n];
+        this.columnIndex = new HashMap<>(n * 4 / 3 + 1);
+        for (int i = 0; i < n; i++) {
+            int c = i + 1;
+            labels[i] = md.getColumnLabel(c);
+            names[i] = md.getColumnName(c);
+            types[i] = md.getColumnType(c);
+            typeNames[i] = md.getColumnTypeName(c);
+            classNames[i] = md.getColumnClassName(c);
+            tableNames[i] = md.getTableName(c);
+            schemaNames[i] = md.getSchemaName(c);
+            catalogNames[i] = md.getCatalogName(c);
+            precisions[i] = md.getPrecision(c);
+            scales[i] = md.getScale(c);
+            nullables[i] = md.isNullable(c);
+            displaySizes[i] = md.getColumnDisplaySize(c);
+            signed[i] = md.isSigned(c);
+            autoIncrement[i] = md.isAutoIncrement(c);
+            caseSensitive[i] = md.isCaseSensitive(c);
+            currency[i] = md.isCurrency(c);
+        }
+        for (int i = 0; i < n; i++) {
+            if (labels[i] != null) {
+                columnIndex.putIfAbsent(labels[i].toLowerCase(Locale.ROOT), i + 1);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (names[i] != null) {
+                columnIndex.putIfAbsent(names[i].toLowerCase(Locale.ROOT), i + 1);
+            }
+        }
+        this.rows = rows;
+        this.estimatedBytes = estimatedBytes;
+        this.complete = complete;
+    }
+
+    /**
+     * 读出结果集的全部行并关闭它；估算占用超过 maxBytes 时停止读取，返回已读的行（{@link #complete} 为 false），
+     * 结果集保持打开、游标停在最后读出的行上，由调用方继续读取。
+     *
+     * @return 物化结果；包含无法脱离连接保存的列类型（ARRAY、REF、SQLXML 等）时返回 null，此时结果集未被读取
+     */
+    static CachedResult materialize(ResultSet rs, long maxBytes) throws SQLException {
+        ResultSetMetaData md = rs.getMetaData();
+        int n = md.getColumnCount();
+        for (int c = 1; c <= n; c++) {
+            if (!isDetachable(md.getColumnType(c))) {
+                return null;
+            }
+        }
+        boolean complete = false;
+        try {
+            List<Object[]> rows = new ArrayList<>();
+            long bytes = 0;
+            while (bytes <= maxBytes) {
+                if (!rs.next()) {
+                    complete = true;
+                    break;
+                }
+                Object[] row = new Object[n];
+                bytes += ROW_OVERHEAD + (long) REFERENCE_SIZE * n;
+                for (int c = 0; c < n; c++) {
+                    Object value = detach(rs.getObject(c + 1));
+                    row[c] = value;
+                    bytes += sizeOf(value);
+                }
+                rows.add(row);
+            }
+            return new CachedResult(md, rows.toArray(new Object[0][]), bytes, complete);
+        } catch (SQLException | RuntimeException e) {
+            complete = true; // 读取失败时同样关闭
+            throw e;
+        } finally {
+            if (complete) {
+                rs.close();
+            }
+        }
+    }
+
+    /**
+     * @return 列下标（从 1 开始），未找到返回 0
+     */
+    int findColumn(String label) {
+        Integer index = columnIndex.get(label.toLowerCase(Locale.ROOT));
+        return index == null ? 0 : index;
+    }
+
+    private static boolean isDetachable(int type) {
+        switch (type) {
+            case Types.ARRAY:
+            case Types.STRUCT:
+            case Types.REF:
+            case Types.SQLXML:
+            case Types.ROWID:
+            case Types.DATALINK:
+            case Types.JAVA_OBJECT:
+            case Types.DISTINCT:
+            case Types.OTHER:
+            case Types.REF_CURSOR:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * LOB 读成字节或字符串后释放，其余值原样保存。
+     */
+    private static Object detach(Object value) throws SQLException {
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            try {
+                return blob.getBytes(1, (int) blob.length());
+            } finally {
+                blob.free();
+            }
+        }
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            try {
+                return clob.getSubString(1, (int) clob.length());
+            } finally {
+                clob.free();
+            }
+        }
+        return value;
+    }
+
+    private static long sizeOf(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return 64;
+        }
+        if (value instanceof Number) {
+            return 16;
+        }
+        return 32;
+    }
+}
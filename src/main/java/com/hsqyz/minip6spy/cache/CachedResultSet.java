@@ -0,0 +1,1341 @@
+package com.hsqyz.minip6spy.cache;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * 结果缓存返回的只读、可滚动结果集：在共享的 {@link CachedResult} 上维护独立游标，不占用连接。
+ * - 取值按 JDBC 常见规则在类型间转换（数值、字符串、日期时间）；
+ * - byte[] 与日期时间返回副本，调用方修改不会影响缓存；
+ * - 所有 update* 方法抛出 {@link SQLException}。
+ */
+public final class CachedResultSet implements ResultSet {
+
+    private final CachedResult result;
+    private final Statement statement;
+    private int position; // 0 为第一行之前，rows.length + 1 为最后一行之后
+    private boolean wasNull;
+    private boolean closed;
+
+    CachedResultSet(CachedResult result, Statement statement) {
+        this.result = result;
+        this.statement = statement;
+    }
+
+    /**
+     * @return 结果行数
+     */
+    public int getRowCount() {
+        return result.rows.length;
+    }
+
+    // ---- 游标 ----
+
+    @Override
+    public boolean next() throws SQLException {
+        checkOpen();
+        if (position <= result.rows.length) {
+            position++;
+        }
+        return position <= result.rows.length;
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        checkOpen();
+        if (position > 0) {
+            position--;
+        }
+        return position > 0;
+    }
+
+    @Override
+    public boolean absolute(int row) throws SQLException {
+        checkOpen();
+        int n = result.rows.length;
+        int target = row >= 0 ? row : n + 1 + row;
+        position = Math.max(0, Math.min(target, n + 1));
+        return position >= 1 && position <= n;
+    }
+
+    @Override
+    public boolean relative(int rows) throws SQLException {
+        checkOpen();
+        return absolute(Math.max(0, position + rows));
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        return absolute(1);
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        return absolute(-1);
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        checkOpen();
+        position = 0;
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        checkOpen();
+        position = result.rows.length + 1;
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        checkOpen();
+        return position == 0 && result.rows.length > 0;
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        checkOpen();
+        return position > result.rows.length && result.rows.length > 0;
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        checkOpen();
+        return position == 1 && result.rows.length > 0;
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        checkOpen();
+        return position == result.rows.length && position > 0;
+    }
+
+    @Override
+    public int getRow() throws SQLException {
+        checkOpen();
+        return position >= 1 && position <= result.rows.length ? position : 0;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return wasNull;
+    }
+
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
+        checkOpen();
+        int index = result.findColumn(columnLabel);
+        if (index == 0) {
+            throw new SQLException("Column '" + columnLabel + "' not found", "S0022");
+        }
+        return index;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return new CachedResultSetMetaData(result);
+    }
+
+    @Override
+    public Statement getStatement() {
+        return statement;
+    }
+
+    @Override
+    public SQLWarning getWarnings() {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() {
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        throw new SQLFeatureNotSupportedException("Cached result sets have no cursor name");
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public int getFetchDirection() {
+        return FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public int getFetchSize() {
+        return 0;
+    }
+
+    @Override
+    public int getType() {
+        return TYPE_SCROLL_INSENSITIVE;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getHoldability() {
+        return HOLD_CURSORS_OVER_COMMIT;
+    }
+
+    @Override
+    public boolean rowUpdated() {
+        return false;
+    }
+
+    @Override
+    public boolean rowInserted() {
+        return false;
+    }
+
+    @Override
+    public boolean rowDeleted() {
+        return false;
+    }
+
+    // ---- 取值 ----
+
+    @Override
+    public Object getObject(int columnIndex) throws SQLException {
+        return copyOf(value(columnIndex));
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        if (v == null || v instanceof String) {
+            return (String) v;
+        }
+        if (v instanceof BigDecimal) {
+            return ((BigDecimal) v).toPlainString();
+        }
+        if (v instanceof byte[]) {
+            return new String((byte[]) v, StandardCharsets.UTF_8);
+        }
+        return v.toString();
+    }
+
+    @Override
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        if (v == null) {
+            return false;
+        }
+        if (v instanceof Boolean) {
+            return (Boolean) v;
+        }
+        if (v instanceof String) {
+            String s = ((String) v).trim();
+            if ("true".equalsIgnoreCase(s) || "y".equalsIgnoreCase(s) || "yes".equalsIgnoreCase(s)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase(s) || "n".equalsIgnoreCase(s) || "no".equalsIgnoreCase(s) || s.isEmpty()) {
+                return false;
+            }
+        }
+        return decimal(v, columnIndex).signum() != 0;
+    }
+
+    @Override
+    public byte getByte(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? 0 : number(v, columnIndex).byteValue();
+    }
+
+    @Override
+    public short getShort(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? 0 : number(v, columnIndex).shortValue();
+    }
+
+    @Override
+    public int getInt(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? 0 : number(v, columnIndex).intValue();
+    }
+
+    @Override
+    public long getLong(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? 0L : number(v, columnIndex).longValue();
+    }
+
+    @Override
+    public float getFloat(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? 0f : number(v, columnIndex).floatValue();
+    }
+
+    @Override
+    public double getDouble(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? 0d : number(v, columnIndex).doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        return v == null ? null : decimal(v, columnIndex);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException {
+        BigDecimal d = getBigDecimal(columnIndex);
+        return d == null ? null : d.setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        if (v == null) {
+            return null;
+        }
+        if (v instanceof byte[]) {
+            return ((byte[]) v).clone();
+        }
+        if (v instanceof String) {
+            return ((String) v).getBytes(StandardCharsets.UTF_8);
+        }
+        throw conversion(v, "byte[]", columnIndex);
+    }
+
+    @Override
+    public Date getDate(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        if (v == null) {
+            return null;
+        }
+        if (v instanceof Date) {
+            return (Date) ((Date) v).clone();
+        }
+        if (v instanceof Timestamp) {
+            return Date.valueOf(((Timestamp) v).toLocalDateTime().toLocalDate());
+        }
+        if (v instanceof java.util.Date) {
+            return new Date(((java.util.Date) v).getTime());
+        }
+        if (v instanceof LocalDate) {
+            return Date.valueOf((LocalDate) v);
+        }
+        if (v instanceof LocalDateTime) {
+            return Date.valueOf(((LocalDateTime) v).toLocalDate());
+        }
+        if (v instanceof String) {
+            try {
+                return Date.valueOf(((String) v).trim());
+            } catch (IllegalArgumentException e) {
+                throw conversion(v, "java.sql.Date", columnIndex);
+            }
+        }
+        throw conversion(v, "java.sql.Date", columnIndex);
+    }
+
+    @Override
+    public Time getTime(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        if (v == null) {
+            return null;
+        }
+        if (v instanceof Time) {
+            return (Time) ((Time) v).clone();
+        }
+        if (v instanceof Timestamp) {
+            return Time.valueOf(((Timestamp) v).toLocalDateTime().toLocalTime());
+        }
+        if (v instanceof LocalTime) {
+            return Time.valueOf((LocalTime) v);
+        }
+        if (v instanceof LocalDateTime) {
+            return Time.valueOf(((LocalDateTime) v).toLocalTime());
+        }
+        if (v instanceof String) {
+            try {
+                return Time.valueOf(((String) v).trim());
+            } catch (IllegalArgumentException e) {
+                throw conversion(v, "java.sql.Time", columnIndex);
+            }
+        }
+        throw conversion(v, "java.sql.Time", columnIndex);
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        Object v = value(columnIndex);
+        if (v == null) {
+            return null;
+        }
+        if (v instanceof Timestamp) {
+            return (Timestamp) ((Timestamp) v).clone();
+        }
+        if (v instanceof java.util.Date) {
+            return new Timestamp(((java.util.Date) v).getTime());
+        }
+        if (v instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) v);
+        }
+        if (v instanceof LocalDate) {
+            return Timestamp.valueOf(((LocalDate) v).atStartOfDay());
+        }
+        if (v instanceof String) {
+            try {
+                return Timestamp.valueOf(((String) v).trim());
+            } catch (IllegalArgumentException e) {
+                throw conversion(v, "java.sql.Timestamp", columnIndex);
+            }
+        }
+        throw conversion(v, "java.sql.Timestamp", columnIndex);
+    }
+
+    /**
+     * 带日历的读取：把本地时区下的日期时间字段按日历所在时区重新解释。
+     */
+    @Override
+    public Date getDate(int columnIndex, Calendar cal) throws SQLException {
+        Date d = getDate(columnIndex);
+        return d == null || cal == null ? d : new Date(shift(d.toLocalDate().atStartOfDay(), cal));
+    }
+
+    @Override
+    public Time getTime(int columnIndex, Calendar cal) throws SQLException {
+        Time t = getTime(columnIndex);
+        return t == null || cal == null ? t : new Time(shift(t.toLocalTime().atDate(LocalDate.of(1970, 1, 1)), cal));
+    }
+
+    @Override
+    public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
+        Timestamp ts = getTimestamp(columnIndex);
+        if (ts == null || cal == null) {
+            return ts;
+        }
+        Timestamp shifted = new Timestamp(shift(ts.toLocalDateTime(), cal));
+        shifted.setNanos(ts.getNanos());
+        return shifted;
+    }
+
+    @Override
+    public InputStream getAsciiStream(int columnIndex) throws SQLException {
+        String s = getString(columnIndex);
+        return s == null ? null : new ByteArrayInputStream(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getUnicodeStream");
+    }
+
+    @Override
+    public InputStream getBinaryStream(int columnIndex) throws SQLException {
+        byte[] b = getBytes(columnIndex);
+        return b == null ? null : new ByteArrayInputStream(b);
+    }
+
+    @Override
+    public Reader getCharacterStream(int columnIndex) throws SQLException {
+        String s = getString(columnIndex);
+        return s == null ? null : new StringReader(s);
+    }
+
+    @Override
+    public Reader getNCharacterStream(int columnIndex) throws SQLException {
+        return getCharacterStream(columnIndex);
+    }
+
+    @Override
+    public String getNString(int columnIndex) throws SQLException {
+        return getString(columnIndex);
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+        byte[] b = getBytes(columnIndex);
+        return b == null ? null : new SerialBlob(b);
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+        String s = getString(columnIndex);
+        return s == null ? null : new SerialClob(s.toCharArray());
+    }
+
+    @Override
+    public URL getURL(int columnIndex) throws SQLException {
+        String s = getString(columnIndex);
+        if (s == null) {
+            return null;
+        }
+        try {
+            return new URL(s);
+        } catch (MalformedURLException e) {
+            throw new SQLException("Malformed URL in column " + columnIndex + ": " + s, e);
+        }
+    }
+
+    @Override
+    public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException {
+        return getObject(columnIndex);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        if (type == null) {
+            throw new SQLException("type must not be null");
+        }
+        Object v = value(columnIndex);
+        if (v == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return (T) getString(columnIndex);
+        }
+        if (type == Integer.class) {
+            return (T) Integer.valueOf(getInt(columnIndex));
+        }
+        if (type == Long.class) {
+            return (T) Long.valueOf(getLong(columnIndex));
+        }
+        if (type == Short.class) {
+            return (T) Short.valueOf(getShort(columnIndex));
+        }
+        if (type == Byte.class) {
+            return (T) Byte.valueOf(getByte(columnIndex));
+        }
+        if (type == Boolean.class) {
+            return (T) Boolean.valueOf(getBoolean(columnIndex));
+        }
+        if (type == Double.class) {
+            return (T) Double.valueOf(getDouble(columnIndex));
+        }
+        if (type == Float.class) {
+            return (T) Float.valueOf(getFloat(columnIndex));
+        }
+        if (type == BigDecimal.class) {
+            return (T) getBigDecimal(columnIndex);
+        }
+        if (type == BigInteger.class) {
+            return (T) getBigDecimal(columnIndex).toBigInteger();
+        }
+        if (type == byte[].class) {
+            return (T) getBytes(columnIndex);
+        }
+        if (type == Date.class) {
+            return (T) getDate(columnIndex);
+        }
+        if (type == Time.class) {
+            return (T) getTime(columnIndex);
+        }
+        if (type == Timestamp.class || type == java.util.Date.class) {
+            return (T) getTimestamp(columnIndex);
+        }
+        if (type == LocalDate.class) {
+            return (T) getDate(columnIndex).toLocalDate();
+        }
+        if (type == LocalTime.class) {
+            return v instanceof Timestamp ? (T) ((Timestamp) v).toLocalDateTime().toLocalTime()
+                    : (T) getTime(columnIndex).toLocalTime();
+        }
+        if (type == LocalDateTime.class) {
+            return (T) getTimestamp(columnIndex).toLocalDateTime();
+        }
+        if (type.isInstance(v)) {
+            return (T) copyOf(v);
+        }
+        throw conversion(v, type.getName(), columnIndex);
+    }
+
+    @Override
+    public Ref getRef(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getRef");
+    }
+
+    @Override
+    public Array getArray(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getArray");
+    }
+
+    @Override
+    public RowId getRowId(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getRowId");
+    }
+
+    @Override
+    public NClob getNClob(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getNClob");
+    }
+
+    @Override
+    public SQLXML getSQLXML(int columnIndex) throws SQLException {
+        throw new SQLFeatureNotSupportedException("getSQLXML");
+    }
+
+    // ---- 按列标签取值 ----
+
+    @Override
+    public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return getBoolean(findColumn(columnLabel));
+    }
+
+    @Override
+    public byte getByte(String columnLabel) throws SQLException {
+        return getByte(findColumn(columnLabel));
+    }
+
+    @Override
+    public short getShort(String columnLabel) throws SQLException {
+        return getShort(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public float getFloat(String columnLabel) throws SQLException {
+        return getFloat(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel), scale);
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return getBytes(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(String columnLabel) throws SQLException {
+        return getDate(findColumn(columnLabel));
+    }
+
+    @Override
+    public Time getTime(String columnLabel) throws SQLException {
+        return getTime(findColumn(columnLabel));
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return getTimestamp(findColumn(columnLabel));
+    }
+
+    @Override
+    public Date getDate(String columnLabel, Calendar cal) throws SQLException {
+        return getDate(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public Time getTime(String columnLabel, Calendar cal) throws SQLException {
+        return getTime(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
+        return getTimestamp(findColumn(columnLabel), cal);
+    }
+
+    @Override
+    public InputStream getAsciiStream(String columnLabel) throws SQLException {
+        return getAsciiStream(findColumn(columnLabel));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(String columnLabel) throws SQLException {
+        return getUnicodeStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public InputStream getBinaryStream(String columnLabel) throws SQLException {
+        return getBinaryStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getCharacterStream(String columnLabel) throws SQLException {
+        return getCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public Reader getNCharacterStream(String columnLabel) throws SQLException {
+        return getNCharacterStream(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getNString(String columnLabel) throws SQLException {
+        return getNString(findColumn(columnLabel));
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+        return getBlob(findColumn(columnLabel));
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+        return getClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public URL getURL(String columnLabel) throws SQLException {
+        return getURL(findColumn(columnLabel));
+    }
+
+    @Override
+    public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
+        return getObject(findColumn(columnLabel), map);
+    }
+
+    @Override
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        return getObject(findColumn(columnLabel), type);
+    }
+
+    @Override
+    public Ref getRef(String columnLabel) throws SQLException {
+        return getRef(findColumn(columnLabel));
+    }
+
+    @Override
+    public Array getArray(String columnLabel) throws SQLException {
+        return getArray(findColumn(columnLabel));
+    }
+
+    @Override
+    public RowId getRowId(String columnLabel) throws SQLException {
+        return getRowId(findColumn(columnLabel));
+    }
+
+    @Override
+    public NClob getNClob(String columnLabel) throws SQLException {
+        return getNClob(findColumn(columnLabel));
+    }
+
+    @Override
+    public SQLXML getSQLXML(String columnLabel) throws SQLException {
+        return getSQLXML(findColumn(columnLabel));
+    }
+
+    // ---- 只读：修改类方法一律拒绝 ----
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNull(int columnIndex) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(int columnIndex, boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(int columnIndex, byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(int columnIndex, short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(int columnIndex, int x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(int columnIndex, long x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(int columnIndex, float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(int columnIndex, double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(int columnIndex, String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(int columnIndex, byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(int columnIndex, Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(int columnIndex, Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(int columnIndex, Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNull(String columnLabel) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBoolean(String columnLabel, boolean x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateByte(String columnLabel, byte x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateShort(String columnLabel, short x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateInt(String columnLabel, int x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateLong(String columnLabel, long x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateFloat(String columnLabel, float x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDouble(String columnLabel, double x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBigDecimal(String columnLabel, BigDecimal x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateString(String columnLabel, String x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBytes(String columnLabel, byte[] x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateDate(String columnLabel, Date x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTime(String columnLabel, Time x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateTimestamp(String columnLabel, Timestamp x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, int length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x, int scaleOrLength) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateObject(String columnLabel, Object x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(int columnIndex, Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRef(String columnLabel, Ref x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, Blob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Clob x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(int columnIndex, Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateArray(String columnLabel, Array x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(int columnIndex, RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateRowId(String columnLabel, RowId x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(int columnIndex, String nString) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNString(String columnLabel, String nString) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(int columnIndex, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateClob(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(int columnIndex, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateNClob(String columnLabel, Reader reader) throws SQLException {
+        throw readOnly();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    // ---- 内部 ----
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Result set is closed");
+        }
+    }
+
+    /**
+     * 读取当前行的原始值并记录 wasNull。
+     */
+    private Object value(int columnIndex) throws SQLException {
+        checkOpen();
+        if (position < 1 || position > result.rows.length) {
+            throw new SQLException("No current row");
+        }
+        if (columnIndex < 1 || columnIndex > result.columnCount) {
+            throw new SQLException("Column index out of range: " + columnIndex, "S1009");
+        }
+        Object v = result.rows[position - 1][columnIndex - 1];
+        wasNull = v == null;
+        return v;
+    }
+
+    private static Object copyOf(Object v) {
+        if (v instanceof byte[]) {
+            return ((byte[]) v).clone();
+        }
+        if (v instanceof java.util.Date) {
+            return ((java.util.Date) v).clone();
+        }
+        return v;
+    }
+
+    private static Number number(Object v, int columnIndex) throws SQLException {
+        if (v instanceof Number) {
+            return (Number) v;
+        }
+        return decimal(v, columnIndex);
+    }
+
+    private static BigDecimal decimal(Object v, int columnIndex) throws SQLException {
+        if (v instanceof BigDecimal) {
+            return (BigDecimal) v;
+        }
+        if (v instanceof BigInteger) {
+            return new BigDecimal((BigInteger) v);
+        }
+        if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            return BigDecimal.valueOf(((Number) v).longValue());
+        }
+        if (v instanceof Number) {
+            return BigDecimal.valueOf(((Number) v).doubleValue());
+        }
+        if (v instanceof Boolean) {
+            return (Boolean) v ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+        if (v instanceof String) {
+            try {
+                return new BigDecimal(((String) v).trim());
+            } catch (NumberFormatException e) {
+                throw conversion(v, "number", columnIndex);
+            }
+        }
+        throw conversion(v, "number", columnIndex);
+    }
+
+    private static long shift(LocalDateTime local, Calendar cal) {
+        return local.atZone(cal.getTimeZone().toZoneId()).toInstant().toEpochMilli();
+    }
+
+    private static SQLException conversion(Object v, String target, int columnIndex) {
+        return new SQLException("Cannot convert " + v.getClass().getSimpleName() + " in column " + columnIndex
+                + " to " + target, "22018");
+    }
+
+    private static SQLException readOnly() {
+        return new SQLException("Cached result set is read-only");
+    }
+}
@@ -0,0 +1,146 @@
+package com.hsqyz.minip6spy.cache;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * 物化时抄录的列元数据，只读。
+ */
+final class CachedResultSetMetaData implements ResultSetMetaData {
+
+    private final CachedResult result;
+
+    CachedResultSetMetaData(CachedResult result) {
+        this.result = result;
+    }
+
+    private int index(int column) throws SQLException {
+        if (column < 1 || column > result.columnCount) {
+            throw new SQLException("Column index out of range: " + column);
+        }
+        return column - 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return result.columnCount;
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+        return result.autoIncrement[index(column)];
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+        return result.caseSensitive[index(column)];
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+        index(column);
+        return true;
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+        return result.currency[index(column)];
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+        return result.nullables[index(column)];
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        return result.signed[index(column)];
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        return result.displaySizes[index(column)];
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        return result.labels[index(column)];
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        return result.names[index(column)];
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+        return result.schemaNames[index(column)];
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        return result.precisions[index(column)];
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        return result.scales[index(column)];
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+        return result.tableNames[index(column)];
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+        return result.catalogNames[index(column)];
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        return result.types[index(column)];
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        return result.typeNames[index(column)];
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+        index(column);
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+        index(column);
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+        index(column);
+        return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        return result.classNames[index(column)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
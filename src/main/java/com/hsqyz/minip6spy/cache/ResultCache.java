@@ -0,0 +1,427 @@
+package com.hsqyz.minip6spy.cache;
+
+import com.hsqyz.minip6spy.param.BoundParameters;
+import com.hsqyz.minip6spy.sql.NormalizedSql;
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按需开启的查询结果缓存：允许名单中的 SELECT 模板 + 原始 SQL + 绑定参数 + 连接的 catalog / schema 作为键，
+ * 结果物化为不占连接的 {@link CachedResultSet}，每次命中返回共享数据上的独立游标。
+ * - 范围：键不含数据库用户，权限不同的用户应使用各自的上下文（或不开启缓存），否则可能读到对方可见的行；
+ * - 失效：同一上下文中写语句（非 SELECT）执行后，按解析出的表名递增表版本；条目记录查询前读到的版本，
+ *   命中时版本不一致即视为失效，查询与写入并发时也不会缓存旧数据。解析不出表名的写语句使全部条目失效；
+ * - 容量：按估算字节数限制总量，超出时淘汰最近最少使用的条目；条目另有存活时间；
+ *   物化时边读边累计，单条超出上限即停止缓冲，已读的行回放后继续读取数据库游标（见 {@link ReplayingResultSet}）；
+ *   表版本最多记录 {@value #MAX_TABLE_VERSIONS} 张表，超出时清空版本表并使全部条目失效；
+ * - 统计：命中率、条目数与估算占用见 {@link #getStats()}。
+ * 条目表为加锁的 LinkedHashMap（访问顺序），锁内只做哈希查找与链表调整。
+ */
+public final class ResultCache {
+
+    // 估算单个条目的固定开销：Entry、Key、哈希表节点与版本数组
+    private static final int ENTRY_OVERHEAD = 160;
+    // 表版本的表数上限，防止表名不断变化（分表、临时表）时版本表无限增长
+    static final int MAX_TABLE_VERSIONS = 4096;
+
+    private final ResultCacheOptions options;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Set<Key>> keysByTable = new ConcurrentHashMap<>(); // 仅在锁内修改，写语句在锁外快速判断
+    private final ConcurrentHashMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+    private long bytes; // 锁内维护
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResultCache(ResultCacheOptions options) {
+        this.options = options;
+    }
+
+    public ResultCacheOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 查询前调用：判断是否允许缓存，并记录此刻涉及表的版本。
+     *
+     * @param sql        原始 SQL
+     * @param parameters 绑定参数，普通 Statement 为 {@link BoundParameters#EMPTY}；未采集时为 null
+     * @return 不在允许名单、不是 SELECT、解析不出表名或参数不完整时返回 null
+     */
+    public Lookup lookup(String sql, BoundParameters parameters) {
+        return lookup(null, sql, null, parameters);
+    }
+
+    /**
+     * 同 {@link #lookup(String, BoundParameters)}，区分连接范围并使用调用方已计算的归一化结果。
+     *
+     * @param scope      连接的 catalog / schema 标识，同一 SQL 在不同范围下互不命中；可为 null
+     * @param normalized sql 的归一化结果，为 null 时现场计算
+     */
+    public Lookup lookup(String scope, String sql, NormalizedSql normalized, BoundParameters parameters) {
+        if (sql == null || parameters == null) {
+            return null;
+        }
+        if (normalized == null) {
+            normalized = SqlNormalizer.shared().normalize(sql);
+        }
+        if (!options.getTemplates().contains(normalized.getSql()) || !"SELECT".equals(normalized.getVerb())) {
+            return null;
+        }
+        List<String> tables = normalized.getTables();
+        if (tables.isEmpty() || !parameters.isExact()) {
+            return null;
+        }
+        long global = globalVersion.get();
+        long[] versions = new long[tables.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = version(tables.get(i)).get();
+        }
+        return new Lookup(new Key(scope, sql, parameters), tables, global, versions);
+    }
+
+    /**
+     * @param owner 结果集的 {@link ResultSet#getStatement()}
+     * @return 命中时返回新的游标，未命中、过期或已失效时返回 null
+     */
+    public ResultSet get(Lookup lookup, Statement owner) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(lookup.key);
+            if (entry != null && (System.nanoTime() - entry.expiresAtNanos >= 0 || !isCurrent(entry.tables, entry.global, entry.versions))) {
+                remove(lookup.key, entry);
+                invalidations.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new CachedResultSet(entry.result, owner);
+    }
+
+    /**
+     * 未命中后调用：物化并关闭数据库返回的结果集，条件满足时写入缓存。
+     * 估算占用超过单条上限时停止缓冲、不写入缓存，返回先回放已读行再继续读取 rs 的游标。
+     *
+     * @return 物化后的游标；含有无法物化的列类型时返回 null，此时 rs 未被读取，调用方原样使用
+     */
+    public ResultSet fill(Lookup lookup, ResultSet rs, Statement owner) throws SQLException {
+        if (rs == null) {
+            return null;
+        }
+        long overhead = ENTRY_OVERHEAD + lookup.key.estimatedBytes();
+        CachedResult result = CachedResult.materialize(rs, options.getMaxEntryBytes() - overhead);
+        if (result == null) {
+            return null;
+        }
+        long size = overhead + result.estimatedBytes;
+        if (!result.complete || size > options.getMaxEntryBytes()) {
+            rejected.increment();
+            CachedResultSet buffered = new CachedResultSet(result, owner);
+            return result.complete ? buffered : new ReplayingResultSet(buffered, rs, owner);
+        }
+        Entry entry = new Entry(result, lookup.tables, lookup.global, lookup.versions,
+                System.nanoTime() + options.getTtlNanos(), size);
+        synchronized (this) {
+            if (!isCurrent(lookup.tables, lookup.global, lookup.versions)) {
+                rejected.increment(); // 查询期间表已被写入，结果可能已过时
+            } else {
+                Entry previous = entries.get(lookup.key);
+                if (previous != null) {
+                    remove(lookup.key, previous);
+                }
+                entries.put(lookup.key, entry);
+                for (String table : entry.tables) {
+                    keysByTable.computeIfAbsent(table, t -> new HashSet<>()).add(lookup.key);
+                }
+                bytes += size;
+                stores.increment();
+                evict();
+            }
+        }
+        return new CachedResultSet(result, owner);
+    }
+
+    /**
+     * 写语句执行后调用：使涉及表的条目失效。
+     *
+     * @return 写入的表名（空列表表示无法解析、已使全部条目失效）；SELECT 等只读语句返回 null
+     */
+    public List<String> invalidate(String sql) {
+        return invalidate(sql, null);
+    }
+
+    /**
+     * 同 {@link #invalidate(String)}，使用调用方已计算的归一化结果。
+     *
+     * @param normalized sql 的归一化结果，为 null 时现场计算
+     */
+    public List<String> invalidate(String sql, NormalizedSql normalized) {
+        if (sql == null) {
+            invalidateAll();
+            return Collections.emptyList();
+        }
+        if (normalized == null) {
+            normalized = SqlNormalizer.shared().normalize(sql);
+        }
+        if (isReadOnly(normalized.getVerb())) {
+            return null;
+        }
+        List<String> tables = normalized.getTables();
+        if (tables.isEmpty()) {
+            invalidateAll();
+        } else {
+            invalidateTables(tables);
+        }
+        return tables;
+    }
+
+    /**
+     * 递增表版本并移除这些表的条目。
+     */
+    public void invalidateTables(Collection<String> tables) {
+        boolean cached = false;
+        for (String table : tables) {
+            version(table).incrementAndGet();
+            cached |= keysByTable.containsKey(table);
+        }
+        if (!cached) {
+            return; // 写入的表没有缓存条目，不必加锁
+        }
+        synchronized (this) {
+            for (String table : tables) {
+                Set<Key> keys = keysByTable.get(table);
+                if (keys == null) {
+                    continue;
+                }
+                for (Key key : keys.toArray(new Key[0])) {
+                    Entry entry = entries.get(key);
+                    if (entry != null) {
+                        remove(key, entry);
+                        invalidations.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 使全部条目失效。
+     */
+    public void invalidateAll() {
+        globalVersion.incrementAndGet();
+        synchronized (this) {
+            invalidations.add(entries.size());
+            clearEntries();
+        }
+    }
+
+    /**
+     * 清空条目，不计入失效次数。
+     */
+    public synchronized void clear() {
+        globalVersion.incrementAndGet();
+        clearEntries();
+    }
+
+    public ResultCacheStats getStats() {
+        long entryCount;
+        long byteCount;
+        synchronized (this) {
+            entryCount = entries.size();
+            byteCount = bytes;
+        }
+        return new ResultCacheStats(hits.sum(), misses.sum(), stores.sum(), rejected.sum(), evictions.sum(),
+                invalidations.sum(), entryCount, byteCount);
+    }
+
+    private AtomicLong version(String table) {
+        AtomicLong v = tableVersions.get(table);
+        if (v != null) {
+            return v;
+        }
+        if (tableVersions.size() >= MAX_TABLE_VERSIONS) {
+            resetTableVersions();
+        }
+        return tableVersions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    /**
+     * 版本表已满：先清空再递增全局版本，期间开始的查询都会因全局版本不一致而不被缓存，
+     * 已有条目随之全部失效。
+     */
+    private synchronized void resetTableVersions() {
+        if (tableVersions.size() < MAX_TABLE_VERSIONS) {
+            return; // 其它线程已清空
+        }
+        tableVersions.clear();
+        globalVersion.incrementAndGet();
+        invalidations.add(entries.size());
+        clearEntries();
+    }
+
+    private boolean isCurrent(List<String> tables, long global, long[] versions) {
+        if (global != globalVersion.get()) {
+            return false;
+        }
+        for (int i = 0; i < versions.length; i++) {
+            AtomicLong v = tableVersions.get(tables.get(i)); // 不在此处创建：调用方持有锁，版本表已满时不能清空条目
+            if (v == null || versions[i] != v.get()) {
+                return false; // 版本表被清空过，全局版本也已变化
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 调用方持有锁：超出总量时从最久未访问的条目开始淘汰。
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (bytes > options.getMaxBytes() && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            unindex(eldest.getKey(), eldest.getValue());
+            evictions.increment();
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        unindex(key, entry);
+    }
+
+    private void unindex(Key key, Entry entry) {
+        bytes -= entry.size;
+        for (String table : entry.tables) {
+            Set<Key> keys = keysByTable.get(table);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTable.remove(table);
+            }
+        }
+    }
+
+    private void clearEntries() {
+        entries.clear();
+        keysByTable.clear();
+        bytes = 0;
+    }
+
+    /**
+     * 不修改数据的语句类型，执行后无需失效。
+     */
+    private static boolean isReadOnly(String verb) {
+        switch (verb) {
+            case "SELECT":
+            case "SHOW":
+            case "DESC":
+            case "DESCRIBE":
+            case "EXPLAIN":
+            case "SET":
+            case "USE":
+            case "BEGIN":
+            case "START":
+            case "COMMIT":
+            case "ROLLBACK":
+            case "SAVEPOINT":
+            case "RELEASE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 一次查询的缓存键与查询前的表版本，由 {@link #lookup} 创建。
+     */
+    public static final class Lookup {
+        private final Key key;
+        private final List<String> tables;
+        private final long global;
+        private final long[] versions;
+
+        private Lookup(Key key, List<String> tables, long global, long[] versions) {
+            this.key = key;
+            this.tables = tables;
+            this.global = global;
+            this.versions = versions;
+        }
+    }
+
+    private static final class Key {
+        private final String scope;
+        private final String sql;
+        private final BoundParameters parameters;
+        private final int hash;
+
+        Key(String scope, String sql, BoundParameters parameters) {
+            this.scope = scope;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.hash = 31 * (31 * Objects.hashCode(scope) + sql.hashCode()) + parameters.hashCode();
+        }
+
+        long estimatedBytes() {
+            return 40 + 2L * sql.length() + 24L * parameters.size();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && sql.equals(other.sql) && Objects.equals(scope, other.scope)
+                    && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final CachedResult result;
+        final List<String> tables;
+        final long global;
+        final long[] versions;
+        final long expiresAtNanos;
+        final long size;
+
+        Entry(CachedResult result, List<String> tables, long global, long[] versions, long expiresAtNanos, long size) {
+            this.result = result;
+            this.tables = tables;
+            this.global = global;
+            this.versions = versions;
+            this.expiresAtNanos = expiresAtNanos;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.hsqyz.minip6spy.cache;
+
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果缓存配置：允许缓存的 SQL 模板、过期时间与内存上限。
+ */
+public final class ResultCacheOptions {
+
+    private final Set<String> templates;
+    private final long ttlNanos;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    private ResultCacheOptions(Builder builder) {
+        this.templates = Collections.unmodifiableSet(new HashSet<>(builder.templates));
+        this.ttlNanos = builder.ttlNanos;
+        this.maxBytes = builder.maxBytes;
+        this.maxEntryBytes = Math.min(builder.maxEntryBytes, builder.maxBytes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 允许缓存的模板（归一化文本，见 {@link SqlNormalizer}）
+     */
+    public Set<String> getTemplates() {
+        return templates;
+    }
+
+    public long getTtlNanos() {
+        return ttlNanos;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public static final class Builder {
+        private final Set<String> templates = new HashSet<>();
+        private long ttlNanos = TimeUnit.SECONDS.toNanos(60);
+        private long maxBytes = 32L * 1024 * 1024;
+        private long maxEntryBytes = 1024 * 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * 允许缓存的查询，可多次调用叠加；传入原始 SQL 即可，按归一化模板匹配（字面量、空白与注释不影响）。
+         * 只有 SELECT 且能解析出表名的模板会被缓存。
+         */
+        public Builder template(String... sqls) {
+            for (String sql : sqls) {
+                templates.add(SqlNormalizer.shared().normalize(sql).getSql());
+            }
+            return this;
+        }
+
+        /**
+         * 条目写入后的存活时间（默认 60 秒）；表被写入时即使未过期也会失效。
+         */
+        public Builder ttl(long ttl, TimeUnit unit) {
+            if (ttl <= 0) {
+                throw new IllegalArgumentException("ttl must be positive: " + ttl);
+            }
+            this.ttlNanos = unit.toNanos(ttl);
+            return this;
+        }
+
+        /**
+         * 全部条目估算占用的上限（默认 32MB），超出时按最近最少使用淘汰。
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes <= 0) {
+                throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * 单条结果估算占用的上限（默认 1MB），物化时超出即停止缓冲：更大的结果照常返回（余下的行直接读数据库游标）但不缓存。
+         */
+        public Builder maxEntryBytes(long maxEntryBytes) {
+            if (maxEntryBytes <= 0) {
+                throw new IllegalArgumentException("maxEntryBytes must be positive: " + maxEntryBytes);
+            }
+            this.maxEntryBytes = maxEntryBytes;
+            return this;
+        }
+
+        public ResultCacheOptions build() {
+            return new ResultCacheOptions(this);
+        }
+    }
+}
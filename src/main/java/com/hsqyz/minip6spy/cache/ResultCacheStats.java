@@ -0,0 +1,97 @@
+package com.hsqyz.minip6spy.cache;
+
+/**
+ * 结果缓存的统计快照。
+ */
+public final class ResultCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long stores;
+    private final long rejected;
+    private final long evictions;
+    private final long invalidations;
+    private final long entries;
+    private final long bytes;
+
+    ResultCacheStats(long hits, long misses, long stores, long rejected, long evictions, long invalidations,
+                     long entries, long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.stores = stores;
+        this.rejected = rejected;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.entries = entries;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return 命中次数（允许缓存的查询直接返回缓存结果）
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return 未命中次数（允许缓存的查询访问了数据库）
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return 命中率，尚无查询时为 0
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    /**
+     * @return 写入缓存的次数
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * @return 结果超过单条上限或期间表被写入而未缓存的次数
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return 超出内存上限被淘汰的条目数
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return 因过期或表被写入而移除的条目数
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return 当前条目估算占用的字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCacheStats{hits=" + hits + ", misses=" + misses
+                + ", hitRatio=" + String.format("%.3f", getHitRatio())
+                + ", entries=" + entries + ", bytes=" + bytes
+                + ", evictions=" + evictions + ", invalidations=" + invalidations + '}';
+    }
+}
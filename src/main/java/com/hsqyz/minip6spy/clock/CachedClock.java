@@ -0,0 +1,58 @@
+package com.hsqyz.minip6spy.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 粗粒度缓存时钟：守护线程每隔 tick 毫秒刷新一次当前时间，读取方只做一次 volatile 读。
+ * 精度为一个 tick，适合高 QPS 下只需要毫秒级开始时间的场景。
+ */
+public final class CachedClock implements SpyClock, AutoCloseable {
+
+    private volatile long now = System.currentTimeMillis();
+    private volatile boolean running = true;
+    private final Thread ticker;
+
+    /**
+     * @param tickMillis 刷新间隔（毫秒），越小越精确
+     */
+    public CachedClock(long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.ticker = new Thread(() -> {
+            while (running) {
+                now = System.currentTimeMillis();
+                LockSupport.parkNanos(tickNanos);
+            }
+        }, "mini-p6spy-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * @return 全局共享的 1ms 精度缓存时钟（首次调用时启动）
+     */
+    public static CachedClock shared() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * 停止刷新线程；停止后时间不再前进。
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+
+    private static final class Holder {
+        private static final CachedClock INSTANCE = new CachedClock(1);
+    }
+}
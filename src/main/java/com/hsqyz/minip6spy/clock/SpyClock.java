@@ -0,0 +1,22 @@
+package com.hsqyz.minip6spy.clock;
+
+/**
+ * 墙上时钟来源，仅用于事件的开始时间戳；耗时统一使用 {@link System#nanoTime()}。
+ * - {@link #system()}：直接读取 {@link System#currentTimeMillis()}（默认）；
+ * - {@link CachedClock#shared()}：后台线程按固定间隔刷新的粗粒度时钟，读取只是一次 volatile 读。
+ */
+@FunctionalInterface
+public interface SpyClock {
+
+    /**
+     * @return 当前时间（Unix 毫秒）
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return 基于 {@link System#currentTimeMillis()} 的时钟
+     */
+    static SpyClock system() {
+        return System::currentTimeMillis;
+    }
+}
@@ -0,0 +1,208 @@
+package com.hsqyz.minip6spy.config;
+
+import com.hsqyz.minip6spy.guard.GuardedSqlListener;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.proxy.SpyControl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监视 properties 文件，变化时通过 {@link SpyControl} 调整采集行为，无需重启应用。
+ * 支持的键（缺省的键保持当前值不变）：
+ * - enabled：true / false，总开关；
+ * - sampling.rate：0 ~ 1 的采样概率，1 表示全部采样；
+ * - slow.threshold.ms：只分发耗时不低于该值的事件，≤ 0 取消过滤；
+ * - listeners：逗号分隔的监听器类名（需有无参构造），整体替换监听器列表，已存在的同类实例保留；
+ *   指标注册表等上下文内部注册的监听器不受影响。
+ * 监视时每个键只在取值与上次加载不同时才应用（首次加载应用全部出现的键），
+ * 因此文件未改动的键不会覆盖构建器或运行时通过 {@link SpyControl} 设置的采样器、过滤条件与监听器；
+ * 改动 sampling.rate / slow.threshold.ms 时以文件为准，替换当前的采样器 / 过滤条件。
+ * 文件所在目录通过 {@link WatchService} 监视，回调在守护线程执行；文件解析失败时记录警告并保留原配置。
+ */
+public final class SpyConfigWatcher implements AutoCloseable {
+
+    public static final String ENABLED = "enabled";
+    public static final String SAMPLING_RATE = "sampling.rate";
+    public static final String SLOW_THRESHOLD_MS = "slow.threshold.ms";
+    public static final String LISTENERS = "listeners";
+
+    private static final Logger log = LoggerFactory.getLogger("mini-p6spy");
+
+    private final Path file;
+    private final SpyControl control;
+    private final WatchService watchService;
+    private final Thread thread;
+    private final Properties applied = new Properties(); // 各键最近一次应用的取值，在 reload() 的锁内读写
+
+    private SpyConfigWatcher(Path file, SpyControl control) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.control = control;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "mini-p6spy-config-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * 立即应用一次文件内容（文件存在时），之后在文件变化时重新应用。
+     *
+     * @param file    properties 文件，所在目录必须存在
+     * @param control 目标数据源或驱动的控制入口
+     * @return 监视器，close() 停止监视
+     */
+    public static SpyConfigWatcher watch(Path file, SpyControl control) throws IOException {
+        SpyConfigWatcher watcher = new SpyConfigWatcher(file, control);
+        watcher.reload();
+        watcher.thread.start();
+        return watcher;
+    }
+
+    /**
+     * 把属性应用到控制入口，可脱离文件监视单独使用；出现的键全部应用。
+     *
+     * @throws IllegalArgumentException 取值非法或监听器类无法实例化
+     */
+    public static void apply(Properties properties, SpyControl control) {
+        // 先解析全部取值，任一非法时整体不生效
+        String rate = trimmed(properties, SAMPLING_RATE);
+        Double samplingRate = rate == null ? null : Double.valueOf(rate);
+        String threshold = trimmed(properties, SLOW_THRESHOLD_MS);
+        Long thresholdMs = threshold == null ? null : Long.valueOf(threshold);
+        String names = trimmed(properties, LISTENERS);
+        List<SqlListener> listeners = names == null ? null : resolveListeners(names, control.getListeners());
+        String enabled = trimmed(properties, ENABLED);
+
+        if (samplingRate != null) {
+            control.setSamplingRate(samplingRate);
+        }
+        if (thresholdMs != null) {
+            control.setSlowThreshold(thresholdMs, TimeUnit.MILLISECONDS);
+        }
+        if (listeners != null) {
+            control.setListeners(listeners);
+        }
+        if (enabled != null) {
+            if (Boolean.parseBoolean(enabled)) {
+                control.enable();
+            } else {
+                control.disable();
+            }
+        }
+    }
+
+    /**
+     * 停止监视线程。
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || context instanceof Path && file.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    return; // 目录已不可访问
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignore) {
+            // close() 结束监视
+        }
+    }
+
+    private synchronized void reload() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            Properties changed = changedSince(applied, properties);
+            apply(changed, control);
+            applied.putAll(changed); // 缺省的键保留上次的值，写文件过程中读到的不完整内容不会让之后的完整内容被视为改动
+        } catch (IOException | RuntimeException e) {
+            log.warn("加载 mini-p6spy 配置失败，保留当前配置：{}", file, e);
+        }
+    }
+
+    /**
+     * @return 与上次应用相比取值有变化的键
+     */
+    private static Properties changedSince(Properties previous, Properties current) {
+        Properties changed = new Properties();
+        for (String key : new String[]{ENABLED, SAMPLING_RATE, SLOW_THRESHOLD_MS, LISTENERS}) {
+            String value = trimmed(current, key);
+            if (value != null && !value.equals(trimmed(previous, key))) {
+                changed.setProperty(key, value);
+            }
+        }
+        return changed;
+    }
+
+    private static List<SqlListener> resolveListeners(String names, List<SqlListener> current) {
+        List<SqlListener> result = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            SqlListener existing = null;
+            for (SqlListener listener : current) {
+                SqlListener raw = listener instanceof GuardedSqlListener ? ((GuardedSqlListener) listener).getDelegate() : listener;
+                if (raw.getClass().getName().equals(name)) {
+                    existing = listener; // 保留原实例（含熔断包装及其统计）
+                    break;
+                }
+            }
+            result.add(existing != null ? existing : instantiate(name));
+        }
+        return result;
+    }
+
+    private static SqlListener instantiate(String className) {
+        try {
+            Class<?> type = Class.forName(className, true, SpyConfigWatcher.class.getClassLoader());
+            return (SqlListener) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("无法创建监听器：" + className, e);
+        }
+    }
+
+    private static String trimmed(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+}
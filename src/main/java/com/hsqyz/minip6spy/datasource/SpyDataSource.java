@@ -1,36 +1,35 @@
 package com.hsqyz.minip6spy.datasource;
 
-import com.hsqyz.minip6spy.handler.ConnectionInvocationHandler;
 import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.proxy.SpyConnection;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+import com.hsqyz.minip6spy.proxy.SpyControl;
+import com.hsqyz.minip6spy.sampling.SqlSampler;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
-import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
 
 /**
  * DataSource 装饰器，拦截 JDBC 调用并推送 SQL 事件。
  * 核心流程：
- * 1) 代理 Connection：拦截 createStatement / prepareStatement / prepareCall，返回被代理的 Statement；
- * 2) 代理 Statement：拦截 execute* / executeBatch / executeLarge* / addBatch，采集 SQL、耗时、批量大小、异常；
+ * 1) 代理 Connection：{@link SpyConnection} 拦截 createStatement / prepareStatement / prepareCall，返回被代理的 Statement；
+ * 2) 代理 Statement：Spy*Statement 拦截 execute* / executeBatch / executeLarge* / addBatch，采集 SQL、耗时、批量大小、异常；
  * 3) 事件推送：将 SqlEvent 分发给监听器，监听器异常被吞掉不影响主流程。
  * 设计目标：最小侵入（包装 DataSource 即可）、可组合监听、多场景适配（日志、监控、告警）。
  */
-public final class SpyDataSource implements DataSource {
+public final class SpyDataSource implements DataSource, AutoCloseable {
 
     private final DataSource delegate; // 真实的数据源实现
-    private final List<SqlListener> listeners; // 事件监听器集合
+    private final SpyContext context; // 所有代理连接共享的上下文（监听器等）
 
-    private SpyDataSource(DataSource delegate, List<SqlListener> listeners) { // 构造函数，仅内部使用
+    private SpyDataSource(DataSource delegate, SpyContext context) { // 构造函数，仅内部使用
         this.delegate = Objects.requireNonNull(delegate, "delegate DataSource"); // 校验并保存真实数据源
-        this.listeners = java.util.Collections.unmodifiableList(new ArrayList<>(listeners)); // 监听器防御式拷贝并设为只读
+        this.context = Objects.requireNonNull(context, "context"); // 监听器在上下文中防御式拷贝并设为只读
     }
 
     /**
@@ -41,28 +40,62 @@ public final class SpyDataSource implements DataSource {
      * @return 代理 DataSource
      */
     public static DataSource wrap(DataSource delegate, SqlListener... listeners) { // 静态工厂，外部入口
-        List<SqlListener> safe = listeners == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(listeners)); // 构建可变监听器列表
-        return new SpyDataSource(delegate, safe); // 返回包装后的 DataSource
+        return new SpyDataSource(delegate, SpyContext.builder().listeners(listeners).build()); // 返回包装后的 DataSource
     }
 
-    @Override
-    public Connection getConnection() throws SQLException { // 无参获取连接
-        return wrap(delegate.getConnection()); // 包装底层连接为代理连接
+    /**
+     * 包装已有 DataSource 并按采样器筛选执行，未采样的执行不构建事件。
+     *
+     * @param delegate  真实数据源
+     * @param sampler   采样器，见 {@link SqlSampler}
+     * @param listeners 可选监听器（可多选）
+     * @return 代理 DataSource
+     */
+    public static DataSource wrapSampled(DataSource delegate, SqlSampler sampler, SqlListener... listeners) { // 采样入口
+        return new SpyDataSource(delegate, SpyContext.builder().listeners(listeners).sampler(sampler).build()); // 返回包装后的 DataSource
     }
 
-    @Override
-    public Connection getConnection(String username, String password) throws SQLException { // 账户密码获取连接
-        return wrap(delegate.getConnection(username, password)); // 包装底层连接为代理连接
+    /**
+     * 使用自定义上下文包装 DataSource（异步分发等高级配置）。
+     *
+     * @param delegate 真实数据源
+     * @param context  代理上下文，见 {@link SpyContext#builder()}
+     * @return 代理 DataSource
+     */
+    public static SpyDataSource wrap(DataSource delegate, SpyContext context) { // 高级配置入口
+        return new SpyDataSource(delegate, context); // 返回包装后的 DataSource
     }
 
     /**
-     * 为 Connection 创建代理，只关心创建 Statement 的方法，其余方法透传。
+     * @return 当前数据源共享的代理上下文
      */
-    private Connection wrap(Connection connection) { // 构造连接代理
-        return (Connection) Proxy.newProxyInstance(
-                connection.getClass().getClassLoader(), // 使用同一类加载器
-                new Class[]{Connection.class}, // 代理的接口集合
-                new ConnectionInvocationHandler(connection, listeners)); // 调用处理器
+    public SpyContext getContext() { // 读取上下文（分发器计数等）
+        return context;
+    }
+
+    /**
+     * @return 运行时控制入口：开关采集、增删监听器、调整采样与阈值
+     */
+    public SpyControl control() {
+        return context.control();
+    }
+
+    /**
+     * 关闭代理上下文（异步分发时等待剩余事件投递完毕），不会关闭底层数据源。
+     */
+    @Override
+    public void close() { // 释放代理层资源
+        context.close(); // 委托上下文关闭分发器
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException { // 无参获取连接
+        return SpyConnection.open(context, delegate::getConnection); // 统计获取耗时并包装为代理连接
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException { // 账户密码获取连接
+        return SpyConnection.open(context, () -> delegate.getConnection(username, password)); // 同上
     }
 
     @Override
@@ -0,0 +1,140 @@
+package com.hsqyz.minip6spy.dispatch;
+
+/**
+ * 异步分发配置：队列容量、消费线程数、溢出策略以及采样参数。
+ */
+public final class AsyncDispatchOptions {
+
+    private final int capacity;
+    private final int consumerThreads;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final double sampleThreshold;
+
+    private AsyncDispatchOptions(Builder builder) {
+        this.capacity = builder.capacity;
+        this.consumerThreads = builder.consumerThreads;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.sampleRate = builder.sampleRate;
+        this.sampleThreshold = builder.sampleThreshold;
+    }
+
+    /**
+     * 创建配置构建器。
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 默认配置：8192 容量、单消费线程、丢弃新事件
+     */
+    public static AsyncDispatchOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return 队列容量（会向上取整为 2 的幂）
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 消费线程数
+     */
+    public int getConsumerThreads() {
+        return consumerThreads;
+    }
+
+    /**
+     * @return 队列写满时的溢出策略
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return SAMPLE 策略下的采样比例 1/N
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @return SAMPLE 策略开始采样的队列占用比例（0~1）
+     */
+    public double getSampleThreshold() {
+        return sampleThreshold;
+    }
+
+    public static final class Builder {
+        private int capacity = 8192;
+        private int consumerThreads = 1;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+        private int sampleRate = 10;
+        private double sampleThreshold = 0.5;
+
+        private Builder() {
+        }
+
+        /**
+         * 设置队列容量。
+         */
+        public Builder capacity(int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * 设置消费线程数；多于 1 个时监听器会被并发回调，需自行保证线程安全。
+         */
+        public Builder consumerThreads(int consumerThreads) {
+            if (consumerThreads <= 0) {
+                throw new IllegalArgumentException("consumerThreads must be positive: " + consumerThreads);
+            }
+            this.consumerThreads = consumerThreads;
+            return this;
+        }
+
+        /**
+         * 设置溢出策略。
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP_NEWEST : overflowPolicy;
+            return this;
+        }
+
+        /**
+         * 设置 SAMPLE 策略的采样比例：队列占用超过阈值后每 N 条保留 1 条。
+         */
+        public Builder sampleRate(int sampleRate) {
+            if (sampleRate <= 0) {
+                throw new IllegalArgumentException("sampleRate must be positive: " + sampleRate);
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * 设置 SAMPLE 策略开始采样的队列占用比例。
+         */
+        public Builder sampleThreshold(double sampleThreshold) {
+            if (sampleThreshold <= 0 || sampleThreshold > 1) {
+                throw new IllegalArgumentException("sampleThreshold must be in (0, 1]: " + sampleThreshold);
+            }
+            this.sampleThreshold = sampleThreshold;
+            return this;
+        }
+
+        /**
+         * 构造不可变配置。
+         */
+        public AsyncDispatchOptions build() {
+            return new AsyncDispatchOptions(this);
+        }
+    }
+}
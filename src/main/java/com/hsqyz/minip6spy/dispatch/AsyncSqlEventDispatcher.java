@@ -0,0 +1,244 @@
+package com.hsqyz.minip6spy.dispatch;
+
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步分发：JDBC 线程只做一次环形队列写入，后台消费线程批量回调监听器。
+ * - 队列为预分配的无锁多生产者环形队列，容量固定；
+ * - 队列写满时按 {@link OverflowPolicy} 处理，并记录入队与丢弃计数；
+ * - 消费线程空闲时先自旋、再让出、最后短暂 park，兼顾延迟与 CPU 占用；
+ * - {@link #close()} 会等待队列中剩余事件投递完毕。
+ * 消费线程多于 1 个时监听器会被并发调用，且事件之间不保证顺序。
+ */
+public final class AsyncSqlEventDispatcher implements SqlEventDispatcher {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 10;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final MpmcRingBuffer ring;
+    private final DirectSqlEventDispatcher delegate;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final int sampleWatermark;
+    private final Thread[] consumers;
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private volatile boolean running = true;
+
+    public AsyncSqlEventDispatcher(List<SqlListener> listeners, AsyncDispatchOptions options) {
+        this.ring = new MpmcRingBuffer(options.getCapacity());
+        this.delegate = new DirectSqlEventDispatcher(listeners);
+        this.overflowPolicy = options.getOverflowPolicy();
+        this.sampleRate = options.getSampleRate();
+        this.sampleWatermark = Math.max(1, (int) (ring.capacity() * options.getSampleThreshold()));
+        this.consumers = new Thread[options.getConsumerThreads()];
+        for (int i = 0; i < consumers.length; i++) {
+            Thread t = new Thread(this::consumeLoop, "mini-p6spy-async-" + i);
+            t.setDaemon(true); // 不阻止 JVM 退出
+            consumers[i] = t;
+            t.start();
+        }
+    }
+
+    @Override
+    public void dispatch(SqlEvent event) {
+        publish(event.retain()); // 复用的视图会被调用线程的下一次执行覆盖，入队前转为不可变副本
+    }
+
+    @Override
+    public void dispatch(ResultSetEvent event) {
+        publish(event);
+    }
+
+    @Override
+    public void setListeners(List<SqlListener> listeners) {
+        delegate.setListeners(listeners);
+    }
+
+    @Override
+    public void dispatch(ConnectionEvent event) {
+        publish(event);
+    }
+
+    @Override
+    public void dispatch(TransactionEvent event) {
+        publish(event);
+    }
+
+    /**
+     * 按溢出策略写入队列。
+     */
+    private void publish(Object event) {
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                publishDropOldest(event);
+                return;
+            case BLOCK:
+                publishBlocking(event);
+                return;
+            case SAMPLE:
+                if (ring.size() >= sampleWatermark && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                    dropped.increment();
+                    return;
+                }
+                publishOrDrop(event);
+                return;
+            case DROP_NEWEST:
+            default:
+                publishOrDrop(event);
+        }
+    }
+
+    private void publishOrDrop(Object event) {
+        if (ring.offer(event)) {
+            queued.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void publishDropOldest(Object event) {
+        for (int i = 0; i < SPIN_TRIES; i++) {
+            if (ring.offer(event)) {
+                queued.increment();
+                return;
+            }
+            if (ring.poll() != null) {
+                dropped.increment(); // 被挤掉的旧事件
+            }
+        }
+        dropped.increment(); // 竞争激烈仍未写入，放弃新事件
+    }
+
+    private void publishBlocking(Object event) {
+        int tries = 0;
+        while (!ring.offer(event)) {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+            idle(tries++);
+        }
+        queued.increment();
+    }
+
+    private void consumeLoop() {
+        int idleTries = 0;
+        while (running || ring.size() > 0) {
+            Object event = ring.poll();
+            if (event == null) {
+                idle(idleTries++);
+                continue;
+            }
+            idleTries = 0;
+            deliver(event);
+        }
+    }
+
+    private void deliver(Object event) {
+        try {
+            if (event instanceof SqlEvent) {
+                delegate.dispatch((SqlEvent) event);
+            } else if (event instanceof ResultSetEvent) {
+                delegate.dispatch((ResultSetEvent) event);
+            } else if (event instanceof ConnectionEvent) {
+                delegate.dispatch((ConnectionEvent) event);
+            } else if (event instanceof TransactionEvent) {
+                delegate.dispatch((TransactionEvent) event);
+            }
+        } catch (RuntimeException ignore) {
+            // 保证消费线程不会因为单个事件退出
+        } finally {
+            delivered.increment();
+        }
+    }
+
+    /**
+     * 递进式等待：自旋 → 让出 CPU → park，最长 park 1ms。
+     */
+    private static void idle(int tries) {
+        if (tries < SPIN_TRIES) {
+            return;
+        }
+        if (tries < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+            return;
+        }
+        int shift = Math.min(tries - SPIN_TRIES - YIELD_TRIES, 10);
+        LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << shift));
+    }
+
+    /**
+     * 停止接收新事件，等待消费线程把队列中剩余事件投递完毕。
+     */
+    @Override
+    public void close() {
+        running = false;
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MS;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                consumer.join(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 成功写入队列的事件总数
+     */
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    /**
+     * @return 因队列写满、采样或已关闭而丢弃的事件总数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 已投递给监听器的事件总数
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * @return 当前队列中等待投递的事件数（近似值）
+     */
+    public int getPendingCount() {
+        return ring.size();
+    }
+
+    /**
+     * @return 队列容量
+     */
+    public int getCapacity() {
+        return ring.capacity();
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsqyz.minip6spy.dispatch;
+
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+
+import java.util.List;
+
+/**
+ * 同步分发：在调用线程上依次回调监听器，吞掉监听器内部的运行时异常。
+ */
+public final class DirectSqlEventDispatcher implements SqlEventDispatcher {
+
+    private volatile SqlListener[] listeners;
+
+    public DirectSqlEventDispatcher(List<SqlListener> listeners) {
+        this.listeners = listeners.toArray(new SqlListener[0]); // 数组遍历不产生迭代器
+    }
+
+    @Override
+    public void setListeners(List<SqlListener> listeners) {
+        this.listeners = listeners.toArray(new SqlListener[0]);
+    }
+
+    @Override
+    public void dispatch(SqlEvent event) {
+        for (SqlListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException ignore) {
+                // 监听器异常不影响 JDBC 调用，避免阻塞业务
+            }
+        }
+    }
+
+    @Override
+    public void dispatch(ResultSetEvent event) {
+        for (SqlListener listener : listeners) {
+            try {
+                listener.onResultSetEvent(event);
+            } catch (RuntimeException ignore) {
+                // 同上，吞掉监听器异常
+            }
+        }
+    }
+
+    @Override
+    public void dispatch(ConnectionEvent event) {
+        for (SqlListener listener : listeners) {
+            try {
+                listener.onConnectionEvent(event);
+            } catch (RuntimeException ignore) {
+                // 同上，吞掉监听器异常
+            }
+        }
+    }
+
+    @Override
+    public void dispatch(TransactionEvent event) {
+        for (SqlListener listener : listeners) {
+            try {
+                listener.onTransactionEvent(event);
+            } catch (RuntimeException ignore) {
+                // 同上，吞掉监听器异常
+            }
+        }
+    }
+}
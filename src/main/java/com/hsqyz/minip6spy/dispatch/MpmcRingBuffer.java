@@ -0,0 +1,132 @@
+package com.hsqyz.minip6spy.dispatch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 有界无锁多生产者/多消费者环形队列（Vyukov 算法）。
+ * - 槽位数组在构造时一次性分配，容量取 2 的幂，用位运算定位槽位；
+ * - 每个槽位带一个序号，生产者/消费者通过 CAS 抢占游标，序号的有序写保证数据可见性；
+ * - 队列满时 offer 立即返回 false，由上层决定溢出策略。
+ */
+final class MpmcRingBuffer {
+
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final PaddedCursor tail = new PaddedCursor(); // 生产者游标
+    private final PaddedCursor head = new PaddedCursor(); // 消费者游标
+
+    MpmcRingBuffer(int capacity) {
+        int size = roundToPowerOfTwo(capacity);
+        this.mask = size - 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入元素。
+     *
+     * @return 队列已满返回 false
+     */
+    boolean offer(Object element) {
+        long pos = tail.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = element;
+                    sequences.lazySet(index, pos + 1); // 有序写发布槽位
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取出元素。
+     *
+     * @return 队列为空返回 null
+     */
+    Object poll() {
+        long pos = head.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Object element = slots[index];
+                    slots[index] = null;
+                    sequences.lazySet(index, pos + mask + 1); // 槽位归还给下一轮生产者
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * @return 当前近似元素个数（并发下仅供观测）
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    private static int roundToPowerOfTwo(int capacity) {
+        if (capacity < 2) {
+            return 2;
+        }
+        if (capacity > (1 << 30)) {
+            return 1 << 30;
+        }
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * 游标值之前的填充。HotSpot 先排布超类字段，LHS 填充 / 值 / RHS 填充三层继承使值字段前后各有 56 字节，
+     * 避免生产者与消费者游标（以及相邻对象）落在同一缓存行产生伪共享。
+     */
+    @SuppressWarnings("unused")
+    private abstract static class CursorLhsPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private abstract static class CursorValue extends CursorLhsPadding {
+        static final AtomicLongFieldUpdater<CursorValue> VALUE = AtomicLongFieldUpdater.newUpdater(CursorValue.class, "value");
+        volatile long value;
+    }
+
+    /**
+     * 前后填充的游标，见 {@link CursorLhsPadding}。
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedCursor extends CursorValue {
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        long get() {
+            return value;
+        }
+
+        boolean compareAndSet(long expect, long update) {
+            return VALUE.compareAndSet(this, expect, update);
+        }
+    }
+}
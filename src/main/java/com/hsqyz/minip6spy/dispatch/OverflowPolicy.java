@@ -0,0 +1,23 @@
+package com.hsqyz.minip6spy.dispatch;
+
+/**
+ * 异步队列写满（或接近写满）时的处理策略。
+ */
+public enum OverflowPolicy {
+    /**
+     * 丢弃当前要写入的新事件，JDBC 线程立即返回（默认）。
+     */
+    DROP_NEWEST,
+    /**
+     * 从队头丢弃一个最旧事件为新事件腾出位置，保留最近的现场。
+     */
+    DROP_OLDEST,
+    /**
+     * 阻塞 JDBC 线程直到有空位，不丢事件，但慢监听器会反压到业务。
+     */
+    BLOCK,
+    /**
+     * 队列占用超过阈值后按 1/N 采样写入，仍写满时丢弃新事件。
+     */
+    SAMPLE
+}
@@ -0,0 +1,49 @@
+package com.hsqyz.minip6spy.dispatch;
+
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+
+import java.util.List;
+
+/**
+ * 事件分发器：负责把代理层产生的事件投递给监听器。
+ * - {@link DirectSqlEventDispatcher}：在 JDBC 调用线程上同步回调（默认）；
+ * - {@link AsyncSqlEventDispatcher}：写入有界环形队列，由后台线程回调。
+ */
+public interface SqlEventDispatcher extends AutoCloseable {
+
+    /**
+     * 投递一条 SQL 事件，实现必须吞掉监听器异常，不能影响 JDBC 主流程。
+     */
+    void dispatch(SqlEvent event);
+
+    /**
+     * 投递一条结果集遍历事件，异常处理要求同上。
+     */
+    void dispatch(ResultSetEvent event);
+
+    /**
+     * 投递一条连接生命周期事件，异常处理要求同上。
+     */
+    void dispatch(ConnectionEvent event);
+
+    /**
+     * 投递一条事务结束事件，异常处理要求同上。
+     */
+    void dispatch(TransactionEvent event);
+
+    /**
+     * 替换监听器列表，之后的事件投递给新列表；已在投递中的事件不受影响。
+     */
+    void setListeners(List<SqlListener> listeners);
+
+    /**
+     * 释放分发器持有的资源（后台线程等），默认无操作。
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -1,26 +1,22 @@
 package com.hsqyz.minip6spy.driver;
 
-import com.hsqyz.minip6spy.handler.ConnectionInvocationHandler;
+import com.hsqyz.minip6spy.config.SpyConfigWatcher;
 import com.hsqyz.minip6spy.listener.P6SpySqlListener;
-import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.proxy.SpyConnection;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+import com.hsqyz.minip6spy.proxy.SpyControl;
 
-import java.lang.reflect.Proxy;
-import java.sql.Array;
-import java.sql.Blob;
-import java.sql.Clob;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.DriverPropertyInfo;
-import java.sql.NClob;
 import java.sql.SQLException;
-import java.sql.SQLClientInfoException;
 import java.sql.SQLFeatureNotSupportedException;
-import java.sql.SQLXML;
-import java.sql.Struct;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -28,12 +24,27 @@ import java.util.logging.Logger;
  * - 识别前缀 jdbc:p6spy:mysql:
  * - 将前缀剥离后委托给 MySQL 原生驱动
  * - 便于直接通过 DriverManager 获取代理连接，无需手工 wrap
+ * 连接只包装一层 {@link SpyConnection}；监听器链（{@link SpyContext}）在驱动级别只构建一次，
+ * 可通过 {@link #configure(SpyContext)} 替换，或通过 {@link #control()} 在运行时增删监听器、开关采集；
+ * 设置系统属性 {@value #CONFIG_PROPERTY} 指向 properties 文件时，默认上下文由 {@link SpyConfigWatcher} 监视该文件调整；
+ * 默认上下文初始化失败（如无法监视配置文件）时记录失败，之后的 connect 直接抛出 SQLException 而不再重试，
+ * 修正配置后可通过 {@link #configure(SpyContext)} 设置上下文恢复。
+ * 改写后的 URL 按原始 URL 缓存。
  */
 public final class P6SpyDriver implements Driver {
 
+    // 默认上下文监视的配置文件路径（系统属性）
+    public static final String CONFIG_PROPERTY = "minip6spy.config";
     private static final String PREFIX = "jdbc:p6spy:mysql:";
     private static final String DELEGATE_PREFIX = "jdbc:mysql:";
+    // URL 缓存上限，连接池通常只有少量不同 URL，超出后不再缓存
+    private static final int MAX_CACHED_URLS = 64;
+    // 所有驱动连接共享的上下文，默认挂载 P6SpySqlListener
+    private static volatile SpyContext context;
+    // 默认上下文初始化失败的原因，记录后不再重试
+    private static volatile RuntimeException setupFailure;
     private final Driver delegate;
+    private final ConcurrentHashMap<String, String> rewrittenUrls = new ConcurrentHashMap<>();
 
     static {
         try {
@@ -44,7 +55,14 @@ public final class P6SpyDriver implements Driver {
     }
 
     public P6SpyDriver() throws SQLException {
-        this.delegate = new com.mysql.cj.jdbc.Driver();
+        this(new com.mysql.cj.jdbc.Driver());
+    }
+
+    /**
+     * @param delegate 改写 URL 后委托的驱动（测试中替换为桩驱动）
+     */
+    P6SpyDriver(Driver delegate) {
+        this.delegate = delegate;
     }
 
     @Override
@@ -52,18 +70,82 @@ public final class P6SpyDriver implements Driver {
         if (!acceptsURL(url)) {
             return null;
         }
-        String realUrl = url.replaceFirst(PREFIX, DELEGATE_PREFIX);
-        Connection raw = delegate.connect(realUrl, info);
-        if (raw == null) {
-            return null;
+        SpyContext spyContext;
+        try {
+            spyContext = getContext();
+        } catch (IllegalStateException e) {
+            throw new SQLException("mini-p6spy 初始化失败：" + e.getMessage(), e);
+        }
+        return SpyConnection.open(spyContext, () -> delegate.connect(rewrite(url), info));
+    }
+
+    /**
+     * 替换驱动连接使用的上下文（监听器、采样、异步分发等），只影响之后获取的连接。
+     */
+    public static void configure(SpyContext spyContext) {
+        context = Objects.requireNonNull(spyContext, "context");
+    }
+
+    /**
+     * @return 驱动连接共享的上下文；未配置时创建默认上下文（P6SpySqlListener）
+     * @throws IllegalStateException 默认上下文初始化失败，之后的调用抛出同一原因而不再重试
+     */
+    public static SpyContext getContext() {
+        SpyContext current = context;
+        if (current == null) {
+            synchronized (P6SpyDriver.class) {
+                current = context;
+                if (current == null) {
+                    RuntimeException failure = setupFailure;
+                    if (failure != null) {
+                        throw new IllegalStateException("默认上下文初始化已失败：" + failure.getMessage(), failure);
+                    }
+                    try {
+                        current = SpyContext.builder().listeners(new P6SpySqlListener()).build();
+                        watchConfig(current);
+                    } catch (RuntimeException e) {
+                        setupFailure = e;
+                        throw e instanceof IllegalStateException ? e : new IllegalStateException("默认上下文初始化失败", e);
+                    }
+                    context = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return 当前驱动上下文的运行时控制入口
+     */
+    public static SpyControl control() {
+        return getContext().control();
+    }
+
+    private static void watchConfig(SpyContext context) {
+        String path = System.getProperty(CONFIG_PROPERTY);
+        if (path == null || path.trim().isEmpty()) {
+            return;
+        }
+        try {
+            SpyConfigWatcher.watch(Paths.get(path.trim()), context.control()); // 守护线程，随 JVM 退出
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("无法监视配置文件：" + path, e);
+        }
+    }
+
+    /**
+     * 把 jdbc:p6spy:mysql: 前缀改写为 jdbc:mysql:，按原始 URL 缓存。
+     */
+    private String rewrite(String url) {
+        String cached = rewrittenUrls.get(url);
+        if (cached != null) {
+            return cached;
+        }
+        String realUrl = DELEGATE_PREFIX + url.substring(PREFIX.length());
+        if (rewrittenUrls.size() < MAX_CACHED_URLS) {
+            rewrittenUrls.putIfAbsent(url, realUrl);
         }
-        List<SqlListener> listeners = new ArrayList<SqlListener>();
-        listeners.add(new P6SpySqlListener());
-        Connection proxied = (Connection) Proxy.newProxyInstance(
-                raw.getClass().getClassLoader(),
-                new Class[]{Connection.class},
-                new ConnectionInvocationHandler(raw, listeners));
-        return new P6ProxyConnection(proxied);
+        return realUrl;
     }
 
     @Override
@@ -95,286 +177,4 @@ public final class P6SpyDriver implements Driver {
     public Logger getParentLogger() throws SQLFeatureNotSupportedException {
         return delegate.getParentLogger();
     }
-
-    /**
-     * 包一层命名类，便于调试和断言（类名包含 p6spy）。
-     */
-    private static final class P6ProxyConnection implements Connection {
-        private final Connection delegate;
-
-        private P6ProxyConnection(Connection delegate) {
-            this.delegate = delegate;
-        }
-
-        @Override
-        public <T> T unwrap(Class<T> iface) throws SQLException {
-            return delegate.unwrap(iface);
-        }
-
-        @Override
-        public boolean isWrapperFor(Class<?> iface) throws SQLException {
-            return delegate.isWrapperFor(iface);
-        }
-
-        @Override
-        public java.sql.Statement createStatement() throws SQLException {
-            return delegate.createStatement();
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql) throws SQLException {
-            return delegate.prepareStatement(sql);
-        }
-
-        @Override
-        public java.sql.CallableStatement prepareCall(String sql) throws SQLException {
-            return delegate.prepareCall(sql);
-        }
-
-        @Override
-        public String nativeSQL(String sql) throws SQLException {
-            return delegate.nativeSQL(sql);
-        }
-
-        @Override
-        public void setAutoCommit(boolean autoCommit) throws SQLException {
-            delegate.setAutoCommit(autoCommit);
-        }
-
-        @Override
-        public boolean getAutoCommit() throws SQLException {
-            return delegate.getAutoCommit();
-        }
-
-        @Override
-        public void commit() throws SQLException {
-            delegate.commit();
-        }
-
-        @Override
-        public void rollback() throws SQLException {
-            delegate.rollback();
-        }
-
-        @Override
-        public void close() throws SQLException {
-            delegate.close();
-        }
-
-        @Override
-        public boolean isClosed() throws SQLException {
-            return delegate.isClosed();
-        }
-
-        @Override
-        public java.sql.DatabaseMetaData getMetaData() throws SQLException {
-            return delegate.getMetaData();
-        }
-
-        @Override
-        public void setReadOnly(boolean readOnly) throws SQLException {
-            delegate.setReadOnly(readOnly);
-        }
-
-        @Override
-        public boolean isReadOnly() throws SQLException {
-            return delegate.isReadOnly();
-        }
-
-        @Override
-        public void setCatalog(String catalog) throws SQLException {
-            delegate.setCatalog(catalog);
-        }
-
-        @Override
-        public String getCatalog() throws SQLException {
-            return delegate.getCatalog();
-        }
-
-        @Override
-        public void setTransactionIsolation(int level) throws SQLException {
-            delegate.setTransactionIsolation(level);
-        }
-
-        @Override
-        public int getTransactionIsolation() throws SQLException {
-            return delegate.getTransactionIsolation();
-        }
-
-        @Override
-        public java.sql.SQLWarning getWarnings() throws SQLException {
-            return delegate.getWarnings();
-        }
-
-        @Override
-        public void clearWarnings() throws SQLException {
-            delegate.clearWarnings();
-        }
-
-        @Override
-        public java.sql.Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
-            return delegate.createStatement(resultSetType, resultSetConcurrency);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-            return delegate.prepareStatement(sql, resultSetType, resultSetConcurrency);
-        }
-
-        @Override
-        public java.sql.CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-            return delegate.prepareCall(sql, resultSetType, resultSetConcurrency);
-        }
-
-        @Override
-        public java.util.Map<String, Class<?>> getTypeMap() throws SQLException {
-            return delegate.getTypeMap();
-        }
-
-        @Override
-        public void setTypeMap(java.util.Map<String, Class<?>> map) throws SQLException {
-            delegate.setTypeMap(map);
-        }
-
-        @Override
-        public void setHoldability(int holdability) throws SQLException {
-            delegate.setHoldability(holdability);
-        }
-
-        @Override
-        public int getHoldability() throws SQLException {
-            return delegate.getHoldability();
-        }
-
-        @Override
-        public java.sql.Savepoint setSavepoint() throws SQLException {
-            return delegate.setSavepoint();
-        }
-
-        @Override
-        public java.sql.Savepoint setSavepoint(String name) throws SQLException {
-            return delegate.setSavepoint(name);
-        }
-
-        @Override
-        public void rollback(java.sql.Savepoint savepoint) throws SQLException {
-            delegate.rollback(savepoint);
-        }
-
-        @Override
-        public void releaseSavepoint(java.sql.Savepoint savepoint) throws SQLException {
-            delegate.releaseSavepoint(savepoint);
-        }
-
-        @Override
-        public java.sql.Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-            return delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-            return delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
-        }
-
-        @Override
-        public java.sql.CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-            return delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-            return delegate.prepareStatement(sql, autoGeneratedKeys);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-            return delegate.prepareStatement(sql, columnIndexes);
-        }
-
-        @Override
-        public java.sql.PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
-            return delegate.prepareStatement(sql, columnNames);
-        }
-
-        @Override
-        public Clob createClob() throws SQLException {
-            return delegate.createClob();
-        }
-
-        @Override
-        public Blob createBlob() throws SQLException {
-            return delegate.createBlob();
-        }
-
-        @Override
-        public NClob createNClob() throws SQLException {
-            return delegate.createNClob();
-        }
-
-        @Override
-        public SQLXML createSQLXML() throws SQLException {
-            return delegate.createSQLXML();
-        }
-
-        @Override
-        public boolean isValid(int timeout) throws SQLException {
-            return delegate.isValid(timeout);
-        }
-
-        @Override
-        public void setClientInfo(String name, String value) throws SQLClientInfoException {
-            delegate.setClientInfo(name, value);
-        }
-
-        @Override
-        public void setClientInfo(Properties properties) throws SQLClientInfoException {
-            delegate.setClientInfo(properties);
-        }
-
-        @Override
-        public String getClientInfo(String name) throws SQLException {
-            return delegate.getClientInfo(name);
-        }
-
-        @Override
-        public Properties getClientInfo() throws SQLException {
-            return delegate.getClientInfo();
-        }
-
-        @Override
-        public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
-            return delegate.createArrayOf(typeName, elements);
-        }
-
-        @Override
-        public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
-            return delegate.createStruct(typeName, attributes);
-        }
-
-        @Override
-        public void setSchema(String schema) throws SQLException {
-            delegate.setSchema(schema);
-        }
-
-        @Override
-        public String getSchema() throws SQLException {
-            return delegate.getSchema();
-        }
-
-        @Override
-        public void abort(java.util.concurrent.Executor executor) throws SQLException {
-            delegate.abort(executor);
-        }
-
-        @Override
-        public void setNetworkTimeout(java.util.concurrent.Executor executor, int milliseconds) throws SQLException {
-            delegate.setNetworkTimeout(executor, milliseconds);
-        }
-
-        @Override
-        public int getNetworkTimeout() throws SQLException {
-            return delegate.getNetworkTimeout();
-        }
-    }
 }
-
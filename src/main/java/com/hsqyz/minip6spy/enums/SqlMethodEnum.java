@@ -10,7 +10,7 @@ import java.util.stream.Collectors;
  * 统一管理需要拦截的 JDBC 方法，避免散落的字符串字面量：
  * - 覆盖 Connection 上创建 Statement/PreparedStatement/CallableStatement 的入口
  * - 覆盖 Statement 上所有 execute* / executeBatch / executeLarge* 以及 addBatch
- * - 提供 from/name/isExecute，方便 handler 使用
+ * - 提供 from/name/isExecute，方便代理类使用
  */
 public enum SqlMethodEnum {
     CREATE_STATEMENT("createStatement"),
@@ -0,0 +1,161 @@
+package com.hsqyz.minip6spy.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接生命周期事件：借出（ACQUIRED）、归还（RELEASED）与疑似泄漏（LEAK_SUSPECTED）。
+ * 记录从底层数据源获取连接的耗时、持有时长与借出期间执行的语句数，
+ * 泄漏事件在采样命中时附带借出时的调用栈。
+ */
+public final class ConnectionEvent {
+
+    /**
+     * 事件类型。
+     */
+    public enum Type {
+        /**
+         * 从底层数据源 / 驱动获取到连接。
+         */
+        ACQUIRED,
+        /**
+         * 连接被 close() 归还。
+         */
+        RELEASED,
+        /**
+         * 连接持有时间超过泄漏阈值仍未归还。
+         */
+        LEAK_SUSPECTED
+    }
+
+    // 事件类型
+    private final Type type;
+    // 进程内唯一的连接序号
+    private final long connectionId;
+    // 获取连接耗时（纳秒）
+    private final long acquireNanos;
+    // 持有时长（纳秒）：ACQUIRED 为 0，RELEASED 为借出到 close()，LEAK_SUSPECTED 为借出到检测时刻
+    private final long holdNanos;
+    // 借出期间执行的语句数
+    private final long statementCount;
+    // 事件时间（Unix 毫秒）
+    private final long timestampMillis;
+    // 借出时的调用栈，仅泄漏事件在采样命中时存在
+    private final Throwable acquireStack;
+
+    private ConnectionEvent(Builder builder) {
+        this.type = builder.type;
+        this.connectionId = builder.connectionId;
+        this.acquireNanos = builder.acquireNanos;
+        this.holdNanos = builder.holdNanos;
+        this.statementCount = builder.statementCount;
+        this.timestampMillis = builder.timestampMillis;
+        this.acquireStack = builder.acquireStack;
+    }
+
+    /**
+     * 创建事件构建器。
+     *
+     * @param type         事件类型
+     * @param connectionId 连接序号
+     */
+    public static Builder builder(Type type, long connectionId) {
+        return new Builder(type, connectionId);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getConnectionId() {
+        return connectionId;
+    }
+
+    /**
+     * @return 获取连接耗时（纳秒）
+     */
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    /**
+     * @return 持有时长（纳秒）
+     */
+    public long getHoldNanos() {
+        return holdNanos;
+    }
+
+    /**
+     * @return 持有时长（毫秒，向下取整）
+     */
+    public long getHoldMs() {
+        return TimeUnit.NANOSECONDS.toMillis(holdNanos);
+    }
+
+    /**
+     * @return 借出期间执行的语句数（泄漏事件中为检测时刻的近似值）
+     */
+    public long getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * @return 事件时间（Unix 毫秒）
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return 借出连接时的调用栈，未采样时为 null
+     */
+    public Throwable getAcquireStack() {
+        return acquireStack;
+    }
+
+    public static final class Builder {
+        private final Type type;
+        private final long connectionId;
+        private long acquireNanos;
+        private long holdNanos;
+        private long statementCount;
+        private long timestampMillis = System.currentTimeMillis();
+        private Throwable acquireStack;
+
+        private Builder(Type type, long connectionId) {
+            this.type = type;
+            this.connectionId = connectionId;
+        }
+
+        public Builder acquireNanos(long acquireNanos) {
+            this.acquireNanos = acquireNanos;
+            return this;
+        }
+
+        public Builder holdNanos(long holdNanos) {
+            this.holdNanos = holdNanos;
+            return this;
+        }
+
+        public Builder statementCount(long statementCount) {
+            this.statementCount = statementCount;
+            return this;
+        }
+
+        public Builder timestampMillis(long timestampMillis) {
+            this.timestampMillis = timestampMillis;
+            return this;
+        }
+
+        public Builder acquireStack(Throwable acquireStack) {
+            this.acquireStack = acquireStack;
+            return this;
+        }
+
+        /**
+         * 构造不可变事件对象。
+         */
+        public ConnectionEvent build() {
+            return new ConnectionEvent(this);
+        }
+    }
+}
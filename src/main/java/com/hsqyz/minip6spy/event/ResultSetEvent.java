@@ -0,0 +1,145 @@
+package com.hsqyz.minip6spy.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果集遍历事件：在 {@link SqlEvent} 之后发送的补充事件，描述结果集被读取的情况。
+ * 记录读取行数、花在 next() 上的时间、从执行开始到关闭的总耗时以及读到最后一行的时刻，
+ * 用于发现执行很快但返回海量行的查询。
+ */
+public final class ResultSetEvent {
+    // 产生该结果集的执行事件
+    private final SqlEvent execution;
+    // next() 返回 true 的次数
+    private final long rows;
+    // 累计花在 next() 上的时间（纳秒）
+    private final long nextElapsedNanos;
+    // 从执行开始到结果集关闭的总耗时（纳秒）
+    private final long totalElapsedNanos;
+    // 从执行开始到 next() 返回 false 的耗时（纳秒），未读完为 -1
+    private final long timeToLastRowNanos;
+
+    private ResultSetEvent(Builder builder) {
+        this.execution = builder.execution;
+        this.rows = builder.rows;
+        this.nextElapsedNanos = builder.nextElapsedNanos;
+        this.totalElapsedNanos = builder.totalElapsedNanos;
+        this.timeToLastRowNanos = builder.timeToLastRowNanos;
+    }
+
+    /**
+     * 创建事件构建器。
+     *
+     * @param execution 产生结果集的执行事件
+     */
+    public static Builder builder(SqlEvent execution) {
+        return new Builder(execution);
+    }
+
+    /**
+     * @return 产生该结果集的执行事件
+     */
+    public SqlEvent getExecution() {
+        return execution;
+    }
+
+    /**
+     * @return SQL 文本，同 {@link SqlEvent#getSql()}
+     */
+    public String getSql() {
+        return execution.getSql();
+    }
+
+    /**
+     * @return 读取的行数
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return 累计花在 next() 上的时间（纳秒）
+     */
+    public long getNextElapsedNanos() {
+        return nextElapsedNanos;
+    }
+
+    /**
+     * @return 从执行开始到结果集关闭的总耗时（纳秒）
+     */
+    public long getTotalElapsedNanos() {
+        return totalElapsedNanos;
+    }
+
+    /**
+     * @return 从执行开始到结果集关闭的总耗时（毫秒）
+     */
+    public long getTotalElapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(totalElapsedNanos);
+    }
+
+    /**
+     * @return 从执行开始到读完最后一行的耗时（纳秒），未读完返回 -1
+     */
+    public long getTimeToLastRowNanos() {
+        return timeToLastRowNanos;
+    }
+
+    /**
+     * @return 是否遍历到结果集末尾
+     */
+    public boolean isExhausted() {
+        return timeToLastRowNanos >= 0;
+    }
+
+    public static final class Builder {
+        private final SqlEvent execution;
+        private long rows;
+        private long nextElapsedNanos;
+        private long totalElapsedNanos;
+        private long timeToLastRowNanos = -1;
+
+        private Builder(SqlEvent execution) {
+            this.execution = execution;
+        }
+
+        /**
+         * 设置读取行数。
+         */
+        public Builder rows(long rows) {
+            this.rows = rows;
+            return this;
+        }
+
+        /**
+         * 设置 next() 累计耗时（纳秒）。
+         */
+        public Builder nextElapsedNanos(long nextElapsedNanos) {
+            this.nextElapsedNanos = nextElapsedNanos;
+            return this;
+        }
+
+        /**
+         * 设置执行开始到关闭的总耗时（纳秒）。
+         */
+        public Builder totalElapsedNanos(long totalElapsedNanos) {
+            this.totalElapsedNanos = totalElapsedNanos;
+            return this;
+        }
+
+        /**
+         * 设置执行开始到读完最后一行的耗时（纳秒），-1 表示未读完。
+         */
+        public Builder timeToLastRowNanos(long timeToLastRowNanos) {
+            this.timeToLastRowNanos = timeToLastRowNanos;
+            return this;
+        }
+
+        /**
+         * 构造不可变事件对象。
+         */
+        public ResultSetEvent build() {
+            return new ResultSetEvent(this);
+        }
+    }
+}
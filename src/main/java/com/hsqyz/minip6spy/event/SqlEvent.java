@@ -1,32 +1,99 @@
 package com.hsqyz.minip6spy.event;
 
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.param.BoundParameters;
+import com.hsqyz.minip6spy.sql.NormalizedSql;
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+import com.hsqyz.minip6spy.sql.SqlTemplateRegistry;
+
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 不可变的 SQL 执行事件载体，便于监听器消费。
  * 记录 SQL 文本、耗时、开始时间、成功状态、异常与批量大小等关键信息。
+ * 耗时以纳秒保存（来自 {@link System#nanoTime()}），开始时间以 Unix 毫秒保存，
+ * {@link #getElapsedMs()} / {@link #getStartedAt()} 按需换算，采集路径不分配时间对象。
+ * SQL 指纹在首次调用 {@link #getFingerprint()} 时才计算，不消费指纹的监听器没有额外开销。
+ * 预编译语句的绑定参数以紧凑快照保存，带参数的 SQL 只在调用 {@link #getRenderedSql()} 时拼接。
+ * 开启事件复用时，采集路径向监听器传递每个线程复用的视图（{@link #isReusable()} 为 true），
+ * 视图的内容直接读取线程复用的构建器，在该线程下一次执行时被覆盖；需要在回调之外保存事件的监听器应保存 {@link #retain()} 的返回值。
+ * 除该视图外，事件构建后不再修改，可以跨线程传递。
  */
 public final class SqlEvent {
+    // Builder 未设置开始时间时的哨兵值
+    private static final long UNSET = Long.MIN_VALUE;
+    // 每个线程复用的构建器与事件视图，见 reusableBuilder
+    private static final ThreadLocal<Builder> REUSABLE = ThreadLocal.withInitial(Builder::new);
     // 原始 SQL；PreparedStatement 记录预编译 SQL，未知时使用占位符
     private final String sql;
-    // 执行耗时（毫秒）
-    private final long elapsedMs;
-    // 执行开始时间戳
-    private final Instant startedAt;
+    // 执行耗时（纳秒）
+    private final long elapsedNanos;
+    // 执行开始时间（Unix 毫秒）
+    private final long startedAtMillis;
     // 是否执行成功
     private final boolean success;
     // 执行异常（成功时为 null）
     private final Throwable error;
     // 批量执行时的条数，普通执行为 1
     private final int batchSize;
+    // 绑定参数（批量执行时为最后一行），无参数时为 EMPTY
+    private final BoundParameters parameters;
+    // 批量执行时每行的绑定参数，行数有上限
+    private final List<BoundParameters> batchParameters;
+    // 执行该语句的连接序号，0 表示未知
+    private final long connectionId;
+    // 触发事件的 JDBC 方法，未知时为 null
+    private final SqlMethodEnum method;
+    // 是否由结果缓存直接返回（未访问数据库）
+    private final boolean cacheHit;
+    // 模板字典，未开启时为 null
+    private final SqlTemplateRegistry templates;
+    // 线程复用视图读取的构建器，不可变事件为 null；为非 null 时上面的字段不使用
+    private final Builder live;
+    // 归一化结果，延迟计算；并发首次访问最多重复计算一次，结果相同
+    private NormalizedSql normalized;
+    // 模板编号，首次调用 getTemplateId() 时登记，0 表示尚未登记
+    private int templateId;
 
-    private SqlEvent(Builder builder) {
+    private SqlEvent(Builder builder, Builder live) {
         this.sql = builder.sql;
-        this.elapsedMs = builder.elapsedMs;
-        this.startedAt = builder.startedAt;
+        this.elapsedNanos = builder.elapsedNanos;
+        this.startedAtMillis = builder.startedAtMillis == UNSET ? System.currentTimeMillis() : builder.startedAtMillis;
         this.success = builder.success;
         this.error = builder.error;
         this.batchSize = builder.batchSize;
+        this.parameters = builder.parameters;
+        this.batchParameters = builder.batchParameters;
+        this.connectionId = builder.connectionId;
+        this.method = builder.method;
+        this.cacheHit = builder.cacheHit;
+        this.templates = builder.templates;
+        this.normalized = builder.normalized;
+        this.live = live;
+    }
+
+    /**
+     * 按 source 的当前内容创建不可变副本，已计算的归一化结果与模板编号一并带上。
+     */
+    private SqlEvent(SqlEvent source, NormalizedSql normalized, int templateId) {
+        this.sql = source.getSql();
+        this.elapsedNanos = source.getElapsedNanos();
+        this.startedAtMillis = source.getStartedAtMillis();
+        this.success = source.isSuccess();
+        this.error = source.getError();
+        this.batchSize = source.getBatchSize();
+        this.parameters = source.getParameters();
+        this.batchParameters = source.getBatchParameters();
+        this.connectionId = source.getConnectionId();
+        this.method = source.getMethod();
+        this.cacheHit = source.isCacheHit();
+        this.templates = source.templates();
+        this.live = null;
+        this.normalized = normalized;
+        this.templateId = templateId;
     }
 
     /**
@@ -38,74 +105,280 @@ public final class SqlEvent {
         return new Builder(sql);
     }
 
+    /**
+     * 取当前线程复用的构建器，供采集路径使用：{@link Builder#build()} 返回同一个视图并覆盖上次的内容，
+     * 不分配对象。视图仍在分发中（监听器回调里又执行了 SQL）时返回普通构建器。
+     * 分发结束后必须调用 {@link Builder#release()}。
+     *
+     * @param sql 绑定的 SQL 文本，可为 null（会使用占位符）
+     */
+    public static Builder reusableBuilder(String sql) {
+        Builder builder = REUSABLE.get();
+        if (builder.inUse) {
+            return new Builder(sql);
+        }
+        builder.inUse = true;
+        return builder.reset(sql);
+    }
+
+    /**
+     * @return 是否为线程复用的视图；为 true 时内容只在本次回调内有效
+     */
+    public boolean isReusable() {
+        return live != null;
+    }
+
+    /**
+     * @return 与当前内容相同的不可变事件，总是新建
+     */
+    public SqlEvent copy() {
+        return new SqlEvent(this, normalized, templateId);
+    }
+
+    /**
+     * 需要在回调之外保存事件时调用。
+     *
+     * @return 不可变事件本身，复用视图则返回副本
+     */
+    public SqlEvent retain() {
+        return isReusable() ? copy() : this;
+    }
+
     /**
      * @return 原始 SQL 文本（预编译语句为模板；未知时为占位符）
      */
     public String getSql() {
-        return sql;
+        Builder b = live;
+        return b == null ? sql : b.sql;
+    }
+
+    /**
+     * @return 绑定参数快照；普通 Statement 或未采集时为 {@link BoundParameters#EMPTY}
+     */
+    public BoundParameters getParameters() {
+        Builder b = live;
+        return b == null ? parameters : b.parameters;
+    }
+
+    /**
+     * @return 批量执行时每个 addBatch 行的参数（只读，最多保留配置的行数），非批量为空列表
+     */
+    public List<BoundParameters> getBatchParameters() {
+        Builder b = live;
+        return b == null ? batchParameters : b.batchParameters;
+    }
+
+    /**
+     * @return 把参数值代入 ? 后的 SQL，每次调用重新拼接；无参数时返回原始 SQL
+     */
+    public String getRenderedSql() {
+        return getParameters().render(getSql());
+    }
+
+    /**
+     * @return 归一化后的 SQL：字面量与 IN 列表替换为 ?，注释去除、空白合并
+     */
+    public String getNormalizedSql() {
+        return normalized().getSql();
+    }
+
+    /**
+     * @return 归一化 SQL 的 64 位指纹，仅字面量不同的 SQL 指纹相同
+     */
+    public long getFingerprint() {
+        return normalized().getFingerprint();
     }
 
     /**
-     * @return 耗时（毫秒）
+     * @return 归一化结果，可继续读取语句类型与表名
+     */
+    public NormalizedSql getNormalized() {
+        return normalized();
+    }
+
+    NormalizedSql normalized() {
+        NormalizedSql n = normalized;
+        if (n == null) {
+            n = SqlNormalizer.shared().normalize(getSql());
+            normalized = n; // NormalizedSql 字段均为 final，可安全发布
+        }
+        return n;
+    }
+
+    /**
+     * @return 耗时（毫秒，向下取整），兼容旧接口
      */
     public long getElapsedMs() {
-        return elapsedMs;
+        return TimeUnit.NANOSECONDS.toMillis(getElapsedNanos());
     }
 
     /**
-     * @return 执行开始时间戳
+     * @return 耗时（纳秒）
+     */
+    public long getElapsedNanos() {
+        Builder b = live;
+        return b == null ? elapsedNanos : b.elapsedNanos;
+    }
+
+    /**
+     * @return 执行开始时间戳（每次调用新建 Instant）
      */
     public Instant getStartedAt() {
-        return startedAt;
+        return Instant.ofEpochMilli(getStartedAtMillis());
+    }
+
+    /**
+     * @return 执行开始时间（Unix 毫秒）
+     */
+    public long getStartedAtMillis() {
+        Builder b = live;
+        return b == null ? startedAtMillis : b.startedAtMillis;
     }
 
     /**
      * @return 是否执行成功（监听器设置 error 时会标记为 false）
      */
     public boolean isSuccess() {
-        return success;
+        Builder b = live;
+        return b == null ? success : b.success;
     }
 
     /**
      * @return 执行期间的异常，无异常返回 null
      */
     public Throwable getError() {
-        return error;
+        Builder b = live;
+        return b == null ? error : b.error;
     }
 
     /**
      * @return 批量大小；非批量场景为 1
      */
     public int getBatchSize() {
-        return batchSize;
+        Builder b = live;
+        return b == null ? batchSize : b.batchSize;
+    }
+
+    /**
+     * @return 执行该语句的连接序号（与 {@link ConnectionEvent#getConnectionId()} 对应），未知时为 0
+     */
+    public long getConnectionId() {
+        Builder b = live;
+        return b == null ? connectionId : b.connectionId;
+    }
+
+    /**
+     * @return 触发事件的 JDBC 方法（executeQuery / executeBatch 等），手工构建且未设置时为 null
+     */
+    public SqlMethodEnum getMethod() {
+        Builder b = live;
+        return b == null ? method : b.method;
+    }
+
+    /**
+     * @return 是否命中结果缓存（见 {@link com.hsqyz.minip6spy.cache.ResultCache}），命中时耗时只包含缓存查找
+     */
+    public boolean isCacheHit() {
+        Builder b = live;
+        return b == null ? cacheHit : b.cacheHit;
+    }
+
+    /**
+     * 模板编号：首次调用时按归一化 SQL 在 {@link SqlTemplateRegistry} 中登记，不消费编号的监听器没有额外开销。
+     * 输出端可以只写编号与参数，模板文本经 {@link SqlTemplateRegistry#templateOf(int)} 或字典另行输出。
+     *
+     * @return 正数编号；上下文未开启模板字典时为 0
+     */
+    public int getTemplateId() {
+        int id = templateId;
+        SqlTemplateRegistry registry = templates();
+        if (id == 0 && registry != null) {
+            id = registry.idOf(normalized().getSql());
+            templateId = id;
+        }
+        return id;
+    }
+
+    SqlTemplateRegistry templates() {
+        Builder b = live;
+        return b == null ? templates : b.templates;
     }
 
     public static final class Builder {
-        private final String sql;
-        private long elapsedMs;
-        private Instant startedAt = Instant.now();
+        private String sql;
+        private long elapsedNanos;
+        private long startedAtMillis = UNSET;
         private boolean success = true;
         private Throwable error;
         private int batchSize = 1;
+        private BoundParameters parameters = BoundParameters.EMPTY;
+        private List<BoundParameters> batchParameters = Collections.emptyList();
+        private long connectionId;
+        private SqlMethodEnum method;
+        private boolean cacheHit;
+        private SqlTemplateRegistry templates;
+        private NormalizedSql normalized;
+        // 线程复用的构建器持有的视图，普通构建器为 null
+        private final SqlEvent view;
+        private boolean inUse;
 
         private Builder(String sql) {
             // 避免空指针，缺省使用 <unknown> 占位
             this.sql = sql == null ? "<unknown>" : sql;
+            this.view = null;
+        }
+
+        // 线程复用的构建器，见 reusableBuilder
+        private Builder() {
+            this.view = new SqlEvent(this, this);
+        }
+
+        private Builder reset(String sql) {
+            this.sql = sql == null ? "<unknown>" : sql;
+            this.elapsedNanos = 0;
+            this.startedAtMillis = UNSET;
+            this.success = true;
+            this.error = null;
+            this.batchSize = 1;
+            this.parameters = BoundParameters.EMPTY;
+            this.batchParameters = Collections.emptyList();
+            this.connectionId = 0;
+            this.method = null;
+            this.cacheHit = false;
+            this.templates = null;
+            this.normalized = null;
+            return this;
         }
 
         /**
          * 设置耗时（毫秒）。
          */
         public Builder elapsedMs(long elapsedMs) {
-            this.elapsedMs = elapsedMs;
+            this.elapsedNanos = TimeUnit.MILLISECONDS.toNanos(elapsedMs);
             return this;
         }
 
         /**
-         * 设置开始时间戳。
+         * 设置耗时（纳秒）。
+         */
+        public Builder elapsedNanos(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+            return this;
+        }
+
+        /**
+         * 设置开始时间戳；不设置时取构建时刻。
          */
         public Builder startedAt(Instant startedAt) {
-            this.startedAt = startedAt;
+            this.startedAtMillis = startedAt == null ? UNSET : startedAt.toEpochMilli();
+            return this;
+        }
+
+        /**
+         * 设置开始时间（Unix 毫秒）。
+         */
+        public Builder startedAtMillis(long startedAtMillis) {
+            this.startedAtMillis = startedAtMillis;
             return this;
         }
 
@@ -138,12 +411,88 @@ public final class SqlEvent {
         }
 
         /**
-         * 构造不可变事件对象。
+         * 设置绑定参数快照。
+         */
+        public Builder parameters(BoundParameters parameters) {
+            this.parameters = parameters == null ? BoundParameters.EMPTY : parameters;
+            return this;
+        }
+
+        /**
+         * 设置批量执行时每行的参数（调用方保证只读）。
+         */
+        public Builder batchParameters(List<BoundParameters> batchParameters) {
+            this.batchParameters = batchParameters == null ? Collections.<BoundParameters>emptyList() : batchParameters;
+            return this;
+        }
+
+        /**
+         * 设置连接序号。
+         */
+        public Builder connectionId(long connectionId) {
+            this.connectionId = connectionId;
+            return this;
+        }
+
+        /**
+         * 设置触发事件的 JDBC 方法。
+         */
+        public Builder method(SqlMethodEnum method) {
+            this.method = method;
+            return this;
+        }
+
+        /**
+         * 标记为结果缓存命中。
+         */
+        public Builder cacheHit(boolean cacheHit) {
+            this.cacheHit = cacheHit;
+            return this;
+        }
+
+        /**
+         * 设置模板字典，{@link SqlEvent#getTemplateId()} 在其中登记。
+         */
+        public Builder templates(SqlTemplateRegistry templates) {
+            this.templates = templates;
+            return this;
+        }
+
+        /**
+         * 设置已计算的归一化结果（须由同一 SQL 得到），预编译语句按语句缓存，事件不再查找归一化缓存。
+         */
+        public Builder normalized(NormalizedSql normalized) {
+            this.normalized = normalized;
+            return this;
+        }
+
+        /**
+         * 构造不可变事件对象；线程复用的构建器返回覆盖后的视图。
          */
         public SqlEvent build() {
-            return new SqlEvent(this);
+            if (view == null) {
+                return new SqlEvent(this, null);
+            }
+            // 视图的开始时间与延迟计算的结果在每次 build() 时重置
+            if (startedAtMillis == UNSET) {
+                startedAtMillis = System.currentTimeMillis();
+            }
+            view.normalized = normalized;
+            view.templateId = 0;
+            return view;
         }
-    }
 
+        /**
+         * 事件分发结束后调用，线程复用的构建器可再次被取出；普通构建器无操作。
+         * 同时清除异常与参数引用，空闲线程不持有它们。
+         */
+        public void release() {
+            if (view != null) {
+                inUse = false;
+                error = null;
+                parameters = BoundParameters.EMPTY;
+                batchParameters = Collections.emptyList();
+            }
+        }
+    }
 }
-
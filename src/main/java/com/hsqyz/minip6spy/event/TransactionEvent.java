@@ -0,0 +1,204 @@
+package com.hsqyz.minip6spy.event;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事务结束事件：在 commit / rollback（或隐式结束）时发送一次，汇总整个事务的耗时构成。
+ * - 总时长：事务开始（setAutoCommit(false) 或非自动提交下的第一条语句）到结束调用返回；
+ * - 结束耗时：commit / rollback 调用本身的耗时，刷盘较重时通常是尾延迟的主要来源；
+ * - 语句数与语句总耗时：事务内 execute* 的次数与耗时之和；
+ * - 语句间隔：总时长扣除语句与结束耗时后的剩余部分，即持有锁期间应用自身的“思考时间”。
+ */
+public final class TransactionEvent {
+
+    /**
+     * 事务结束方式。
+     */
+    public enum Outcome {
+        /**
+         * 显式 commit()。
+         */
+        COMMIT,
+        /**
+         * 显式 rollback()。
+         */
+        ROLLBACK,
+        /**
+         * setAutoCommit(true) 隐式提交。
+         */
+        IMPLICIT_COMMIT,
+        /**
+         * 事务未结束就关闭了连接，结果取决于驱动 / 连接池。
+         */
+        ABANDONED
+    }
+
+    // 连接序号，与 ConnectionEvent 对应
+    private final long connectionId;
+    // 结束方式
+    private final Outcome outcome;
+    // 事务开始时间（Unix 毫秒）
+    private final long startedAtMillis;
+    // 总时长（纳秒）
+    private final long durationNanos;
+    // commit / rollback 调用耗时（纳秒）
+    private final long endNanos;
+    // 事务内执行的语句数
+    private final int statementCount;
+    // 语句耗时之和（纳秒）
+    private final long statementNanos;
+    // 回滚到保存点的次数
+    private final int savepointRollbacks;
+    // 结束调用抛出的异常
+    private final Throwable error;
+
+    private TransactionEvent(Builder builder) {
+        this.connectionId = builder.connectionId;
+        this.outcome = builder.outcome;
+        this.startedAtMillis = builder.startedAtMillis;
+        this.durationNanos = builder.durationNanos;
+        this.endNanos = builder.endNanos;
+        this.statementCount = builder.statementCount;
+        this.statementNanos = builder.statementNanos;
+        this.savepointRollbacks = builder.savepointRollbacks;
+        this.error = builder.error;
+    }
+
+    /**
+     * 创建事件构建器。
+     *
+     * @param connectionId 连接序号
+     * @param outcome      结束方式
+     */
+    public static Builder builder(long connectionId, Outcome outcome) {
+        return new Builder(connectionId, outcome);
+    }
+
+    public long getConnectionId() {
+        return connectionId;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return 事务开始时间（Unix 毫秒）
+     */
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    /**
+     * @return 总时长（纳秒）
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return 总时长（毫秒，向下取整）
+     */
+    public long getDurationMs() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    /**
+     * @return commit / rollback 调用耗时（纳秒）
+     */
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * @return 事务内语句耗时之和（纳秒）
+     */
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    /**
+     * @return 语句之间（含第一条语句之前、结束调用之前）的应用耗时（纳秒）
+     */
+    public long getThinkNanos() {
+        return Math.max(0L, durationNanos - statementNanos - endNanos);
+    }
+
+    public int getSavepointRollbacks() {
+        return savepointRollbacks;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return 结束调用是否成功
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public static final class Builder {
+        private final long connectionId;
+        private final Outcome outcome;
+        private long startedAtMillis;
+        private long durationNanos;
+        private long endNanos;
+        private int statementCount;
+        private long statementNanos;
+        private int savepointRollbacks;
+        private Throwable error;
+
+        private Builder(long connectionId, Outcome outcome) {
+            this.connectionId = connectionId;
+            this.outcome = outcome;
+        }
+
+        public Builder startedAtMillis(long startedAtMillis) {
+            this.startedAtMillis = startedAtMillis;
+            return this;
+        }
+
+        public Builder durationNanos(long durationNanos) {
+            this.durationNanos = durationNanos;
+            return this;
+        }
+
+        public Builder endNanos(long endNanos) {
+            this.endNanos = endNanos;
+            return this;
+        }
+
+        public Builder statementCount(int statementCount) {
+            this.statementCount = statementCount;
+            return this;
+        }
+
+        public Builder statementNanos(long statementNanos) {
+            this.statementNanos = statementNanos;
+            return this;
+        }
+
+        public Builder savepointRollbacks(int savepointRollbacks) {
+            this.savepointRollbacks = savepointRollbacks;
+            return this;
+        }
+
+        public Builder error(Throwable error) {
+            this.error = error;
+            return this;
+        }
+
+        /**
+         * 构造不可变事件对象。
+         */
+        public TransactionEvent build() {
+            return new TransactionEvent(this);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.hsqyz.minip6spy.filter;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.stats.LatencyHistogram;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自适应慢查询过滤：按 SQL 指纹维护滚动 p99，只保留比该模板平时更慢的执行。
+ * - 每个模板一个延迟直方图，每个窗口结束时把 p99 固化为阈值，之后的事件只做一次比较；
+ * - 窗口样本数不足 {@code minSamples} 时沿用上一窗口的阈值；尚无阈值时使用 {@code warmupThreshold}；
+ * - 阈值不会低于 {@code floor}，避免把亚毫秒级的“相对慢”查询当作慢查询；
+ * - 失败的执行始终保留；模板数超过上限后，新模板只按 warmupThreshold 判断。
+ * 窗口切换依据事件自带的开始时间，不额外读取时钟。
+ */
+public final class AdaptiveSlowQueryFilter implements SqlEventFilter {
+
+    private final long windowMillis;
+    private final long minSamples;
+    private final double quantile;
+    private final long floorNanos;
+    private final long warmupNanos;
+    private final int maxTemplates;
+    private final ConcurrentHashMap<Long, Baseline> baselines = new ConcurrentHashMap<>();
+
+    private AdaptiveSlowQueryFilter(Builder builder) {
+        this.windowMillis = builder.windowMillis;
+        this.minSamples = builder.minSamples;
+        this.quantile = builder.quantile;
+        this.floorNanos = builder.floorNanos;
+        this.warmupNanos = builder.warmupNanos;
+        this.maxTemplates = builder.maxTemplates;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean test(SqlEvent event) {
+        long elapsed = event.getElapsedNanos();
+        Baseline baseline = baselineFor(event.getFingerprint());
+        if (baseline == null) {
+            return !event.isSuccess() || elapsed > warmupNanos;
+        }
+        long threshold = baseline.record(elapsed, event.getStartedAtMillis());
+        return !event.isSuccess() || elapsed > threshold;
+    }
+
+    /**
+     * @return 指纹当前生效的阈值（纳秒），未跟踪的模板返回 -1
+     */
+    public long thresholdNanos(long fingerprint) {
+        Baseline baseline = baselines.get(fingerprint);
+        return baseline == null ? -1 : baseline.threshold;
+    }
+
+    private Baseline baselineFor(long fingerprint) {
+        Baseline baseline = baselines.get(fingerprint);
+        if (baseline != null) {
+            return baseline;
+        }
+        if (baselines.size() >= maxTemplates) {
+            return null;
+        }
+        return baselines.computeIfAbsent(fingerprint, k -> new Baseline());
+    }
+
+    /**
+     * 单个模板的滚动基线。
+     */
+    private final class Baseline {
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private final AtomicLong windowStart = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong samples = new AtomicLong();
+        private volatile long threshold = Math.max(floorNanos, warmupNanos);
+
+        /**
+         * 记录样本，必要时切换窗口。
+         *
+         * @return 当前阈值
+         */
+        long record(long elapsedNanos, long nowMillis) {
+            long start = windowStart.get();
+            if (start == Long.MIN_VALUE) {
+                windowStart.compareAndSet(Long.MIN_VALUE, nowMillis);
+            } else if (nowMillis - start >= windowMillis && windowStart.compareAndSet(start, nowMillis)) {
+                rotate(); // 只有 CAS 成功的线程执行切换
+            }
+            current.record(elapsedNanos);
+            samples.incrementAndGet();
+            return threshold;
+        }
+
+        private void rotate() {
+            LatencyHistogram finished = current;
+            current = new LatencyHistogram();
+            long count = samples.getAndSet(0);
+            if (count >= minSamples) {
+                threshold = Math.max(floorNanos, finished.snapshot().valueAt(quantile));
+            }
+        }
+    }
+
+    public static final class Builder {
+        private long windowMillis = TimeUnit.MINUTES.toMillis(1);
+        private long minSamples = 100;
+        private double quantile = 0.99;
+        private long floorNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        private long warmupNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private int maxTemplates = 1000;
+
+        private Builder() {
+        }
+
+        /**
+         * 基线窗口长度（默认 1 分钟）。
+         */
+        public Builder window(long window, TimeUnit unit) {
+            this.windowMillis = Math.max(1, unit.toMillis(window));
+            return this;
+        }
+
+        /**
+         * 窗口内至少多少样本才更新阈值（默认 100）。
+         */
+        public Builder minSamples(long minSamples) {
+            this.minSamples = Math.max(1, minSamples);
+            return this;
+        }
+
+        /**
+         * 作为阈值的分位（默认 0.99）。
+         */
+        public Builder quantile(double quantile) {
+            if (!(quantile > 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("quantile must be in (0, 1]: " + quantile);
+            }
+            this.quantile = quantile;
+            return this;
+        }
+
+        /**
+         * 阈值下限（默认 1ms）。
+         */
+        public Builder floor(long floor, TimeUnit unit) {
+            this.floorNanos = unit.toNanos(floor);
+            return this;
+        }
+
+        /**
+         * 尚无基线时使用的固定阈值（默认 100ms）。
+         */
+        public Builder warmupThreshold(long threshold, TimeUnit unit) {
+            this.warmupNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * 最多跟踪的模板数（默认 1000）。
+         */
+        public Builder maxTemplates(int maxTemplates) {
+            this.maxTemplates = Math.max(1, maxTemplates);
+            return this;
+        }
+
+        public AdaptiveSlowQueryFilter build() {
+            return new AdaptiveSlowQueryFilter(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.hsqyz.minip6spy.filter;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件过滤条件：在事件交给任何监听器之前统一判断一次，返回 false 的事件不再分发。
+ * 条件在创建时完成预处理（单位换算、大小写统一），判断时只做比较；可用 {@link #and} / {@link #or} 组合。
+ * 实现需线程安全，它运行在 JDBC 业务线程上。
+ */
+@FunctionalInterface
+public interface SqlEventFilter {
+
+    /**
+     * @return 是否保留该事件
+     */
+    boolean test(SqlEvent event);
+
+    /**
+     * @return 两个条件同时满足
+     */
+    default SqlEventFilter and(SqlEventFilter other) {
+        Objects.requireNonNull(other, "other");
+        return event -> test(event) && other.test(event);
+    }
+
+    /**
+     * @return 任一条件满足
+     */
+    default SqlEventFilter or(SqlEventFilter other) {
+        Objects.requireNonNull(other, "other");
+        return event -> test(event) || other.test(event);
+    }
+
+    /**
+     * @return 条件取反
+     */
+    default SqlEventFilter negate() {
+        return event -> !test(event);
+    }
+
+    /**
+     * @return 耗时超过阈值的事件
+     */
+    static SqlEventFilter slowerThan(long threshold, TimeUnit unit) {
+        long nanos = unit.toNanos(threshold);
+        return event -> event.getElapsedNanos() > nanos;
+    }
+
+    /**
+     * @return 执行失败的事件
+     */
+    static SqlEventFilter failuresOnly() {
+        return event -> !event.isSuccess();
+    }
+
+    /**
+     * @param table 表名，不区分大小写，不含库名
+     * @return 涉及指定表的事件（表名来自归一化 SQL，同一模板只解析一次）
+     */
+    static SqlEventFilter table(String table) {
+        String expected = table.toLowerCase(Locale.ROOT);
+        return event -> event.getNormalized().getTables().contains(expected);
+    }
+
+    /**
+     * @param verb 语句类型，如 SELECT / UPDATE，不区分大小写
+     * @return 指定类型的事件
+     */
+    static SqlEventFilter verb(String verb) {
+        String expected = verb.toUpperCase(Locale.ROOT);
+        return event -> expected.equals(event.getNormalized().getVerb());
+    }
+
+    /**
+     * @return 批量大小超过 n 的事件
+     */
+    static SqlEventFilter batchSizeAbove(int n) {
+        return event -> event.getBatchSize() > n;
+    }
+}
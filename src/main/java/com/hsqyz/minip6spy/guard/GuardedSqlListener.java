@@ -0,0 +1,243 @@
+package com.hsqyz.minip6spy.guard;
+
+import com.hsqyz.minip6spy.dispatch.AsyncSqlEventDispatcher;
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带耗时预算与熔断的监听器包装：统计被包装监听器自身的耗时，慢调用或异常比例过高时熔断。
+ * - CLOSED：正常调用并计时；每满 {@link ListenerGuardOptions#getMinimumCalls()} 次判断一次慢/失败比例；
+ * - OPEN：在熔断时长内跳过该监听器，或转交独立的异步队列（{@link ListenerGuardOptions#getDivertAsync()}）；
+ * - HALF_OPEN：熔断到期后只放行一次探测调用，成功且未超预算则恢复，否则重新熔断。
+ * 状态与窗口计数均为原子变量，调用路径没有锁；监听器异常被吞掉并计入失败。
+ */
+public final class GuardedSqlListener implements SqlListener, AutoCloseable {
+
+    /**
+     * 熔断器状态。
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final long CALL_UNIT = 1L << 32; // 窗口计数：高 32 位为调用数，低 32 位为慢/失败数
+
+    private final SqlListener delegate;
+    private final ListenerGuardOptions options;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong window = new AtomicLong();
+    private volatile long openUntilNanos;
+    private volatile AsyncSqlEventDispatcher divert;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder diverted = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    public GuardedSqlListener(SqlListener delegate, ListenerGuardOptions options) {
+        this.delegate = delegate;
+        this.options = options;
+    }
+
+    /**
+     * @return 被包装的监听器
+     */
+    public SqlListener getDelegate() {
+        return delegate;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return 当前开销与熔断统计
+     */
+    public ListenerStats getStats() {
+        return new ListenerStats(delegate, state.get(), calls.sum(), totalNanos.sum(), maxNanos.get(),
+                slowCalls.sum(), failures.sum(), skipped.sum(), diverted.sum(), trips.sum());
+    }
+
+    @Override
+    public void onEvent(SqlEvent event) {
+        State s = acquire();
+        if (s == State.OPEN) {
+            AsyncSqlEventDispatcher d = divert();
+            if (d != null) {
+                d.dispatch(event);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            delegate.onEvent(event);
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        complete(s, System.nanoTime() - start, failed);
+    }
+
+    @Override
+    public void onResultSetEvent(ResultSetEvent event) {
+        State s = acquire();
+        if (s == State.OPEN) {
+            AsyncSqlEventDispatcher d = divert();
+            if (d != null) {
+                d.dispatch(event);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            delegate.onResultSetEvent(event);
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        complete(s, System.nanoTime() - start, failed);
+    }
+
+    @Override
+    public void onConnectionEvent(ConnectionEvent event) {
+        State s = acquire();
+        if (s == State.OPEN) {
+            AsyncSqlEventDispatcher d = divert();
+            if (d != null) {
+                d.dispatch(event);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            delegate.onConnectionEvent(event);
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        complete(s, System.nanoTime() - start, failed);
+    }
+
+    @Override
+    public void onTransactionEvent(TransactionEvent event) {
+        State s = acquire();
+        if (s == State.OPEN) {
+            AsyncSqlEventDispatcher d = divert();
+            if (d != null) {
+                d.dispatch(event);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            delegate.onTransactionEvent(event);
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        complete(s, System.nanoTime() - start, failed);
+    }
+
+    /**
+     * 停止转异步使用的后台线程（等待剩余事件投递）。
+     */
+    @Override
+    public void close() {
+        AsyncSqlEventDispatcher d = divert;
+        if (d != null) {
+            d.close();
+        }
+    }
+
+    /**
+     * 决定本次调用的方式。
+     *
+     * @return CLOSED 正常调用；HALF_OPEN 本次为探测调用；OPEN 不直接调用
+     */
+    private State acquire() {
+        State s = state.get();
+        if (s == State.CLOSED) {
+            return s;
+        }
+        if (s == State.OPEN && System.nanoTime() - openUntilNanos >= 0
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return State.HALF_OPEN; // 只有一个线程拿到探测资格
+        }
+        return State.OPEN; // 熔断中，或其它线程正在探测
+    }
+
+    private void complete(State mode, long elapsedNanos, boolean failed) {
+        calls.increment();
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+        boolean slow = elapsedNanos > options.getBudgetNanos();
+        if (slow) {
+            slowCalls.increment();
+        }
+        if (failed) {
+            failures.increment();
+        }
+        boolean bad = slow || failed;
+        if (mode == State.HALF_OPEN) {
+            if (bad) {
+                trip(State.HALF_OPEN);
+            } else {
+                window.set(0);
+                state.set(State.CLOSED);
+            }
+            return;
+        }
+        long w = window.addAndGet(bad ? CALL_UNIT + 1 : CALL_UNIT);
+        long windowCalls = w >>> 32;
+        if (windowCalls >= options.getMinimumCalls() && window.compareAndSet(w, 0)) {
+            long windowBad = w & 0xFFFFFFFFL;
+            if (windowBad >= windowCalls * options.getFailureRateThreshold()) {
+                trip(State.CLOSED);
+            }
+        }
+    }
+
+    private void trip(State from) {
+        openUntilNanos = System.nanoTime() + options.getOpenNanos();
+        if (state.compareAndSet(from, State.OPEN)) {
+            trips.increment();
+        }
+    }
+
+    /**
+     * 熔断期间的去向：配置了异步转投时懒创建独立分发器，否则计为跳过。
+     */
+    private AsyncSqlEventDispatcher divert() {
+        if (options.getDivertAsync() == null) {
+            skipped.increment();
+            return null;
+        }
+        AsyncSqlEventDispatcher d = divert;
+        if (d == null) {
+            synchronized (this) {
+                d = divert;
+                if (d == null) {
+                    d = new AsyncSqlEventDispatcher(Collections.singletonList(delegate), options.getDivertAsync());
+                    divert = d;
+                }
+            }
+        }
+        diverted.increment();
+        return d;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hsqyz.minip6spy.guard;
+
+import com.hsqyz.minip6spy.dispatch.AsyncDispatchOptions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监听器熔断配置：单次调用的耗时预算、触发熔断的“慢或失败”比例、统计窗口与熔断时长。
+ */
+public final class ListenerGuardOptions {
+
+    private final long budgetNanos;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final AsyncDispatchOptions divertAsync;
+
+    private ListenerGuardOptions(Builder builder) {
+        this.budgetNanos = builder.budgetNanos;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.minimumCalls = builder.minimumCalls;
+        this.openNanos = builder.openNanos;
+        this.divertAsync = builder.divertAsync;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    /**
+     * @return 熔断期间转为异步投递的配置；为 null 时熔断期间直接跳过
+     */
+    public AsyncDispatchOptions getDivertAsync() {
+        return divertAsync;
+    }
+
+    public static final class Builder {
+        private long budgetNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        private double failureRateThreshold = 0.5;
+        private int minimumCalls = 100;
+        private long openNanos = TimeUnit.SECONDS.toNanos(30);
+        private AsyncDispatchOptions divertAsync;
+
+        private Builder() {
+        }
+
+        /**
+         * 单次回调的耗时预算（默认 1ms），超出即记为一次慢调用。
+         */
+        public Builder budget(long budget, TimeUnit unit) {
+            if (budget <= 0) {
+                throw new IllegalArgumentException("budget must be positive: " + budget);
+            }
+            this.budgetNanos = unit.toNanos(budget);
+            return this;
+        }
+
+        /**
+         * 一个窗口内慢调用与异常调用之和的占比达到该值即熔断（默认 0.5）。
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+                throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]: " + failureRateThreshold);
+            }
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * 统计窗口的调用次数（默认 100），每满一个窗口判断一次。
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            if (minimumCalls <= 0) {
+                throw new IllegalArgumentException("minimumCalls must be positive: " + minimumCalls);
+            }
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * 熔断持续时间（默认 30 秒），之后放行一次探测调用。
+         */
+        public Builder openDuration(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("duration must be positive: " + duration);
+            }
+            this.openNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * 熔断期间改为经独立的异步队列投递给该监听器，而不是直接跳过；传 null 表示跳过（默认）。
+         */
+        public Builder divertAsync(AsyncDispatchOptions divertAsync) {
+            this.divertAsync = divertAsync;
+            return this;
+        }
+
+        public ListenerGuardOptions build() {
+            return new ListenerGuardOptions(this);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hsqyz.minip6spy.guard;
+
+import com.hsqyz.minip6spy.listener.SqlListener;
+
+/**
+ * 单个监听器的开销快照：调用次数、自身耗时、慢调用与异常次数、熔断期间跳过或转异步的次数。
+ */
+public final class ListenerStats {
+
+    private final SqlListener listener;
+    private final GuardedSqlListener.State state;
+    private final long calls;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long slowCalls;
+    private final long failures;
+    private final long skipped;
+    private final long diverted;
+    private final long trips;
+
+    ListenerStats(SqlListener listener, GuardedSqlListener.State state, long calls, long totalNanos, long maxNanos,
+                  long slowCalls, long failures, long skipped, long diverted, long trips) {
+        this.listener = listener;
+        this.state = state;
+        this.calls = calls;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.slowCalls = slowCalls;
+        this.failures = failures;
+        this.skipped = skipped;
+        this.diverted = diverted;
+        this.trips = trips;
+    }
+
+    /**
+     * @return 被保护的原始监听器
+     */
+    public SqlListener getListener() {
+        return listener;
+    }
+
+    public GuardedSqlListener.State getState() {
+        return state;
+    }
+
+    /**
+     * @return 同步调用次数（含探测调用）
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return 同步调用的累计耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return 单次调用的平均耗时（纳秒），即该监听器给每次事件增加的开销
+     */
+    public long getMeanNanos() {
+        return calls == 0 ? 0 : totalNanos / calls;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getSlowCalls() {
+        return slowCalls;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return 熔断期间跳过的事件数
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return 熔断期间转为异步投递的事件数
+     */
+    public long getDiverted() {
+        return diverted;
+    }
+
+    /**
+     * @return 熔断次数
+     */
+    public long getTrips() {
+        return trips;
+    }
+
+    @Override
+    public String toString() {
+        return listener.getClass().getSimpleName() + "{state=" + state + ", calls=" + calls
+                + ", mean=" + getMeanNanos() / 1000 + "us, max=" + maxNanos / 1000 + "us, slow=" + slowCalls
+                + ", failures=" + failures + ", skipped=" + skipped + ", diverted=" + diverted + ", trips=" + trips + '}';
+    }
+}
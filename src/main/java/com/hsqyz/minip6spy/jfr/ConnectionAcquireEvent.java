@@ -0,0 +1,23 @@
+package com.hsqyz.minip6spy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 从底层数据源 / 驱动获取连接，起止时间即获取调用的起止。
+ */
+@Name("com.hsqyz.minip6spy.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"mini-p6spy", "JDBC"})
+@Description("Connection checkout through SpyDataSource or P6SpyDriver")
+final class ConnectionAcquireEvent extends Event {
+
+    @Label("Connection Id")
+    long connectionId;
+
+    @Label("Success")
+    boolean success;
+}
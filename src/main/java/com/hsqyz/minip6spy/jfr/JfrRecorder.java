@@ -0,0 +1,137 @@
+package com.hsqyz.minip6spy.jfr;
+
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+import jdk.jfr.EventType;
+
+/**
+ * 把代理层的执行、获取连接与提交 / 回滚写成 JDK Flight Recorder 事件，使数据库耗时与 GC、锁、CPU 采样出现在同一份记录中。
+ * 通过 {@link com.hsqyz.minip6spy.proxy.SpyContext.Builder#flightRecorder(boolean)} 开启。
+ * - 每种事件开始前只检查一次 {@link EventType#isEnabled()}，记录中未启用该事件时不创建事件对象；
+ * - 阈值等设置由 JFR 配置决定（{@link jdk.jfr.Event#shouldCommit()}），只有确定提交的事件才归一化 SQL；
+ * - begin* 返回的句柄为 Object，调用方无需引用 jdk.jfr 类型，未开启时不会加载本类。
+ * 运行环境需要 JFR（JDK 11+，或 8u262 及之后的 JDK 8），可先用 {@link #isAvailable()} 判断。
+ */
+public final class JfrRecorder {
+
+    /**
+     * @return 当前 JVM 是否提供 jdk.jfr
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 语句执行开始。
+     *
+     * @return 事件句柄；未启用时为 null
+     */
+    public Object beginExecution() {
+        if (!Types.EXECUTION.isEnabled()) {
+            return null;
+        }
+        SqlExecutionEvent event = new SqlExecutionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 语句执行结束。
+     *
+     * @param handle {@link #beginExecution()} 的返回值，可为 null
+     */
+    public void endExecution(Object handle, SqlMethodEnum method, String sql, int batchSize, boolean success, long connectionId) {
+        if (handle == null) {
+            return;
+        }
+        SqlExecutionEvent event = (SqlExecutionEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = sql == null ? null : SqlNormalizer.shared().normalize(sql).getSql();
+            event.method = method == null ? null : method.methodName();
+            event.batchSize = batchSize;
+            event.success = success;
+            event.connectionId = connectionId;
+            event.commit();
+        }
+    }
+
+    /**
+     * 获取连接开始。
+     *
+     * @return 事件句柄；未启用时为 null
+     */
+    public Object beginAcquire() {
+        if (!Types.ACQUIRE.isEnabled()) {
+            return null;
+        }
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 获取连接结束。
+     *
+     * @param connectionId 连接序号，失败时为 0
+     */
+    public void endAcquire(Object handle, long connectionId, boolean success) {
+        if (handle == null) {
+            return;
+        }
+        ConnectionAcquireEvent event = (ConnectionAcquireEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.connectionId = connectionId;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * commit / rollback 开始。
+     *
+     * @return 事件句柄；未启用时为 null
+     */
+    public Object beginTransactionEnd() {
+        if (!Types.TRANSACTION.isEnabled()) {
+            return null;
+        }
+        TransactionEndEvent event = new TransactionEndEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * commit / rollback 结束。
+     *
+     * @param outcome COMMIT / ROLLBACK
+     */
+    public void endTransactionEnd(Object handle, String outcome, long connectionId, boolean success) {
+        if (handle == null) {
+            return;
+        }
+        TransactionEndEvent event = (TransactionEndEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome;
+            event.connectionId = connectionId;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * 事件类型在首次使用时注册，{@link #isAvailable()} 不会触发。
+     */
+    private static final class Types {
+        static final EventType EXECUTION = EventType.getEventType(SqlExecutionEvent.class);
+        static final EventType ACQUIRE = EventType.getEventType(ConnectionAcquireEvent.class);
+        static final EventType TRANSACTION = EventType.getEventType(TransactionEndEvent.class);
+    }
+}
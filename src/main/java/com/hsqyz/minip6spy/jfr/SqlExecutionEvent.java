@@ -0,0 +1,35 @@
+package com.hsqyz.minip6spy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次语句执行，起止时间即 execute* 调用的起止。
+ */
+@Name("com.hsqyz.minip6spy.SqlExecution")
+@Label("SQL Execution")
+@Category({"mini-p6spy", "JDBC"})
+@Description("JDBC statement execution observed by mini-p6spy")
+@StackTrace(false)
+final class SqlExecutionEvent extends Event {
+
+    @Label("SQL Template")
+    @Description("Normalized SQL with literals replaced by ?")
+    String sql;
+
+    @Label("Method")
+    String method;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Connection Id")
+    long connectionId;
+}
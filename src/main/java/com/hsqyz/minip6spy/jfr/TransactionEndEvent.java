@@ -0,0 +1,28 @@
+package com.hsqyz.minip6spy.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次 commit / rollback 调用，起止时间即调用本身的起止。
+ */
+@Name("com.hsqyz.minip6spy.TransactionEnd")
+@Label("Transaction End")
+@Category({"mini-p6spy", "JDBC"})
+@Description("Connection commit or rollback observed by mini-p6spy")
+@StackTrace(false)
+final class TransactionEndEvent extends Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Connection Id")
+    long connectionId;
+}
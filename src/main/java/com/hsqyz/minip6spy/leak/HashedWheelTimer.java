@@ -0,0 +1,187 @@
+package com.hsqyz.minip6spy.leak;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 哈希时间轮：单个守护线程按固定 tick 推进，适合大量“多半会被取消”的超时任务（如连接泄漏检测）。
+ * - 新建超时只做一次无锁入队，由工作线程放入对应槽位，调用方不接触轮盘；
+ * - 取消只是一次 CAS 标记，已取消的任务在所在槽位被扫描时顺带丢弃；
+ * - 到期精度为一个 tick，任务在工作线程上执行，应足够轻量。
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param threadName 工作线程名
+     * @param tick       tick 长度
+     * @param unit       tick 单位
+     * @param wheelSize  槽位数，会向上取整为 2 的幂
+     */
+    public HashedWheelTimer(String threadName, long tick, TimeUnit unit, int wheelSize) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheelSize must be positive");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        int size = wheelSize <= 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交一个延迟任务。
+     *
+     * @return 可取消的句柄；计时器已关闭时返回已取消的句柄
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + unit.toNanos(delay));
+        if (!running) {
+            timeout.cancel();
+            return timeout;
+        }
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 停止工作线程，未到期的任务不再执行。
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            while (sleep > 0 && running) {
+                LockSupport.parkNanos(sleep);
+                sleep = deadline - (System.nanoTime() - startNanos);
+            }
+            if (!running) {
+                break;
+            }
+            transferPending(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+        pending.clear();
+    }
+
+    /**
+     * 把新提交的任务放入槽位，计算需要转几圈。
+     */
+    private void transferPending(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long ticks = Math.max(timeout.deadlineNanos / tickNanos, currentTick);
+            timeout.remainingRounds = (ticks - currentTick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * 槽位，仅工作线程访问：扫描时逐个取出，丢弃已取消的、执行到期的，其余转数减一后放回队尾。
+     */
+    private static final class Bucket {
+        private final ArrayDeque<Timeout> timeouts = new ArrayDeque<>();
+
+        void add(Timeout timeout) {
+            timeouts.addLast(timeout);
+        }
+
+        void expire() {
+            for (int n = timeouts.size(); n > 0; n--) {
+                Timeout timeout = timeouts.pollFirst();
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                if (timeout.remainingRounds <= 0) {
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                    timeouts.addLast(timeout);
+                }
+            }
+        }
+    }
+
+    /**
+     * 超时任务句柄。
+     */
+    public static final class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final long deadlineNanos; // 相对计时器启动时刻
+        private Runnable task;
+        private volatile int state;
+        private long remainingRounds;     // 仅工作线程读写
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 取消任务。
+         *
+         * @return 是否在到期前取消成功
+         */
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                task = null; // 尽早释放任务引用的对象
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private void expire() {
+            Runnable t = task;
+            if (t == null || !STATE.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            task = null;
+            try {
+                t.run();
+            } catch (RuntimeException ignore) {
+                // 单个任务异常不影响时间轮
+            }
+        }
+    }
+}
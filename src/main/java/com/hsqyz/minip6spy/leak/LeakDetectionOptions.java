@@ -0,0 +1,93 @@
+package com.hsqyz.minip6spy.leak;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接泄漏检测配置：持有阈值、借出调用栈的采样率与时间轮参数。
+ */
+public final class LeakDetectionOptions {
+
+    private final long thresholdNanos;
+    private final double stackSampleRate;
+    private final long tickMillis;
+    private final int wheelSize;
+
+    private LeakDetectionOptions(Builder builder) {
+        this.thresholdNanos = builder.thresholdNanos;
+        this.stackSampleRate = builder.stackSampleRate;
+        this.tickMillis = builder.tickMillis;
+        this.wheelSize = builder.wheelSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    public double getStackSampleRate() {
+        return stackSampleRate;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public static final class Builder {
+        private long thresholdNanos = TimeUnit.SECONDS.toNanos(30);
+        private double stackSampleRate = 0.01;
+        private long tickMillis = 100;
+        private int wheelSize = 512;
+
+        private Builder() {
+        }
+
+        /**
+         * 连接持有超过该时长未归还即报告疑似泄漏（默认 30 秒）。
+         */
+        public Builder threshold(long threshold, TimeUnit unit) {
+            if (threshold <= 0) {
+                throw new IllegalArgumentException("threshold must be positive: " + threshold);
+            }
+            this.thresholdNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * 借出时记录调用栈的概率（默认 0.01）；1 表示每次都记录，0 表示从不记录。
+         */
+        public Builder stackSampleRate(double stackSampleRate) {
+            if (!(stackSampleRate >= 0 && stackSampleRate <= 1)) {
+                throw new IllegalArgumentException("stackSampleRate must be in [0, 1]: " + stackSampleRate);
+            }
+            this.stackSampleRate = stackSampleRate;
+            return this;
+        }
+
+        /**
+         * 时间轮 tick（默认 100ms），即检测精度。
+         */
+        public Builder tick(long tick, TimeUnit unit) {
+            this.tickMillis = Math.max(1, unit.toMillis(tick));
+            return this;
+        }
+
+        /**
+         * 时间轮槽位数（默认 512）。
+         */
+        public Builder wheelSize(int wheelSize) {
+            this.wheelSize = Math.max(1, wheelSize);
+            return this;
+        }
+
+        public LeakDetectionOptions build() {
+            return new LeakDetectionOptions(this);
+        }
+    }
+}
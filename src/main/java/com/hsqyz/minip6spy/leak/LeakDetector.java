@@ -0,0 +1,52 @@
+package com.hsqyz.minip6spy.leak;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接泄漏检测：每次借出在时间轮上登记一个超时，归还时取消；超时触发即视为疑似泄漏。
+ * 借出时只有按采样率命中才创建调用栈（填充栈帧是主要开销），其余借出只多一次入队。
+ */
+public final class LeakDetector implements AutoCloseable {
+
+    private final LeakDetectionOptions options;
+    private final HashedWheelTimer timer;
+
+    public LeakDetector(LeakDetectionOptions options) {
+        this.options = options;
+        this.timer = new HashedWheelTimer("mini-p6spy-leak-detector", options.getTickMillis(),
+                TimeUnit.MILLISECONDS, options.getWheelSize());
+    }
+
+    /**
+     * 按采样率记录借出调用栈。
+     *
+     * @return 调用栈，未命中采样时为 null
+     */
+    public Throwable sampleStack() {
+        double rate = options.getStackSampleRate();
+        if (rate <= 0 || rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return null;
+        }
+        return new Throwable("Connection acquired here");
+    }
+
+    /**
+     * 登记一次借出，超过阈值未取消时在检测线程上执行 onLeak。
+     */
+    public HashedWheelTimer.Timeout watch(Runnable onLeak) {
+        return timer.newTimeout(onLeak, options.getThresholdNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public LeakDetectionOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 停止检测线程。
+     */
+    @Override
+    public void close() {
+        timer.close();
+    }
+}
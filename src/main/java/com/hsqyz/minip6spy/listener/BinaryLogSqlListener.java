@@ -0,0 +1,56 @@
+package com.hsqyz.minip6spy.listener;
+
+import com.hsqyz.minip6spy.binlog.BinaryLogOptions;
+import com.hsqyz.minip6spy.binlog.BinaryLogReader;
+import com.hsqyz.minip6spy.binlog.BinaryLogWriter;
+import com.hsqyz.minip6spy.event.SqlEvent;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 以二进制格式把事件写入内存映射段文件的监听器，用于排障期间全量采集：
+ * 写入只是一次内存拷贝，不做文本格式化与日志框架调用，事后用 {@link BinaryLogReader}
+ * 或 {@link com.hsqyz.minip6spy.binlog.BinaryLogCli} 离线解码。
+ * 建议配合异步分发使用，写满切段与刷盘不会落在 JDBC 线程上。
+ */
+public final class BinaryLogSqlListener implements SqlListener, AutoCloseable {
+
+    private final BinaryLogWriter writer;
+    private final LongAdder errors = new LongAdder();
+
+    public BinaryLogSqlListener(BinaryLogOptions options) throws IOException {
+        this.writer = new BinaryLogWriter(options);
+    }
+
+    @Override
+    public void onEvent(SqlEvent event) {
+        try {
+            writer.append(event);
+        } catch (IOException e) {
+            errors.increment(); // 磁盘异常不影响业务，仅计数
+        }
+    }
+
+    /**
+     * @return 底层写入器，可读取当前段与写入/丢弃计数
+     */
+    public BinaryLogWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * @return 写入失败（I/O 异常）的次数
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * 关闭当前段文件（按策略刷盘）。
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,154 @@
+package com.hsqyz.minip6spy.listener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 批量写出的控制台输出：调用方只把整行追加到共享缓冲区（一次短暂加锁的内存拷贝），
+ * 缓冲区超过阈值或到达刷新间隔时整批写到底层流，避免每条日志一次 {@code println} 争抢 {@link System#out} 的锁。
+ * - 写出在追加锁之外进行，慢终端不会阻塞其它线程追加；
+ * - 后台守护线程按间隔刷新，{@link #shared()} 额外注册关闭钩子，JVM 退出前写出剩余内容；
+ * - 行在多线程间的先后顺序以进入缓冲区的顺序为准。
+ */
+public final class BufferedConsoleWriter implements AutoCloseable {
+
+    // 默认批量阈值（字符数）
+    public static final int DEFAULT_FLUSH_THRESHOLD = 8 * 1024;
+    // 默认刷新间隔（毫秒）
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 200;
+
+    private final Writer out;
+    private final int flushThreshold;
+    private final Object appendLock = new Object();
+    private final Object writeLock = new Object();
+    private final Thread flusher;
+    private StringBuilder pending;   // 正在追加的批次
+    private StringBuilder spare;     // 写完归还的批次，下次切换时复用
+    private volatile boolean running = true;
+
+    /**
+     * 按平台默认字符集编码输出。
+     *
+     * @param out             底层输出流（不会被关闭）
+     * @param flushThreshold  批量阈值（字符数）
+     * @param flushIntervalMs 刷新间隔（毫秒）
+     */
+    public BufferedConsoleWriter(OutputStream out, int flushThreshold, long flushIntervalMs) {
+        this(out, Charset.defaultCharset(), flushThreshold, flushIntervalMs);
+    }
+
+    /**
+     * @param out             底层输出流（不会被关闭）
+     * @param charset         输出编码
+     * @param flushThreshold  批量阈值（字符数）
+     * @param flushIntervalMs 刷新间隔（毫秒）
+     */
+    public BufferedConsoleWriter(OutputStream out, Charset charset, int flushThreshold, long flushIntervalMs) {
+        if (flushThreshold <= 0 || flushIntervalMs <= 0) {
+            throw new IllegalArgumentException("flushThreshold and flushIntervalMs must be positive");
+        }
+        this.out = new OutputStreamWriter(out, charset);
+        this.flushThreshold = flushThreshold;
+        this.pending = new StringBuilder(flushThreshold + 256);
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.flusher = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(intervalNanos);
+                flush();
+            }
+        }, "mini-p6spy-console-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * @return 全局共享的 {@link System#out} 批量输出（首次调用时启动刷新线程）
+     */
+    public static BufferedConsoleWriter shared() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 追加一行（自动补换行），缓冲区超过阈值时由当前线程写出整批。
+     */
+    public void writeLine(CharSequence line) {
+        StringBuilder full = null;
+        synchronized (appendLock) {
+            pending.append(line).append('\n');
+            if (pending.length() >= flushThreshold) {
+                full = swap();
+            }
+        }
+        if (full != null) {
+            drain(full);
+        }
+    }
+
+    /**
+     * 立即写出缓冲区中的全部内容。
+     */
+    public void flush() {
+        StringBuilder full;
+        synchronized (appendLock) {
+            if (pending.length() == 0) {
+                return;
+            }
+            full = swap();
+        }
+        drain(full);
+    }
+
+    /**
+     * 停止刷新线程并写出剩余内容，不关闭底层流。
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        flush();
+    }
+
+    /**
+     * 调用方持有 appendLock：取出当前批次，换上空缓冲区。
+     */
+    private StringBuilder swap() {
+        StringBuilder full = pending;
+        pending = spare != null ? spare : new StringBuilder(flushThreshold + 256);
+        spare = null;
+        return full;
+    }
+
+    private void drain(StringBuilder batch) {
+        synchronized (writeLock) {
+            try {
+                out.append(batch);
+                out.flush();
+            } catch (IOException ignore) {
+                // 控制台不可写时丢弃，与 PrintStream 的行为一致
+            }
+        }
+        if (batch.capacity() > flushThreshold * 4) {
+            return; // 单条超长日志撑大的缓冲区不再复用
+        }
+        batch.setLength(0);
+        synchronized (appendLock) {
+            if (spare == null) {
+                spare = batch;
+            }
+        }
+    }
+
+    private static final class Holder {
+        private static final BufferedConsoleWriter INSTANCE = new BufferedConsoleWriter(System.out,
+                DEFAULT_FLUSH_THRESHOLD, DEFAULT_FLUSH_INTERVAL_MS);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::flush, "mini-p6spy-console-shutdown"));
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.hsqyz.minip6spy.listener;
 
 import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.regex.Pattern;
 
 /**
  * 仿照 MyBatis-Plus 提供的 P6Spy 日志格式实现的监听器。
@@ -13,41 +13,93 @@ import java.util.regex.Pattern;
  * Consume Time：12 ms 2024-12-10 20:00:00.123
  * Execute SQL：select * from user where id = 1
  * 失败时追加 Error 信息；输出为红色 ANSI 以便在控制台突出显示。
+ * 格式化使用每线程复用的缓冲区，时间戳按秒缓存前缀、毫秒部分手工补齐；
+ * 输出经 {@link BufferedConsoleWriter} 批量写出，不再逐条 println 争抢 System.out 的锁。
  */
 public final class P6SpySqlListener implements SqlListener {
 
-    // 合并多余空白，便于一行展示 SQL
-    private static final Pattern WHITESPACE = Pattern.compile("[\\s]+");
-    // 本地时区的可读时间格式
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    // 本地时区的时间格式，只格式化到秒，毫秒手工追加
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.").withZone(ZoneId.systemDefault());
     // 控制台红色输出（ANSI），不支持的终端会原样展示
     private static final String RED = "\u001B[31m";
     private static final String RESET = "\u001B[0m";
+    // 复用缓冲区的容量上限，超长 SQL 撑大后不再保留
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<LineBuffer> BUFFERS = ThreadLocal.withInitial(LineBuffer::new);
+
+    private final BufferedConsoleWriter writer;
+
+    /**
+     * 输出到共享的 {@link BufferedConsoleWriter#shared()}（System.out）。
+     */
+    public P6SpySqlListener() {
+        this(BufferedConsoleWriter.shared());
+    }
+
+    /**
+     * @param writer 自定义批量输出
+     */
+    public P6SpySqlListener(BufferedConsoleWriter writer) {
+        this.writer = writer;
+    }
 
     @Override
     public void onEvent(SqlEvent event) {
         String sql = event.getSql();
-        if (sql == null || sql.trim().isEmpty()) {
+        if (sql == null || isBlank(sql)) {
             return;
         }
-        StringBuilder sb = new StringBuilder();
-        sb.append(" Consume Time：")
+        LineBuffer buffer = BUFFERS.get();
+        StringBuilder sb = buffer.builder;
+        sb.setLength(0);
+        sb.append(RED).append(" Consume Time：")
                 .append(event.getElapsedMs())
-                .append(" ms ")
-                .append(formatInstant(event.getStartedAt()));
-        sb.append("\n Execute SQL：")
-                .append(WHITESPACE.matcher(sql).replaceAll(" "));
+                .append(" ms ");
+        buffer.appendTimestamp(event.getStartedAtMillis());
+        sb.append("\n Execute SQL：");
+        SqlNormalizer.appendCollapsedWhitespace(sb, sql); // 合并多余空白，便于一行展示 SQL
         if (!event.isSuccess() && event.getError() != null) {
             sb.append("\n Error：").append(event.getError().getMessage());
         }
-        System.out.println(RED + sb + RESET);
+        sb.append(RESET);
+        writer.writeLine(sb);
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer.builder = new StringBuilder(512);
+        }
     }
 
-    private String formatInstant(Instant instant) {
-        if (instant == null) {
-            return "<unknown-time>";
+    private static boolean isBlank(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isWhitespace(s.charAt(i))) {
+                return false;
+            }
         }
-        return FORMATTER.format(instant);
+        return true;
     }
-}
 
+    /**
+     * 每线程的格式化缓冲区与时间戳缓存。
+     */
+    private static final class LineBuffer {
+        private StringBuilder builder = new StringBuilder(512);
+        private long cachedSecond = Long.MIN_VALUE;
+        private String secondPrefix; // "yyyy-MM-dd HH:mm:ss."
+
+        void appendTimestamp(long epochMillis) {
+            long second = Math.floorDiv(epochMillis, 1000L);
+            if (second != cachedSecond) {
+                secondPrefix = SECOND_FORMATTER.format(Instant.ofEpochSecond(second));
+                cachedSecond = second;
+            }
+            int millis = (int) Math.floorMod(epochMillis, 1000L);
+            builder.append(secondPrefix);
+            if (millis < 100) {
+                builder.append('0');
+            }
+            if (millis < 10) {
+                builder.append('0');
+            }
+            builder.append(millis);
+        }
+    }
+}
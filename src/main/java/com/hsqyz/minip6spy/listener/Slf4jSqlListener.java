@@ -1,5 +1,6 @@
 package com.hsqyz.minip6spy.listener;
 
+import com.hsqyz.minip6spy.event.ResultSetEvent;
 import com.hsqyz.minip6spy.event.SqlEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,6 +9,7 @@ import org.slf4j.LoggerFactory;
  * 基于 SLF4J 的默认监听器：
  * - 成功时 info 级别输出耗时、批量大小和 SQL
  * - 失败时 warn 级别，同时打印错误消息，便于快速定位
+ * - 结果集关闭时 debug 级别输出行数与遍历耗时
  * 适合生产环境直接落盘或接入统一日志体系。
  */
 public final class Slf4jSqlListener implements SqlListener {
@@ -27,5 +29,16 @@ public final class Slf4jSqlListener implements SqlListener {
         }
     }
 
+    @Override
+    public void onResultSetEvent(ResultSetEvent event) {
+        if (log.isDebugEnabled()) {
+            log.debug("[rs] rows={} | next={} us | total={} ms | {}",
+                    event.getRows(),
+                    event.getNextElapsedNanos() / 1000,
+                    event.getTotalElapsedMs(),
+                    event.getSql());
+        }
+    }
+
 }
 
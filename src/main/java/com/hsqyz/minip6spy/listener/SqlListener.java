@@ -1,6 +1,9 @@
 package com.hsqyz.minip6spy.listener;
 
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
 import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
 
 /**
  * SQL 执行后的回调接口。
@@ -13,5 +16,22 @@ public interface SqlListener {
      * 处理一条 SQL 事件，方法内部抛出的异常不会影响 JDBC 主流程。
      */
     void onEvent(SqlEvent event);
-}
 
+    /**
+     * 处理结果集遍历事件：结果集关闭（或随语句关闭）后回调，默认忽略。
+     */
+    default void onResultSetEvent(ResultSetEvent event) {
+    }
+
+    /**
+     * 处理连接生命周期事件（借出、归还、疑似泄漏），默认忽略。
+     */
+    default void onConnectionEvent(ConnectionEvent event) {
+    }
+
+    /**
+     * 处理事务结束事件（commit / rollback 及隐式结束），默认忽略。
+     */
+    default void onTransactionEvent(TransactionEvent event) {
+    }
+}
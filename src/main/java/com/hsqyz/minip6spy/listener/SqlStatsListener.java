@@ -0,0 +1,85 @@
+package com.hsqyz.minip6spy.listener;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.stats.SqlStatsSnapshot;
+import com.hsqyz.minip6spy.stats.TemplateStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按 SQL 模板聚合执行统计的监听器，替代逐条打印日志。
+ * - 模板取事件的归一化 SQL：字面量替换为 ?，拼接了不同参数的普通语句归为同一模板；
+ * - 每个模板记录次数、失败数、总/最小/最大耗时与 p50/p95/p99/p999；
+ * - 写入路径全部为 LongAdder 与分段直方图，同一热点 SQL 在多线程下不争用同一缓存行；
+ * - 模板数量有上限，超出后归入 {@link #OTHER_TEMPLATE}，避免未参数化的 SQL 撑爆内存。
+ * 通过 {@link #snapshotAndReset()} 定期拉取一个窗口的数据并开始新窗口。
+ */
+public final class SqlStatsListener implements SqlListener {
+
+    // 超出模板上限后的归并键
+    public static final String OTHER_TEMPLATE = "<other>";
+    // 默认最多统计的模板数
+    public static final int DEFAULT_MAX_TEMPLATES = 1000;
+
+    private final int maxTemplates;
+    private final AtomicReference<ConcurrentHashMap<String, TemplateStats>> window =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+
+    public SqlStatsListener() {
+        this(DEFAULT_MAX_TEMPLATES);
+    }
+
+    /**
+     * @param maxTemplates 单个窗口内最多保留的模板数
+     */
+    public SqlStatsListener(int maxTemplates) {
+        if (maxTemplates < 1) {
+            throw new IllegalArgumentException("maxTemplates must be positive");
+        }
+        this.maxTemplates = maxTemplates;
+    }
+
+    @Override
+    public void onEvent(SqlEvent event) {
+        statsFor(window.get(), event.getNormalizedSql()).record(event.getElapsedNanos(), event.isSuccess());
+    }
+
+    private TemplateStats statsFor(ConcurrentHashMap<String, TemplateStats> stats, String sql) {
+        TemplateStats existing = stats.get(sql); // 命中时只有一次无锁读
+        if (existing != null) {
+            return existing;
+        }
+        String key = stats.size() >= maxTemplates ? OTHER_TEMPLATE : sql;
+        return stats.computeIfAbsent(key, TemplateStats::new);
+    }
+
+    /**
+     * @return 当前窗口内各模板的统计，按总耗时降序
+     */
+    public List<SqlStatsSnapshot> snapshot() {
+        return toSnapshots(window.get());
+    }
+
+    /**
+     * 返回当前窗口的统计并切换到新窗口。
+     * 切换瞬间仍在写旧窗口的少量样本会计入返回结果之后，可能被丢弃。
+     *
+     * @return 旧窗口内各模板的统计，按总耗时降序
+     */
+    public List<SqlStatsSnapshot> snapshotAndReset() {
+        return toSnapshots(window.getAndSet(new ConcurrentHashMap<>()));
+    }
+
+    private static List<SqlStatsSnapshot> toSnapshots(ConcurrentHashMap<String, TemplateStats> stats) {
+        List<SqlStatsSnapshot> result = new ArrayList<>(stats.size());
+        for (TemplateStats s : stats.values()) {
+            result.add(s.snapshot());
+        }
+        result.sort(Comparator.comparingLong(SqlStatsSnapshot::getTotalNanos).reversed());
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.hsqyz.minip6spy.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定上界的累积直方图，桶边界即 Prometheus 的 le 标签，计数与求和均为 {@link LongAdder}，写入无锁。
+ */
+final class BucketHistogram {
+
+    private final long[] upperBounds;
+    private final LongAdder[] buckets; // 最后一个为 +Inf
+    private final LongAdder sum = new LongAdder();
+
+    BucketHistogram(long[] upperBounds) {
+        this.upperBounds = upperBounds;
+        this.buckets = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long value) {
+        int i = 0;
+        while (i < upperBounds.length && value > upperBounds[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sum.add(value);
+    }
+
+    /**
+     * @return 各桶（非累积）计数的快照，长度为上界数 + 1
+     */
+    long[] counts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+}
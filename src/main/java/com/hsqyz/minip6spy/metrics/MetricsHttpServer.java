@@ -0,0 +1,97 @@
+package com.hsqyz.minip6spy.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于 JDK 自带 {@link HttpServer} 的指标端点，GET /metrics 返回 Prometheus 文本格式，不引入额外依赖。
+ * 响应以分块传输边生成边写出，抓取期间不复制整份指标；处理线程为单个守护线程。
+ */
+public final class MetricsHttpServer implements AutoCloseable {
+
+    /**
+     * Prometheus 文本格式的 Content-Type。
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private MetricsHttpServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * 在本机回环地址上启动端点。
+     *
+     * @param port 端口，0 表示随机端口
+     */
+    public static MetricsHttpServer start(SqlMetricsRegistry registry, int port) throws IOException {
+        return start(registry, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * 在指定地址上启动端点。
+     */
+    public static MetricsHttpServer start(SqlMetricsRegistry registry, InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "mini-p6spy-metrics-http");
+            t.setDaemon(true);
+            return t;
+        });
+        server.createContext("/metrics", exchange -> handle(registry, exchange));
+        server.setExecutor(executor);
+        server.start();
+        return new MetricsHttpServer(server, executor);
+    }
+
+    /**
+     * @return 实际监听的端口
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 停止监听并结束处理线程。
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void handle(SqlMetricsRegistry registry, HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, 0); // 长度未知，使用分块传输
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+                registry.writeTo(writer);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hsqyz.minip6spy.metrics;
+
+import java.io.IOException;
+
+/**
+ * Prometheus 文本格式（0.0.4）的逐行输出辅助，直接写入目标 {@link Appendable}，不拼接整段字符串。
+ */
+final class PrometheusWriter {
+
+    private final Appendable out;
+
+    PrometheusWriter(Appendable out) {
+        this.out = out;
+    }
+
+    void header(String name, String type, String help) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * 输出一行样本，labels 为名值交替的数组。
+     */
+    void sample(String name, String[] labels, long value) throws IOException {
+        name(name, labels);
+        out.append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    void sample(String name, String[] labels, double value) throws IOException {
+        name(name, labels);
+        out.append(' ').append(Double.toString(value)).append('\n');
+    }
+
+    /**
+     * 输出直方图的 _bucket / _sum / _count 行。
+     *
+     * @param leLabels 每个上界的 le 文本
+     * @param counts   {@link BucketHistogram#counts()} 的结果
+     * @param sum      样本和（已换算为导出单位）
+     */
+    void histogram(String name, String[] labels, String[] leLabels, long[] counts, double sum) throws IOException {
+        String[] withLe = new String[labels.length + 2];
+        System.arraycopy(labels, 0, withLe, 0, labels.length);
+        withLe[labels.length] = "le";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            withLe[labels.length + 1] = i < leLabels.length ? leLabels[i] : "+Inf";
+            sample(name + "_bucket", withLe, cumulative);
+        }
+        sample(name + "_sum", labels, sum);
+        sample(name + "_count", labels, cumulative);
+    }
+
+    private void name(String name, String[] labels) throws IOException {
+        out.append(name);
+        if (labels.length == 0) {
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"");
+            escape(labels[i + 1]);
+            out.append('"');
+        }
+        out.append('}');
+    }
+
+    private void escape(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                out.append("\\\\");
+            } else if (c == '"') {
+                out.append("\\\"");
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.hsqyz.minip6spy.metrics;
+
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.sql.NormalizedSql;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 由代理层驱动的 SQL 指标注册表，按 Prometheus 文本格式导出：
+ * - 执行次数与耗时直方图：按语句类型（select / insert / update / delete 等固定集合）与 SQL 模板（指纹）；
+ * - 错误次数：按语句类型与 SQLState 类别（前两位）；
+ * - 执行中语句数（需通过 {@link com.hsqyz.minip6spy.proxy.SpyContext.Builder#metrics} 注册）与批量大小分布。
+ * 记录路径只有 {@link ConcurrentHashMap#get} 与 {@link LongAdder} 累加，没有锁；
+ * 模板数超过上限后新模板统一计入 template="other"，控制标签基数。
+ * {@link #writeTo(Appendable)} 直接遍历当前数据逐行输出，不阻塞写入方（各序列之间不保证同一时刻）。
+ * 指标基于分发后的事件，受采样与过滤影响。
+ */
+public final class SqlMetricsRegistry implements SqlListener {
+
+    /**
+     * 超出模板上限后使用的模板标签。
+     */
+    public static final String OTHER_TEMPLATE = "other";
+    /**
+     * 默认最多跟踪的模板数。
+     */
+    public static final int DEFAULT_MAX_TEMPLATES = 200;
+
+    // 耗时直方图上界（纳秒）与对应的 le 文本（秒）
+    private static final long[] LATENCY_BOUNDS = {
+            500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L};
+    private static final String[] LATENCY_LE = {
+            "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05",
+            "0.1", "0.25", "0.5", "1", "2.5", "5", "10"};
+    private static final long[] BATCH_BOUNDS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 5000};
+    private static final String[] BATCH_LE = {"1", "2", "5", "10", "25", "50", "100", "250", "500", "1000", "5000"};
+    private static final int MAX_ERROR_SERIES = 256;
+    private static final int MAX_SQL_LABEL_LENGTH = 200;
+    private static final double NANOS_PER_SECOND = 1_000_000_000D;
+
+    private final String prefix;
+    private final int maxTemplates;
+    private final Map<String, Series> operations = new ConcurrentHashMap<>();
+    private final Map<Long, TemplateSeries> templates = new ConcurrentHashMap<>();
+    private final TemplateSeries otherTemplate = new TemplateSeries(OTHER_TEMPLATE, "other", "");
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder inFlight = new LongAdder();
+    private final BucketHistogram batchSizes = new BucketHistogram(BATCH_BOUNDS);
+    private final LongAdder templateOverflow = new LongAdder();
+
+    /**
+     * 使用默认前缀 mini_p6spy 与默认模板上限。
+     */
+    public SqlMetricsRegistry() {
+        this("mini_p6spy", DEFAULT_MAX_TEMPLATES);
+    }
+
+    /**
+     * @param prefix       指标名前缀
+     * @param maxTemplates 最多跟踪的模板数
+     */
+    public SqlMetricsRegistry(String prefix, int maxTemplates) {
+        if (maxTemplates < 0) {
+            throw new IllegalArgumentException("maxTemplates must not be negative: " + maxTemplates);
+        }
+        this.prefix = prefix;
+        this.maxTemplates = maxTemplates;
+    }
+
+    /**
+     * 语句开始执行，由代理层调用。
+     */
+    public void executionStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * 语句执行结束（无论是否采样），由代理层调用。
+     */
+    public void executionFinished() {
+        inFlight.decrement();
+    }
+
+    @Override
+    public void onEvent(SqlEvent event) {
+        NormalizedSql normalized = event.getNormalized();
+        String operation = operation(normalized.getVerb());
+        long nanos = event.getElapsedNanos();
+        boolean success = event.isSuccess();
+        series(operation).record(nanos, success);
+        template(normalized, operation).record(nanos, success);
+        if (!success) {
+            errorCounter(operation, sqlStateClass(event.getError())).increment();
+        }
+        SqlMethodEnum method = event.getMethod();
+        if (method == SqlMethodEnum.EXECUTE_BATCH || method == SqlMethodEnum.EXECUTE_LARGE_BATCH) {
+            batchSizes.record(event.getBatchSize());
+        }
+    }
+
+    /**
+     * @return 当前执行中的语句数
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @return 当前跟踪的模板数（不含 other）
+     */
+    public int getTemplateCount() {
+        return templates.size();
+    }
+
+    /**
+     * 以 Prometheus 文本格式输出全部指标。
+     */
+    public void writeTo(Appendable out) throws IOException {
+        PrometheusWriter w = new PrometheusWriter(out);
+        String executions = prefix + "_sql_executions_total";
+        w.header(executions, "counter", "SQL executions by operation and outcome.");
+        for (Map.Entry<String, Series> e : operations.entrySet()) {
+            w.sample(executions, new String[]{"operation", e.getKey(), "outcome", "success"}, e.getValue().successes.sum());
+            w.sample(executions, new String[]{"operation", e.getKey(), "outcome", "error"}, e.getValue().failures.sum());
+        }
+        String duration = prefix + "_sql_duration_seconds";
+        w.header(duration, "histogram", "SQL execution time by operation.");
+        for (Map.Entry<String, Series> e : operations.entrySet()) {
+            Series s = e.getValue();
+            w.histogram(duration, new String[]{"operation", e.getKey()}, LATENCY_LE, s.latency.counts(),
+                    s.latency.sum() / NANOS_PER_SECOND);
+        }
+        String templateDuration = prefix + "_sql_template_duration_seconds";
+        w.header(templateDuration, "histogram", "SQL execution time by normalized template fingerprint.");
+        for (TemplateSeries t : templates.values()) {
+            writeTemplate(w, templateDuration, t);
+        }
+        writeTemplate(w, templateDuration, otherTemplate);
+        String info = prefix + "_sql_template_info";
+        w.header(info, "gauge", "Normalized SQL text of each tracked template.");
+        for (TemplateSeries t : templates.values()) {
+            w.sample(info, new String[]{"template", t.id, "operation", t.operation, "sql", t.sql}, 1L);
+        }
+        String errorName = prefix + "_sql_errors_total";
+        w.header(errorName, "counter", "Failed SQL executions by operation and SQLState class.");
+        for (Map.Entry<String, LongAdder> e : errors.entrySet()) {
+            int sep = e.getKey().indexOf('|');
+            w.sample(errorName, new String[]{"operation", e.getKey().substring(0, sep),
+                    "sqlstate_class", e.getKey().substring(sep + 1)}, e.getValue().sum());
+        }
+        String inFlightName = prefix + "_sql_in_flight";
+        w.header(inFlightName, "gauge", "SQL statements currently executing.");
+        w.sample(inFlightName, new String[0], Math.max(0L, inFlight.sum()));
+        String batch = prefix + "_sql_batch_size";
+        w.header(batch, "histogram", "Rows per executeBatch call.");
+        w.histogram(batch, new String[0], BATCH_LE, batchSizes.counts(), batchSizes.sum());
+        String overflow = prefix + "_sql_template_overflow_total";
+        w.header(overflow, "counter", "Executions recorded under template=\"other\" because the template limit was reached.");
+        w.sample(overflow, new String[0], templateOverflow.sum());
+    }
+
+    /**
+     * @return 全部指标的文本形式，便于调试
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringBuilder 不会抛出
+        }
+        return sb.toString();
+    }
+
+    private static void writeTemplate(PrometheusWriter w, String name, TemplateSeries t) throws IOException {
+        if (t.successes.sum() + t.failures.sum() == 0) {
+            return;
+        }
+        w.histogram(name, new String[]{"template", t.id}, LATENCY_LE, t.latency.counts(), t.latency.sum() / NANOS_PER_SECOND);
+    }
+
+    private Series series(String operation) {
+        Series s = operations.get(operation);
+        return s != null ? s : operations.computeIfAbsent(operation, k -> new Series());
+    }
+
+    private TemplateSeries template(NormalizedSql normalized, String operation) {
+        Long key = normalized.getFingerprint();
+        TemplateSeries t = templates.get(key);
+        if (t != null) {
+            return t;
+        }
+        if (templates.size() >= maxTemplates) {
+            templateOverflow.increment();
+            return otherTemplate;
+        }
+        return templates.computeIfAbsent(key, k -> new TemplateSeries(normalized.getFingerprintHex(), operation,
+                truncate(normalized.getSql())));
+    }
+
+    private LongAdder errorCounter(String operation, String sqlStateClass) {
+        String key = operation + '|' + sqlStateClass;
+        LongAdder counter = errors.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (errors.size() >= MAX_ERROR_SERIES) {
+            key = operation + "|other";
+        }
+        return errors.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    /**
+     * 语句类型归入固定集合，避免任意首单词成为标签值。
+     */
+    private static String operation(String verb) {
+        switch (verb) {
+            case "SELECT":
+            case "WITH":
+                return "select";
+            case "INSERT":
+                return "insert";
+            case "UPDATE":
+                return "update";
+            case "DELETE":
+                return "delete";
+            case "REPLACE":
+                return "replace";
+            case "MERGE":
+                return "merge";
+            case "CALL":
+                return "call";
+            default:
+                return "other";
+        }
+    }
+
+    private static String sqlStateClass(Throwable error) {
+        if (error instanceof SQLException) {
+            String state = ((SQLException) error).getSQLState();
+            if (state != null && state.length() >= 2) {
+                return state.substring(0, 2).toUpperCase(Locale.ROOT);
+            }
+        }
+        return "unknown";
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() <= MAX_SQL_LABEL_LENGTH ? sql : sql.substring(0, MAX_SQL_LABEL_LENGTH) + "...";
+    }
+
+    /**
+     * 一组执行计数与耗时直方图。
+     */
+    private static class Series {
+        final LongAdder successes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final BucketHistogram latency = new BucketHistogram(LATENCY_BOUNDS);
+
+        void record(long nanos, boolean success) {
+            (success ? successes : failures).increment();
+            latency.record(nanos);
+        }
+    }
+
+    private static final class TemplateSeries extends Series {
+        final String id;
+        final String operation;
+        final String sql;
+
+        TemplateSeries(String id, String operation, String sql) {
+            this.id = id;
+            this.operation = operation;
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.hsqyz.minip6spy.nplusone;
+
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 流式 N+1 检测监听器：同一 SQL 模板（按归一化指纹）重复执行超过阈值即报告，不保存事件历史。
+ * - 连接范围：每个连接一张固定容量的 {@link TemplateCounters}，模板在时间窗口内达到阈值时报告一次，
+ *   连接归还（{@link ConnectionEvent.Type#RELEASED}）后丢弃；
+ * - 作用域范围：{@link #openScope(String)} 标记一个工作单元（如一次请求或服务方法），
+ *   关闭时报告作用域内达到阈值的模板及最终次数。
+ * 批量执行不计入。调用栈在达到阈值的那次执行时采集，只有同步分发时才指向业务代码；
+ * 作用域基于 ThreadLocal，同样要求同步分发。
+ */
+public final class NPlusOneDetector implements SqlListener {
+
+    private static final Logger log = LoggerFactory.getLogger("mini-p6spy");
+
+    private final int threshold;
+    private final long windowMillis;
+    private final int slots;
+    private final int maxConnections;
+    private final boolean captureCallSite;
+    private final Consumer<NPlusOneReport> reporter;
+    private final Map<Long, TemplateCounters> connections = new ConcurrentHashMap<>();
+    private final ThreadLocal<Scope> scopes = new ThreadLocal<>();
+
+    private NPlusOneDetector(Builder builder) {
+        this.threshold = builder.threshold;
+        this.windowMillis = builder.windowMillis;
+        this.slots = builder.slots;
+        this.maxConnections = builder.maxConnections;
+        this.captureCallSite = builder.captureCallSite;
+        this.reporter = builder.reporter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 在当前线程上开启一个工作单元作用域，配合 try-with-resources 使用；可嵌套，内层关闭后恢复外层。
+     */
+    public Scope openScope(String name) {
+        Scope scope = new Scope(name, scopes.get());
+        scopes.set(scope);
+        return scope;
+    }
+
+    @Override
+    public void onEvent(SqlEvent event) {
+        if (event.getBatchSize() > 1) {
+            return;
+        }
+        Scope scope = scopes.get();
+        long connectionId = event.getConnectionId();
+        if (scope == null && connectionId == 0) {
+            return;
+        }
+        long fingerprint = event.getFingerprint();
+        String sql = event.getNormalizedSql();
+        long at = event.getStartedAtMillis();
+        if (scope != null) {
+            scope.record(fingerprint, sql, event.getElapsedNanos(), at);
+        }
+        if (connectionId != 0) {
+            TemplateCounters counters = countersOf(connectionId);
+            NPlusOneReport report = null;
+            synchronized (counters) {
+                int slot = counters.record(fingerprint, sql, event.getElapsedNanos(), at, windowMillis);
+                if (counters.count(slot) == threshold) {
+                    report = new NPlusOneReport(NPlusOneReport.Kind.CONNECTION, null, connectionId, sql, fingerprint,
+                            threshold, counters.totalNanos(slot), counters.firstMillis(slot), callSite());
+                }
+            }
+            if (report != null) {
+                report(report);
+            }
+        }
+    }
+
+    @Override
+    public void onConnectionEvent(ConnectionEvent event) {
+        if (event.getType() == ConnectionEvent.Type.RELEASED) {
+            connections.remove(event.getConnectionId());
+        }
+    }
+
+    /**
+     * @return 当前跟踪中的连接数
+     */
+    public int trackedConnections() {
+        return connections.size();
+    }
+
+    private TemplateCounters countersOf(long connectionId) {
+        TemplateCounters counters = connections.get(connectionId);
+        if (counters == null) {
+            if (connections.size() >= maxConnections) {
+                connections.clear(); // 未开启连接跟踪时收不到归还事件，超过上限整体丢弃
+            }
+            counters = connections.computeIfAbsent(connectionId, id -> new TemplateCounters(slots));
+        }
+        return counters;
+    }
+
+    private Throwable callSite() {
+        return captureCallSite ? new Throwable("N+1 call site") : null;
+    }
+
+    private void report(NPlusOneReport report) {
+        try {
+            reporter.accept(report);
+        } catch (RuntimeException ignore) {
+            // 报告失败不影响检测
+        }
+    }
+
+    private static void logReport(NPlusOneReport report) {
+        if (report.getCallSite() != null) {
+            log.warn("[n+1] {}", report, report.getCallSite());
+        } else {
+            log.warn("[n+1] {}", report);
+        }
+    }
+
+    /**
+     * 工作单元作用域，关闭时报告作用域内重复执行达到阈值的模板。
+     */
+    public final class Scope implements AutoCloseable {
+        private final String name;
+        private final Scope parent;
+        private final TemplateCounters counters = new TemplateCounters(slots);
+        private boolean closed;
+
+        private Scope(String name, Scope parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        private void record(long fingerprint, String sql, long elapsedNanos, long at) {
+            int slot = counters.record(fingerprint, sql, elapsedNanos, at, 0L);
+            if (counters.count(slot) == threshold) {
+                counters.callSite(slot, callSite());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (scopes.get() == this) {
+                if (parent == null) {
+                    scopes.remove();
+                } else {
+                    scopes.set(parent);
+                }
+            }
+            for (int slot = 0; slot < counters.size(); slot++) {
+                if (counters.count(slot) >= threshold) {
+                    report(new NPlusOneReport(NPlusOneReport.Kind.SCOPE, name, 0L, counters.sql(slot),
+                            counters.fingerprint(slot), counters.count(slot), counters.totalNanos(slot),
+                            counters.firstMillis(slot), counters.callSite(slot)));
+                }
+            }
+        }
+    }
+
+    public static final class Builder {
+        private int threshold = 10;
+        private long windowMillis = 1000;
+        private int slots = 16;
+        private int maxConnections = 4096;
+        private boolean captureCallSite = true;
+        private Consumer<NPlusOneReport> reporter = NPlusOneDetector::logReport;
+
+        private Builder() {
+        }
+
+        /**
+         * 同一模板重复执行达到该次数即报告（默认 10）。
+         */
+        public Builder threshold(int threshold) {
+            if (threshold < 2) {
+                throw new IllegalArgumentException("threshold must be at least 2: " + threshold);
+            }
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * 连接范围的计数窗口（默认 1 秒），从模板首次出现开始计算。
+         */
+        public Builder window(long window, TimeUnit unit) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("window must be positive: " + window);
+            }
+            this.windowMillis = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * 每个连接 / 作用域跟踪的模板槽位数（默认 16）。
+         */
+        public Builder slots(int slots) {
+            this.slots = Math.max(2, slots);
+            return this;
+        }
+
+        /**
+         * 同时跟踪的连接数上限（默认 4096）。
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = Math.max(1, maxConnections);
+            return this;
+        }
+
+        /**
+         * 达到阈值时是否采集调用栈（默认开启，每次报告一次）。
+         */
+        public Builder captureCallSite(boolean captureCallSite) {
+            this.captureCallSite = captureCallSite;
+            return this;
+        }
+
+        /**
+         * 报告输出，默认以 warn 级别写入 SLF4J 的 mini-p6spy logger。
+         */
+        public Builder reporter(Consumer<NPlusOneReport> reporter) {
+            if (reporter != null) {
+                this.reporter = reporter;
+            }
+            return this;
+        }
+
+        public NPlusOneDetector build() {
+            return new NPlusOneDetector(this);
+        }
+    }
+}
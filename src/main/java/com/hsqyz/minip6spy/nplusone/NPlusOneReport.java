@@ -0,0 +1,116 @@
+package com.hsqyz.minip6spy.nplusone;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次 N+1 检测结果：同一 SQL 模板在一个连接的时间窗口内、或一个作用域内重复执行的次数与总耗时。
+ */
+public final class NPlusOneReport {
+
+    /**
+     * 检测范围。
+     */
+    public enum Kind {
+        /**
+         * 同一连接在时间窗口内重复执行。
+         */
+        CONNECTION,
+        /**
+         * 同一线程在 {@link NPlusOneDetector#openScope(String)} 作用域内重复执行。
+         */
+        SCOPE
+    }
+
+    private final Kind kind;
+    private final String scopeName;
+    private final long connectionId;
+    private final String sql;
+    private final long fingerprint;
+    private final int count;
+    private final long totalNanos;
+    private final long firstAtMillis;
+    private final Throwable callSite;
+
+    NPlusOneReport(Kind kind, String scopeName, long connectionId, String sql, long fingerprint,
+                   int count, long totalNanos, long firstAtMillis, Throwable callSite) {
+        this.kind = kind;
+        this.scopeName = scopeName;
+        this.connectionId = connectionId;
+        this.sql = sql;
+        this.fingerprint = fingerprint;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.firstAtMillis = firstAtMillis;
+        this.callSite = callSite;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return 作用域名称，连接范围的检测为 null
+     */
+    public String getScopeName() {
+        return scopeName;
+    }
+
+    /**
+     * @return 连接序号，作用域范围的检测为 0
+     */
+    public long getConnectionId() {
+        return connectionId;
+    }
+
+    /**
+     * @return 归一化后的 SQL 模板
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return 重复执行次数（连接范围为达到阈值时的次数）
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return 这些执行的总耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return 总耗时（毫秒，向下取整）
+     */
+    public long getTotalMs() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+    }
+
+    /**
+     * @return 第一次执行的时间（Unix 毫秒）
+     */
+    public long getFirstAtMillis() {
+        return firstAtMillis;
+    }
+
+    /**
+     * @return 达到阈值那次执行的调用栈；未开启采集或异步分发时可能为 null 或不在业务线程上
+     */
+    public Throwable getCallSite() {
+        return callSite;
+    }
+
+    @Override
+    public String toString() {
+        return "N+1 " + (kind == Kind.SCOPE ? "scope=" + scopeName : "connection=" + connectionId)
+                + " count=" + count + " total=" + getTotalMs() + "ms sql=" + sql;
+    }
+}
@@ -0,0 +1,100 @@
+package com.hsqyz.minip6spy.nplusone;
+
+/**
+ * 固定容量的模板计数表：按指纹两路组相联寻址，满时淘汰最久未出现的一路，内存不随事件数增长。
+ * 非线程安全，由调用方保证同一时刻只有一个线程访问。
+ */
+final class TemplateCounters {
+
+    private final int mask;
+    private final long[] fingerprints;
+    private final String[] sqls;
+    private final int[] counts;
+    private final long[] totalNanos;
+    private final long[] firstMillis;
+    private final long[] lastMillis;
+    private final Throwable[] callSites;
+
+    /**
+     * @param slots 槽位数，会向上取整为不小于 2 的 2 的幂
+     */
+    TemplateCounters(int slots) {
+        int size = Math.max(2, slots <= 1 ? 2 : Integer.highestOneBit(slots - 1) << 1);
+        this.mask = size - 1;
+        this.fingerprints = new long[size];
+        this.sqls = new String[size];
+        this.counts = new int[size];
+        this.totalNanos = new long[size];
+        this.firstMillis = new long[size];
+        this.lastMillis = new long[size];
+        this.callSites = new Throwable[size];
+    }
+
+    /**
+     * 记录一次执行。
+     *
+     * @param windowMillis 计数窗口，距该模板首次出现超过窗口时重新计数；0 表示不限
+     * @return 记录所在槽位
+     */
+    int record(long fingerprint, String sql, long elapsedNanos, long atMillis, long windowMillis) {
+        int a = (int) (fingerprint ^ fingerprint >>> 32) & mask & ~1;
+        int b = a + 1;
+        int slot;
+        if (counts[a] > 0 && fingerprints[a] == fingerprint) {
+            slot = a;
+        } else if (counts[b] > 0 && fingerprints[b] == fingerprint) {
+            slot = b;
+        } else {
+            slot = counts[a] == 0 || counts[b] > 0 && lastMillis[a] <= lastMillis[b] ? a : b;
+            reset(slot, fingerprint, sql, atMillis);
+        }
+        if (windowMillis > 0 && atMillis - firstMillis[slot] > windowMillis) {
+            reset(slot, fingerprint, sql, atMillis);
+        }
+        counts[slot]++;
+        totalNanos[slot] += elapsedNanos;
+        lastMillis[slot] = atMillis;
+        return slot;
+    }
+
+    private void reset(int slot, long fingerprint, String sql, long atMillis) {
+        fingerprints[slot] = fingerprint;
+        sqls[slot] = sql;
+        counts[slot] = 0;
+        totalNanos[slot] = 0;
+        firstMillis[slot] = atMillis;
+        callSites[slot] = null;
+    }
+
+    int size() {
+        return mask + 1;
+    }
+
+    int count(int slot) {
+        return counts[slot];
+    }
+
+    long fingerprint(int slot) {
+        return fingerprints[slot];
+    }
+
+    String sql(int slot) {
+        return sqls[slot];
+    }
+
+    long totalNanos(int slot) {
+        return totalNanos[slot];
+    }
+
+    long firstMillis(int slot) {
+        return firstMillis[slot];
+    }
+
+    Throwable callSite(int slot) {
+        return callSites[slot];
+    }
+
+    void callSite(int slot, Throwable callSite) {
+        callSites[slot] = callSite;
+    }
+}
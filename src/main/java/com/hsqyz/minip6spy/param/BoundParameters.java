@@ -0,0 +1,291 @@
+package com.hsqyz.minip6spy.param;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * 一次执行（或一个批量行）绑定参数的只读快照，随事件交给监听器。
+ * 参数以类型数组 + long 数组 + 引用数组紧凑保存：大文本在采集时截断，二进制、流与 LOB 只记录长度或类型，
+ * 只有调用 {@link #render(String)} / {@link #toString()} 时才拼接字符串，没人读取时不产生字符串开销。
+ */
+public final class BoundParameters {
+
+    /**
+     * 没有绑定参数时的共享实例。
+     */
+    public static final BoundParameters EMPTY = new BoundParameters(new byte[0], new long[0], new Object[0], 0);
+
+    private final byte[] kinds;
+    private final long[] bits;
+    private final Object[] refs;
+    private final int count;
+
+    BoundParameters(byte[] kinds, long[] bits, Object[] refs, int count) {
+        this.kinds = kinds;
+        this.bits = bits;
+        this.refs = refs;
+        this.count = count;
+    }
+
+    /**
+     * @return 最大参数下标（从 1 开始计数），无参数为 0
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return 是否没有任何绑定参数
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return 是否完整保留了全部参数值：没有未绑定槽位、截断的字符串，也没有只记录长度的二进制、流或 LOB。
+     * 只有完整的参数才能作为结果缓存的键。
+     */
+    public boolean isExact() {
+        for (int i = 0; i < count; i++) {
+            switch (kinds[i]) {
+                case ParameterKind.NULL:
+                case ParameterKind.BOOLEAN:
+                case ParameterKind.LONG:
+                case ParameterKind.DOUBLE:
+                case ParameterKind.OBJECT:
+                case ParameterKind.NUMBER:
+                case ParameterKind.DATE:
+                case ParameterKind.TIME:
+                case ParameterKind.TIMESTAMP:
+                case ParameterKind.UTIL_DATE:
+                    break;
+                case ParameterKind.STRING:
+                    if (((String) refs[i]).length() != bits[i]) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取参数值：数值返回包装对象，字符串返回（可能截断的）文本，日期时间每次返回新副本，
+     * 二进制/流/LOB 返回描述文本，未绑定返回 null。
+     *
+     * @param index 参数下标，从 1 开始
+     */
+    public Object get(int index) {
+        int i = index - 1;
+        if (i < 0 || i >= count) {
+            return null;
+        }
+        switch (kinds[i]) {
+            case ParameterKind.BOOLEAN:
+                return bits[i] != 0;
+            case ParameterKind.LONG:
+                return bits[i];
+            case ParameterKind.DOUBLE:
+                return Double.longBitsToDouble(bits[i]);
+            case ParameterKind.STRING:
+            case ParameterKind.OBJECT:
+            case ParameterKind.NUMBER:
+                return refs[i];
+            case ParameterKind.DATE:
+            case ParameterKind.TIME:
+            case ParameterKind.TIMESTAMP:
+            case ParameterKind.UTIL_DATE:
+                return temporal(i);
+            case ParameterKind.BYTES:
+            case ParameterKind.STREAM:
+            case ParameterKind.MARKER:
+                return literal(i);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 把模板中的 ? 依次替换为参数字面量，跳过引号与注释中的 ?。
+     *
+     * @param template 预编译 SQL
+     * @return 带参数值的 SQL，仅用于排查，不保证可直接执行
+     */
+    public String render(String template) {
+        if (count == 0 || template == null) {
+            return template;
+        }
+        StringBuilder out = new StringBuilder(template.length() + count * 8);
+        int len = template.length();
+        int param = 0;
+        int i = 0;
+        while (i < len) {
+            char c = template.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = template.indexOf(c, i + 1);
+                end = end < 0 ? len : end + 1;
+                out.append(template, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < len && template.charAt(i + 1) == '-') {
+                int end = template.indexOf('\n', i);
+                end = end < 0 ? len : end;
+                out.append(template, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < len && template.charAt(i + 1) == '*') {
+                int end = template.indexOf("*/", i + 2);
+                end = end < 0 ? len : end + 2;
+                out.append(template, i, end);
+                i = end;
+            } else if (c == '?') {
+                out.append(param < count ? literal(param) : "?");
+                param++;
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 生成第 i 个槽位（从 0 开始）的 SQL 字面量。
+     */
+    private String literal(int i) {
+        Object ref = refs[i];
+        switch (kinds[i]) {
+            case ParameterKind.NULL:
+                return "NULL";
+            case ParameterKind.BOOLEAN:
+                return bits[i] != 0 ? "TRUE" : "FALSE";
+            case ParameterKind.LONG:
+                return Long.toString(bits[i]);
+            case ParameterKind.DOUBLE:
+                return Double.toString(Double.longBitsToDouble(bits[i]));
+            case ParameterKind.STRING:
+                String s = (String) ref;
+                String quoted = quote(s);
+                return s.length() < bits[i] ? quoted + "/*" + bits[i] + " chars*/" : quoted;
+            case ParameterKind.NUMBER:
+                return ref instanceof BigDecimal ? ((BigDecimal) ref).toPlainString() : String.valueOf(ref);
+            case ParameterKind.OBJECT:
+                return quote(String.valueOf(ref));
+            case ParameterKind.DATE:
+            case ParameterKind.TIME:
+            case ParameterKind.TIMESTAMP:
+            case ParameterKind.UTIL_DATE:
+                return quote(ref == null ? String.valueOf(temporal(i)) : zoned(i, (String) ref));
+            case ParameterKind.BYTES:
+                return "<bytes:" + bits[i] + ">";
+            case ParameterKind.STREAM:
+                return bits[i] < 0 ? "<stream>" : "<stream:" + bits[i] + ">";
+            case ParameterKind.MARKER:
+                return "<" + ref + ">";
+            default:
+                return "?";
+        }
+    }
+
+    /**
+     * 由快照重建日期时间对象（新实例）。
+     */
+    private java.util.Date temporal(int i) {
+        long v = bits[i];
+        switch (kinds[i]) {
+            case ParameterKind.DATE:
+                return new java.sql.Date(v);
+            case ParameterKind.TIME:
+                return new Time(v);
+            case ParameterKind.TIMESTAMP:
+                Timestamp ts = new Timestamp(Math.floorDiv(v, 1_000_000_000L) * 1000L);
+                ts.setNanos((int) Math.floorMod(v, 1_000_000_000L));
+                return ts;
+            default:
+                return new java.util.Date(v);
+        }
+    }
+
+    /**
+     * 按绑定时 Calendar 的时区格式化，与驱动写入的本地时间一致。
+     */
+    private String zoned(int i, String zone) {
+        long v = bits[i];
+        Instant instant = kinds[i] == ParameterKind.TIMESTAMP
+                ? Instant.ofEpochSecond(Math.floorDiv(v, 1_000_000_000L), Math.floorMod(v, 1_000_000_000L))
+                : Instant.ofEpochMilli(v);
+        LocalDateTime local = LocalDateTime.ofInstant(instant, ZoneId.of(zone));
+        switch (kinds[i]) {
+            case ParameterKind.DATE:
+                return local.toLocalDate().toString();
+            case ParameterKind.TIME:
+                return Time.valueOf(local.toLocalTime()).toString();
+            default:
+                return Timestamp.valueOf(local).toString();
+        }
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('\'');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\'') {
+                sb.append('\'');
+            }
+            sb.append(c);
+        }
+        return sb.append('\'').toString();
+    }
+
+    /**
+     * 按槽位类型与取值比较（二进制、流只比较长度，缓存前应先判断 {@link #isExact()}）。
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoundParameters)) {
+            return false;
+        }
+        BoundParameters other = (BoundParameters) o;
+        if (count != other.count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (kinds[i] != other.kinds[i] || bits[i] != other.bits[i] || !Objects.equals(refs[i], other.refs[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = count;
+        for (int i = 0; i < count; i++) {
+            h = 31 * h + kinds[i];
+            h = 31 * h + Long.hashCode(bits[i]);
+            h = 31 * h + Objects.hashCode(refs[i]);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(kinds[i] == ParameterKind.UNSET ? "?" : literal(i));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.hsqyz.minip6spy.param;
+
+/**
+ * 参数槽位的类型标记，存放在 byte 数组中，避免为每个参数创建包装对象。
+ */
+final class ParameterKind {
+    static final byte UNSET = 0;      // 未绑定
+    static final byte NULL = 1;       // setNull / null 值
+    static final byte BOOLEAN = 2;    // bits 为 0/1
+    static final byte LONG = 3;       // byte/short/int/long，bits 为数值
+    static final byte DOUBLE = 4;     // float/double，bits 为 Double.doubleToRawLongBits
+    static final byte STRING = 5;     // ref 为（可能截断的）字符串，bits 为原始长度
+    static final byte OBJECT = 6;     // ref 为其它不可变值（java.time、枚举、UUID 等），渲染时加引号
+    static final byte NUMBER = 7;     // ref 为 Number，渲染时不加引号
+    static final byte BYTES = 8;      // bits 为字节数，不保留内容
+    static final byte STREAM = 9;     // bits 为长度（未知为 -1），不保留内容
+    static final byte MARKER = 10;    // ref 为类型名（Blob/Clob/Array 等），不保留内容
+    // 可变的 java.util.Date 系列在绑定时按值快照；ref 为 Calendar 的时区 ID，未指定为 null
+    static final byte DATE = 11;      // java.sql.Date，bits 为 getTime() 毫秒
+    static final byte TIME = 12;      // java.sql.Time，bits 为 getTime() 毫秒
+    static final byte TIMESTAMP = 13; // java.sql.Timestamp，bits 为纪元纳秒（秒 * 1e9 + getNanos()）
+    static final byte UTIL_DATE = 14; // 其它 java.util.Date，bits 为 getTime() 毫秒
+
+    private ParameterKind() {
+    }
+}
@@ -0,0 +1,229 @@
+package com.hsqyz.minip6spy.param;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单个 PreparedStatement 复用的参数记录器，非线程安全（与 JDBC 语句一致）。
+ * - 参数写入预分配的类型数组，setInt 等只做数组赋值，不装箱、不拼字符串；
+ * - 超过 maxValueLength 的字符串在写入时截断，二进制、流与 LOB 只记录长度或类型；
+ * - 可变的 java.util.Date / java.sql.Timestamp 等在绑定时按值快照，之后修改原对象不影响已记录的参数；
+ * - {@link #snapshot()} 在交给事件时复制一份（copy-on-handoff），记录器继续复用；
+ * - addBatch 时按行保存快照，最多保留 maxBatchRows 行，executeBatch / clearBatch 后清空。
+ */
+public final class ParameterRecorder {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int maxValueLength;
+    private final int maxBatchRows;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private long[] bits = new long[INITIAL_CAPACITY];
+    private Object[] refs = new Object[INITIAL_CAPACITY];
+    private int count;                     // 已绑定的最大下标
+    private List<BoundParameters> batchRows; // addBatch 时保存的行，懒创建；超出上限的行只体现在事件的批量大小里
+
+    /**
+     * @param maxValueLength 字符串保留的最大字符数
+     * @param maxBatchRows   批量执行最多保存的行数
+     */
+    public ParameterRecorder(int maxValueLength, int maxBatchRows) {
+        this.maxValueLength = maxValueLength;
+        this.maxBatchRows = maxBatchRows;
+    }
+
+    public void setNull(int index) {
+        put(index, ParameterKind.NULL, 0L, null);
+    }
+
+    public void setBoolean(int index, boolean value) {
+        put(index, ParameterKind.BOOLEAN, value ? 1L : 0L, null);
+    }
+
+    public void setLong(int index, long value) {
+        put(index, ParameterKind.LONG, value, null);
+    }
+
+    public void setDouble(int index, double value) {
+        put(index, ParameterKind.DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public void setString(int index, String value) {
+        if (value == null) {
+            setNull(index);
+        } else if (value.length() > maxValueLength) {
+            put(index, ParameterKind.STRING, value.length(), value.substring(0, maxValueLength));
+        } else {
+            put(index, ParameterKind.STRING, value.length(), value);
+        }
+    }
+
+    public void setBytes(int index, byte[] value) {
+        if (value == null) {
+            setNull(index);
+        } else {
+            put(index, ParameterKind.BYTES, value.length, null);
+        }
+    }
+
+    /**
+     * 记录流参数，只保留长度。
+     *
+     * @param length 声明的长度，未知为 -1
+     */
+    public void setStream(int index, long length) {
+        put(index, ParameterKind.STREAM, length, null);
+    }
+
+    /**
+     * 记录 LOB / Array / SQLXML 等大对象，只保留类型名。
+     */
+    public void setMarker(int index, String type) {
+        put(index, ParameterKind.MARKER, 0L, type);
+    }
+
+    /**
+     * 记录 setDate / setTime / setTimestamp 及 java.util.Date 参数：按值保存时间点，不持有可变的原对象。
+     *
+     * @param calendar 带 Calendar 的重载传入，渲染时按其时区显示；未指定为 null
+     */
+    public void setTemporal(int index, java.util.Date value, Calendar calendar) {
+        if (value == null) {
+            setNull(index);
+            return;
+        }
+        String zone = calendar == null ? null : calendar.getTimeZone().getID();
+        if (value instanceof Timestamp) {
+            Timestamp ts = (Timestamp) value;
+            put(index, ParameterKind.TIMESTAMP, Math.floorDiv(ts.getTime(), 1000L) * 1_000_000_000L + ts.getNanos(), zone);
+        } else if (value instanceof java.sql.Date) {
+            put(index, ParameterKind.DATE, value.getTime(), zone);
+        } else if (value instanceof Time) {
+            put(index, ParameterKind.TIME, value.getTime(), zone);
+        } else {
+            put(index, ParameterKind.UTIL_DATE, value.getTime(), zone);
+        }
+    }
+
+    /**
+     * 记录 setObject 及日期时间、BigDecimal 等参数，按运行时类型归类。
+     */
+    public void setObject(int index, Object value) {
+        if (value == null) {
+            setNull(index);
+        } else if (value instanceof String) {
+            setString(index, (String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            setLong(index, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            setDouble(index, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            setBoolean(index, (Boolean) value);
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            put(index, ParameterKind.NUMBER, 0L, value);
+        } else if (value instanceof byte[]) {
+            setBytes(index, (byte[]) value);
+        } else if (value instanceof InputStream || value instanceof Reader) {
+            setStream(index, -1);
+        } else if (value instanceof Blob || value instanceof Clob || value instanceof Array
+                || value instanceof SQLXML || value instanceof Ref || value instanceof RowId) {
+            setMarker(index, value.getClass().getSimpleName());
+        } else if (value instanceof java.util.Date) {
+            setTemporal(index, (java.util.Date) value, null);
+        } else if (value instanceof java.time.temporal.Temporal
+                || value instanceof Enum || value instanceof java.util.UUID || value instanceof java.net.URL) {
+            put(index, ParameterKind.OBJECT, 0L, value); // 不可变或按值语义的常见类型，渲染时再转字符串
+        } else {
+            setString(index, String.valueOf(value)); // 未知类型立即转字符串，避免持有可变对象
+        }
+    }
+
+    private void put(int index, byte kind, long value, Object ref) {
+        int i = index - 1;
+        if (i < 0) {
+            return; // 非法下标交给驱动报错
+        }
+        if (i >= kinds.length) {
+            grow(i + 1);
+        }
+        kinds[i] = kind;
+        bits[i] = value;
+        refs[i] = ref;
+        if (index > count) {
+            count = index;
+        }
+    }
+
+    private void grow(int min) {
+        int capacity = Math.max(min, kinds.length << 1);
+        kinds = Arrays.copyOf(kinds, capacity);
+        bits = Arrays.copyOf(bits, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+    }
+
+    /**
+     * clearParameters：清空当前绑定，保留数组复用。
+     */
+    public void clear() {
+        Arrays.fill(kinds, 0, count, ParameterKind.UNSET);
+        Arrays.fill(refs, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * @return 当前绑定的只读副本
+     */
+    public BoundParameters snapshot() {
+        if (count == 0) {
+            return BoundParameters.EMPTY;
+        }
+        return new BoundParameters(Arrays.copyOf(kinds, count), Arrays.copyOf(bits, count),
+                Arrays.copyOf(refs, count), count);
+    }
+
+    /**
+     * addBatch：保存当前行，超过上限的行不再保存。
+     */
+    public void addBatch() {
+        if (batchRows == null) {
+            batchRows = new ArrayList<>();
+        }
+        if (batchRows.size() < maxBatchRows) {
+            batchRows.add(snapshot());
+        }
+    }
+
+    /**
+     * 取出已保存的批量行并清空，供 executeBatch 生成事件。
+     */
+    public List<BoundParameters> drainBatch() {
+        if (batchRows == null || batchRows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<BoundParameters> rows = Collections.unmodifiableList(batchRows);
+        batchRows = null;
+        return rows;
+    }
+
+    /**
+     * executeBatch 未生成事件或 clearBatch 时丢弃批量行。
+     */
+    public void clearBatch() {
+        batchRows = null;
+    }
+}
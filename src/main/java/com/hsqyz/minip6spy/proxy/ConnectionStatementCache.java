@@ -0,0 +1,120 @@
+package com.hsqyz.minip6spy.proxy;
+
+import com.hsqyz.minip6spy.stmtcache.StatementCache;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 单个连接的空闲语句表：语句被取出时移出，逻辑关闭时放回末尾，超出上限时物理关闭最久未归还的语句。
+ * 仅持有连接的线程访问，不加锁。
+ */
+final class ConnectionStatementCache {
+
+    private final StatementCache cache;
+    private final LinkedHashMap<Key, SpyPreparedStatement> idle = new LinkedHashMap<>();
+    private boolean closed;
+
+    ConnectionStatementCache(StatementCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return 可复用的语句；没有或底层语句已被关闭（如 closeOnCompletion）时返回 null
+     */
+    SpyPreparedStatement take(Key key) {
+        SpyPreparedStatement statement = idle.remove(key);
+        if (statement != null && statement.isDelegateClosed()) {
+            statement = null;
+        }
+        if (statement == null) {
+            cache.miss();
+            return null;
+        }
+        cache.hit();
+        statement.reopen();
+        return statement;
+    }
+
+    /**
+     * 逻辑关闭的语句放回；连接已关闭时直接物理关闭。
+     */
+    void give(SpyPreparedStatement statement) {
+        if (closed) {
+            closeQuietly(statement);
+            return;
+        }
+        SpyPreparedStatement previous = idle.put(statement.cacheKey(), statement);
+        if (previous != null) {
+            evict(previous); // 同键语句同时借出后先后归还，只保留最近的一个
+        }
+        Iterator<SpyPreparedStatement> it = idle.values().iterator();
+        while (idle.size() > cache.getOptions().getMaxStatements() && it.hasNext()) {
+            SpyPreparedStatement eldest = it.next();
+            it.remove();
+            evict(eldest);
+        }
+    }
+
+    /**
+     * 连接关闭时物理关闭全部空闲语句，之后归还的语句也直接关闭。
+     */
+    void close() {
+        closed = true;
+        for (SpyPreparedStatement statement : idle.values()) {
+            closeQuietly(statement);
+        }
+        idle.clear();
+    }
+
+    private void evict(SpyPreparedStatement statement) {
+        cache.evicted();
+        closeQuietly(statement);
+    }
+
+    private static void closeQuietly(SpyPreparedStatement statement) {
+        try {
+            statement.closePhysically();
+        } catch (SQLException ignored) {
+            // 语句已不可用，交给连接关闭时回收
+        }
+    }
+
+    /**
+     * 缓存键：SQL、结果集类型、并发模式与可保持性（0 表示使用连接默认值）。
+     */
+    static final class Key {
+        private final String sql;
+        private final int type;
+        private final int concurrency;
+        private final int holdability;
+        private final int hash;
+
+        Key(String sql, int type, int concurrency, int holdability) {
+            this.sql = sql;
+            this.type = type;
+            this.concurrency = concurrency;
+            this.holdability = holdability;
+            this.hash = ((sql.hashCode() * 31 + type) * 31 + concurrency) * 31 + holdability;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && type == other.type && concurrency == other.concurrency
+                    && holdability == other.holdability && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
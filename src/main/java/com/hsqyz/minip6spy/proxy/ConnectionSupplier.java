@@ -0,0 +1,16 @@
+package com.hsqyz.minip6spy.proxy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 获取底层连接的回调，例如 {@code dataSource::getConnection}。
+ */
+@FunctionalInterface
+public interface ConnectionSupplier {
+
+    /**
+     * @return 底层连接；驱动不接受 URL 时可返回 null
+     */
+    Connection get() throws SQLException;
+}
@@ -0,0 +1,854 @@
+package com.hsqyz.minip6spy.proxy;
+
+import com.hsqyz.minip6spy.cache.ResultCache;
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.jfr.JfrRecorder;
+import com.hsqyz.minip6spy.leak.HashedWheelTimer;
+import com.hsqyz.minip6spy.leak.LeakDetector;
+import com.hsqyz.minip6spy.sql.NormalizedSql;
+import com.hsqyz.minip6spy.stmtcache.StatementCache;
+import com.hsqyz.minip6spy.writebehind.WriteBehind;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Connection 代理：直接实现 {@link Connection} 接口并委托给真实连接。
+ * 仅在 createStatement / prepareStatement / prepareCall 时介入，返回对应的 Spy 语句对象；
+ * 其余方法均为直接调用，JIT 可以内联，非拦截方法几乎零额外开销。
+ * 开启连接跟踪时在构造（借出）与 close()（归还）时各发送一个 {@link ConnectionEvent}；
+ * 开启泄漏检测时借出即在时间轮上登记超时，归还时取消。
+ * 开启事务跟踪时以 setAutoCommit(false) 或非自动提交下的第一条语句作为事务开始，
+ * 在 commit / rollback / setAutoCommit(true) / close() 时发送 {@link TransactionEvent}；
+ * 事务内只累加几个计数字段，不保存语句历史。
+ */
+public class SpyConnection implements Connection {
+
+    private final Connection delegate;
+    private final SpyContext context;
+    private final long id;                      // 连接序号
+    private final long acquiredAtNanos;         // 借出时刻
+    private final Throwable acquireStack;       // 借出调用栈，仅泄漏检测采样命中时存在
+    private final HashedWheelTimer.Timeout leakTimeout;
+    private volatile long statementCount;       // 借出期间执行的语句数，仅持有线程写入
+    private final boolean observed;             // 借出时采集是否开启，关闭期间借出的连接不跟踪生命周期
+    private final ConnectionStatementCache statements; // 空闲的预编译语句，未开启语句缓存时为 null
+    private boolean released;
+
+    // 事务跟踪状态，仅持有连接的线程读写
+    private final boolean trackTransactions;
+    private int autoCommitState = AUTO_COMMIT_UNKNOWN;
+    private boolean inTransaction;
+    private long txStartNanos;
+    private long txStartMillis;
+    private int txStatements;
+    private long txStatementNanos;
+    private int txSavepointRollbacks;
+
+    // 结果缓存：非自动提交时写入的表，提交或回滚时再失效一次，避免其它连接在提交前缓存旧数据
+    private Set<String> pendingTables;
+    private boolean pendingAllTables; // 有解析不出表名的写入
+    private String cacheScope;        // 结果缓存键中的 catalog / schema，首次查缓存时读取，切换库时清除
+
+    // 结果集跟踪：当前结果集尚未结束统计的语句，连接关闭时补发它们的结果集事件；首次打开结果集时创建
+    private Set<SpyStatement> openResults;
+
+    // 写缓冲：当前缓冲的语句、它写入的表与缓冲行数，同一连接同时只缓冲一个语句
+    private SpyPreparedStatement writeBehindStatement;
+    private List<String> writeBehindTables;
+    private int writeBehindRows;
+
+    private static final int AUTO_COMMIT_UNKNOWN = -1;
+    private static final int AUTO_COMMIT_OFF = 0;
+    private static final int AUTO_COMMIT_ON = 1;
+
+    public SpyConnection(Connection delegate, SpyContext context) {
+        this(delegate, context, 0L);
+    }
+
+    /**
+     * @param acquireNanos 从底层数据源 / 驱动获取该连接的耗时（纳秒），未知时传 0
+     */
+    public SpyConnection(Connection delegate, SpyContext context, long acquireNanos) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate Connection");
+        this.context = Objects.requireNonNull(context, "context");
+        this.id = context.nextConnectionId();
+        this.acquiredAtNanos = System.nanoTime();
+        this.trackTransactions = context.isTrackTransactions();
+        this.observed = context.isEnabled();
+        StatementCache statementCache = context.getStatementCache();
+        this.statements = statementCache == null ? null : new ConnectionStatementCache(statementCache);
+        LeakDetector detector = context.getLeakDetector();
+        if (detector != null && observed) {
+            this.acquireStack = detector.sampleStack();
+            this.leakTimeout = detector.watch(this::reportLeak);
+        } else {
+            this.acquireStack = null;
+            this.leakTimeout = null;
+        }
+        if (observed && context.isTrackConnections()) {
+            context.notifyConnection(ConnectionEvent.builder(ConnectionEvent.Type.ACQUIRED, id)
+                    .acquireNanos(acquireNanos)
+                    .timestampMillis(context.getClock().currentTimeMillis())
+                    .build());
+        }
+    }
+
+    /**
+     * 获取底层连接并包装：统计获取耗时，开启 JFR 时记录获取连接事件。
+     *
+     * @return 代理连接；supplier 返回 null 时返回 null
+     */
+    public static SpyConnection open(SpyContext context, ConnectionSupplier supplier) throws SQLException {
+        JfrRecorder jfr = context.isEnabled() ? context.getFlightRecorder() : null;
+        Object handle = jfr == null ? null : jfr.beginAcquire();
+        SpyConnection connection = null;
+        try {
+            long start = System.nanoTime();
+            Connection raw = supplier.get();
+            if (raw != null) {
+                connection = new SpyConnection(raw, context, System.nanoTime() - start);
+            }
+            return connection;
+        } finally {
+            if (handle != null) {
+                jfr.endAcquire(handle, connection == null ? 0L : connection.id, connection != null);
+            }
+        }
+    }
+
+    /**
+     * @return 当前连接共享的代理上下文（监听器等）
+     */
+    SpyContext context() {
+        return context;
+    }
+
+    /**
+     * @return 进程内唯一的连接序号（同一上下文内递增）
+     */
+    public long getConnectionId() {
+        return id;
+    }
+
+    /**
+     * 语句执行后计数并累加到当前事务，由持有连接的线程调用。
+     *
+     * @param startNanos   语句开始时刻
+     * @param elapsedNanos 语句耗时
+     */
+    void statementExecuted(long startNanos, long elapsedNanos) {
+        statementCount++; // 单写者，volatile 只为让泄漏检测线程读到较新的值
+        if (!trackTransactions) {
+            return;
+        }
+        if (!inTransaction) {
+            if (isAutoCommitCached()) {
+                return;
+            }
+            beginTransaction(startNanos);
+        }
+        txStatements++;
+        txStatementNanos += elapsedNanos;
+    }
+
+    /**
+     * 写语句执行后使结果缓存失效；非自动提交时记下表名，事务结束时再失效一次。
+     */
+    void writeExecuted(ResultCache cache, String sql, NormalizedSql normalized) {
+        List<String> tables = cache.invalidate(sql, normalized);
+        if (tables == null && sql != null && isUse(sql)) {
+            cacheScope = null; // USE db 切换了当前库
+        }
+        if (tables == null || isAutoCommitCached()) {
+            return;
+        }
+        if (tables.isEmpty()) {
+            pendingAllTables = true;
+        } else {
+            if (pendingTables == null) {
+                pendingTables = new HashSet<>();
+            }
+            pendingTables.addAll(tables);
+        }
+    }
+
+    /**
+     * @return 结果缓存键使用的连接范围：当前 catalog 与 schema，按连接缓存，setCatalog / setSchema / USE 后重新读取
+     */
+    String cacheScope() throws SQLException {
+        String scope = cacheScope;
+        if (scope == null) {
+            String schema;
+            try {
+                schema = delegate.getSchema();
+            } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+                schema = null; // JDBC 4.1 之前的驱动
+            }
+            scope = delegate.getCatalog() + '/' + schema;
+            cacheScope = scope;
+        }
+        return scope;
+    }
+
+    private static boolean isUse(String sql) {
+        int i = 0;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return sql.regionMatches(true, i, "USE", 0, 3)
+                && (i + 3 == sql.length() || Character.isWhitespace(sql.charAt(i + 3)));
+    }
+
+    /**
+     * 事务结束（提交、回滚、切回自动提交或归还）时处理事务内记下的失效。
+     */
+    private void flushInvalidations() {
+        ResultCache cache = context.getResultCache();
+        if (cache == null || pendingTables == null && !pendingAllTables) {
+            return;
+        }
+        if (pendingAllTables) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateTables(pendingTables);
+        }
+        pendingTables = null;
+        pendingAllTables = false;
+    }
+
+    /**
+     * 预编译语句 executeUpdate 时尝试加入写缓冲：未开启、采集关闭、自动提交、语句不允许缓冲、
+     * 语句上有调用方自己未执行的批量或不是可解析的写语句时不缓冲。
+     *
+     * @return 已加入批量、未执行时返回 true
+     */
+    boolean deferUpdate(SpyPreparedStatement statement) throws SQLException {
+        WriteBehind writeBehind = context.getWriteBehind();
+        if (writeBehind == null || !statement.isWriteBehindAllowed() || !context.isEnabled() || isAutoCommitCached()) {
+            return false;
+        }
+        if (statement != writeBehindStatement) {
+            if (statement.batchCount > 0) {
+                return false;
+            }
+            List<String> tables = writeBehind.tablesFor(statement.boundNormalized());
+            if (tables == null) {
+                return false;
+            }
+            flushWrites(WriteBehind.FlushReason.STATEMENT);
+            statement.appendBatch();
+            writeBehindStatement = statement;
+            writeBehindTables = tables;
+        } else {
+            statement.appendBatch();
+        }
+        writeBehindRows++;
+        writeBehind.rowDeferred();
+        if (writeBehindRows >= writeBehind.getOptions().getMaxBatchSize()) {
+            flushWrites(WriteBehind.FlushReason.SIZE);
+        }
+        return true;
+    }
+
+    /**
+     * 语句执行前调用：缓冲语句自身的其它执行、无关表的查询以外的语句都先写出缓冲。
+     *
+     * @param sql execute*(sql) 的 SQL 参数，预编译语句与批量为 null
+     */
+    void flushWritesBefore(SpyStatement statement, String sql) throws SQLException {
+        if (writeBehindStatement == null) {
+            return;
+        }
+        if (statement == writeBehindStatement) {
+            flushWrites(WriteBehind.FlushReason.STATEMENT);
+            return;
+        }
+        WriteBehind.FlushReason reason = context.getWriteBehind()
+                .flushReasonBefore(statement.resolveSql(sql), writeBehindTables);
+        if (reason != null) {
+            flushWrites(reason);
+        }
+    }
+
+    /**
+     * 缓冲语句关闭、清空批量或读取自增键前写出缓冲。
+     */
+    void flushIfDeferred(SpyStatement statement) throws SQLException {
+        if (statement == writeBehindStatement) {
+            flushWrites(WriteBehind.FlushReason.STATEMENT);
+        }
+    }
+
+    /**
+     * 以一次 executeBatch 写出缓冲；先清空状态，批量执行经过语句代理正常产生事件。
+     * executeBatch 返回后才计入写出统计，失败的行单独计数。
+     */
+    private void flushWrites(WriteBehind.FlushReason reason) throws SQLException {
+        SpyPreparedStatement statement = writeBehindStatement;
+        if (statement == null) {
+            return;
+        }
+        int rows = writeBehindRows;
+        clearWriteBehind();
+        try {
+            statement.executeBatch();
+        } catch (SQLException | RuntimeException e) {
+            context.getWriteBehind().flushFailed(rows);
+            throw e;
+        }
+        context.getWriteBehind().flushed(rows, reason);
+    }
+
+    /**
+     * 回滚时丢弃缓冲的行。
+     */
+    private void discardWrites() {
+        SpyPreparedStatement statement = writeBehindStatement;
+        if (statement == null) {
+            return;
+        }
+        int rows = writeBehindRows;
+        clearWriteBehind();
+        context.getWriteBehind().discarded(rows);
+        try {
+            statement.clearBatch();
+        } catch (SQLException ignored) {
+            // 语句已不可用时批量随之失效
+        }
+    }
+
+    private void clearWriteBehind() {
+        writeBehindStatement = null;
+        writeBehindTables = null;
+        writeBehindRows = 0;
+    }
+
+    /**
+     * 经语句缓存 prepareStatement：命中时复用归还的语句，否则按参数调用对应的底层重载。
+     *
+     * @param holdability 0 表示调用方未指定
+     */
+    private PreparedStatement prepareCached(String sql, int type, int concurrency, int holdability) throws SQLException {
+        ConnectionStatementCache.Key key = new ConnectionStatementCache.Key(sql, type, concurrency, holdability);
+        SpyPreparedStatement cached = statements.take(key);
+        if (cached != null) {
+            return cached;
+        }
+        PreparedStatement raw;
+        if (holdability != 0) {
+            raw = delegate.prepareStatement(sql, type, concurrency, holdability);
+        } else if (type != ResultSet.TYPE_FORWARD_ONLY || concurrency != ResultSet.CONCUR_READ_ONLY) {
+            raw = delegate.prepareStatement(sql, type, concurrency);
+        } else {
+            raw = delegate.prepareStatement(sql);
+        }
+        return new SpyPreparedStatement(this, raw, sql, true, key);
+    }
+
+    /**
+     * 语句缓存创建的语句逻辑关闭后放回。
+     */
+    void returnStatement(SpyPreparedStatement statement) {
+        statements.give(statement);
+    }
+
+    /**
+     * 读取缓存的自动提交状态，首次才询问底层连接；结果缓存只在自动提交时使用。
+     */
+    boolean isAutoCommitCached() {
+        if (autoCommitState == AUTO_COMMIT_UNKNOWN) {
+            try {
+                autoCommitState = delegate.getAutoCommit() ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+            } catch (SQLException e) {
+                return true; // 无法判断时不跟踪事务
+            }
+        }
+        return autoCommitState == AUTO_COMMIT_ON;
+    }
+
+    private void beginTransaction(long startNanos) {
+        inTransaction = true;
+        txStartNanos = startNanos;
+        txStartMillis = context.getClock().currentTimeMillis();
+        txStatements = 0;
+        txStatementNanos = 0;
+        txSavepointRollbacks = 0;
+    }
+
+    /**
+     * commit / rollback：没有进行中的事务（如连接池归还前的例行回滚）时不发送事务事件，
+     * 开启 JFR 时无论是否跟踪事务都记录调用耗时。
+     */
+    private void finishTransaction(TransactionEvent.Outcome outcome) throws SQLException {
+        boolean tracked = inTransaction;
+        JfrRecorder jfr = context.isEnabled() ? context.getFlightRecorder() : null;
+        Object handle = jfr == null ? null : jfr.beginTransactionEnd();
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            if (outcome == TransactionEvent.Outcome.COMMIT) {
+                flushWrites(WriteBehind.FlushReason.COMMIT); // 写出失败时不提交，异常从 commit 抛出
+                delegate.commit();
+            } else {
+                discardWrites();
+                delegate.rollback();
+            }
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            if (handle != null) {
+                jfr.endTransactionEnd(handle, outcome.name(), id, error == null);
+            }
+            if (tracked) {
+                endTransaction(outcome, start, error);
+            }
+            flushInvalidations();
+        }
+    }
+
+    /**
+     * 结束当前事务并发送事件。
+     *
+     * @param endStartNanos 结束调用开始的时刻
+     */
+    private void endTransaction(TransactionEvent.Outcome outcome, long endStartNanos, Throwable error) {
+        long now = System.nanoTime();
+        inTransaction = false;
+        context.notifyTransaction(TransactionEvent.builder(id, outcome)
+                .startedAtMillis(txStartMillis)
+                .durationNanos(now - txStartNanos)
+                .endNanos(now - endStartNanos)
+                .statementCount(txStatements)
+                .statementNanos(txStatementNanos)
+                .savepointRollbacks(txSavepointRollbacks)
+                .error(error)
+                .build());
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        return new SpyStatement(this, delegate.createStatement(), null);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        if (statements != null) {
+            return prepareCached(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 0);
+        }
+        return new SpyPreparedStatement(this, delegate.prepareStatement(sql), sql, true, null);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        return new SpyCallableStatement(this, delegate.prepareCall(sql), sql);
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        return delegate.nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        if (autoCommit) {
+            flushWrites(WriteBehind.FlushReason.COMMIT); // 切回自动提交会提交当前事务
+        }
+        if (!trackTransactions) {
+            delegate.setAutoCommit(autoCommit);
+            autoCommitState = autoCommit ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+            if (autoCommit) {
+                flushInvalidations();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        if (autoCommit && inTransaction) {
+            Throwable error = null;
+            try {
+                delegate.setAutoCommit(true);
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                endTransaction(TransactionEvent.Outcome.IMPLICIT_COMMIT, start, error);
+                autoCommitState = error == null ? AUTO_COMMIT_ON : AUTO_COMMIT_UNKNOWN;
+                flushInvalidations();
+            }
+            return;
+        }
+        delegate.setAutoCommit(autoCommit);
+        if (!autoCommit && autoCommitState != AUTO_COMMIT_OFF && !inTransaction) {
+            beginTransaction(start);
+        }
+        autoCommitState = autoCommit ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+        if (autoCommit) {
+            flushInvalidations();
+        }
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        return delegate.getAutoCommit();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        finishTransaction(TransactionEvent.Outcome.COMMIT);
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        finishTransaction(TransactionEvent.Outcome.ROLLBACK);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flushWrites(WriteBehind.FlushReason.CLOSE); // 未提交事务的去留交给驱动，与未缓冲时一致
+        } finally {
+            if (inTransaction) {
+                endTransaction(TransactionEvent.Outcome.ABANDONED, System.nanoTime(), null);
+            }
+            if (statements != null) {
+                statements.close();
+            }
+            try {
+                delegate.close();
+            } finally {
+                finishResultSets();
+                flushInvalidations();
+                release();
+            }
+        }
+    }
+
+    /**
+     * 语句包装了结果集时调用，见 {@link #finishResultSets()}。
+     */
+    void resultSetOpened(SpyStatement statement) {
+        if (openResults == null) {
+            openResults = new HashSet<>();
+        }
+        openResults.add(statement);
+    }
+
+    /**
+     * 语句的当前结果集结束统计时调用。
+     */
+    void resultSetFinished(SpyStatement statement) {
+        if (openResults != null) {
+            openResults.remove(statement);
+        }
+    }
+
+    /**
+     * 关闭连接时驱动隐式关闭其上所有结果集：结束调用方未关闭的结果集的统计，使结果集事件不丢失。
+     */
+    private void finishResultSets() {
+        Set<SpyStatement> open = openResults;
+        if (open == null || open.isEmpty()) {
+            return;
+        }
+        openResults = null;
+        for (SpyStatement statement : open) {
+            statement.finishResultSet();
+        }
+    }
+
+    /**
+     * 归还：取消泄漏检测并发送一次 RELEASED 事件，重复 close() 不再发送。
+     */
+    private void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        if (leakTimeout != null) {
+            leakTimeout.cancel();
+        }
+        if (observed && context.isTrackConnections()) {
+            context.notifyConnection(ConnectionEvent.builder(ConnectionEvent.Type.RELEASED, id)
+                    .holdNanos(System.nanoTime() - acquiredAtNanos)
+                    .statementCount(statementCount)
+                    .timestampMillis(context.getClock().currentTimeMillis())
+                    .build());
+        }
+    }
+
+    /**
+     * 泄漏检测线程回调：持有超过阈值仍未归还。
+     */
+    private void reportLeak() {
+        context.notifyConnection(ConnectionEvent.builder(ConnectionEvent.Type.LEAK_SUSPECTED, id)
+                .holdNanos(System.nanoTime() - acquiredAtNanos)
+                .statementCount(statementCount)
+                .timestampMillis(context.getClock().currentTimeMillis())
+                .acquireStack(acquireStack)
+                .build());
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        delegate.setReadOnly(readOnly);
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        return delegate.isReadOnly();
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        delegate.setCatalog(catalog);
+        cacheScope = null;
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        delegate.setTransactionIsolation(level);
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        return delegate.getTransactionIsolation();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new SpyStatement(this, delegate.createStatement(resultSetType, resultSetConcurrency), null);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        if (statements != null) {
+            return prepareCached(sql, resultSetType, resultSetConcurrency, 0);
+        }
+        return new SpyPreparedStatement(this, delegate.prepareStatement(sql, resultSetType, resultSetConcurrency), sql, true, null);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        return new SpyCallableStatement(this, delegate.prepareCall(sql, resultSetType, resultSetConcurrency), sql);
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        return delegate.getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        delegate.setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        delegate.setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        return delegate.getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        flushWrites(WriteBehind.FlushReason.STATEMENT); // 缓冲的行属于保存点之前
+        return delegate.setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        flushWrites(WriteBehind.FlushReason.STATEMENT);
+        return delegate.setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        discardWrites(); // 设置保存点时已写出，缓冲的行都在保存点之后
+        delegate.rollback(savepoint);
+        if (inTransaction) {
+            txSavepointRollbacks++;
+        }
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        delegate.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return new SpyStatement(this, delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability), null);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        if (statements != null) {
+            return prepareCached(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        }
+        return new SpyPreparedStatement(this, delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql, true, null);
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return new SpyCallableStatement(this, delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return new SpyPreparedStatement(this, delegate.prepareStatement(sql, autoGeneratedKeys), sql,
+                autoGeneratedKeys == Statement.NO_GENERATED_KEYS, null);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        return new SpyPreparedStatement(this, delegate.prepareStatement(sql, columnIndexes), sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        return new SpyPreparedStatement(this, delegate.prepareStatement(sql, columnNames), sql);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        return delegate.createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        return delegate.createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        return delegate.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        return delegate.createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return delegate.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        delegate.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        delegate.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        return delegate.getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        return delegate.getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        return delegate.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        return delegate.createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        delegate.setSchema(schema);
+        cacheScope = null;
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        return delegate.getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        delegate.abort(executor);
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        delegate.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        return delegate.getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+}
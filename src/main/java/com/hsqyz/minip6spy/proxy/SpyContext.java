@@ -0,0 +1,628 @@
+package com.hsqyz.minip6spy.proxy;
+
+import com.hsqyz.minip6spy.cache.ResultCache;
+import com.hsqyz.minip6spy.cache.ResultCacheOptions;
+import com.hsqyz.minip6spy.clock.SpyClock;
+import com.hsqyz.minip6spy.dispatch.AsyncDispatchOptions;
+import com.hsqyz.minip6spy.dispatch.AsyncSqlEventDispatcher;
+import com.hsqyz.minip6spy.dispatch.DirectSqlEventDispatcher;
+import com.hsqyz.minip6spy.dispatch.SqlEventDispatcher;
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.filter.SqlEventFilter;
+import com.hsqyz.minip6spy.guard.GuardedSqlListener;
+import com.hsqyz.minip6spy.guard.ListenerGuardOptions;
+import com.hsqyz.minip6spy.guard.ListenerStats;
+import com.hsqyz.minip6spy.jfr.JfrRecorder;
+import com.hsqyz.minip6spy.leak.LeakDetectionOptions;
+import com.hsqyz.minip6spy.leak.LeakDetector;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.metrics.SqlMetricsRegistry;
+import com.hsqyz.minip6spy.sampling.SqlSampler;
+import com.hsqyz.minip6spy.sql.SqlTemplateRegistry;
+import com.hsqyz.minip6spy.stmtcache.StatementCache;
+import com.hsqyz.minip6spy.stmtcache.StatementCacheOptions;
+import com.hsqyz.minip6spy.writebehind.WriteBehind;
+import com.hsqyz.minip6spy.writebehind.WriteBehindOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 代理上下文：同一个 DataSource / 驱动下所有 Spy 连接与语句共享的配置。
+ * 由 {@link com.hsqyz.minip6spy.datasource.SpyDataSource} 或
+ * {@link com.hsqyz.minip6spy.driver.P6SpyDriver} 创建后传入 {@link SpyConnection}。
+ * 开关、监听器列表、采样器与过滤条件可在运行时通过 {@link #control()} 调整：
+ * 前三者为 volatile 字段，监听器列表写时复制，读取路径不加锁。
+ */
+public final class SpyContext implements AutoCloseable {
+
+    private volatile List<SqlListener> listeners; // 事件监听器集合（只读，整体替换）
+    private final SqlEventDispatcher dispatcher; // 同步或异步分发器
+    private final boolean trackResultSets; // 是否包装结果集统计遍历耗时
+    private final SpyClock clock; // 事件开始时间的墙上时钟来源
+    private volatile boolean enabled; // 总开关，关闭后语句直接委托
+    private volatile SqlSampler sampler; // 采样器，null 表示全部采样
+    private volatile SqlEventFilter filter; // 分发前的事件过滤，null 表示不过滤
+    private final ListenerGuardOptions guard; // 监听器熔断配置，运行时新增的监听器同样包装
+    private final SpyControl control = new SpyControl(this); // 运行时控制入口
+    private final boolean captureParameters; // 是否采集预编译语句的绑定参数
+    private final boolean reuseEvents; // 更新类执行向监听器传递线程复用的事件视图
+    private final SqlTemplateRegistry templates; // SQL 模板字典，null 表示不分配模板编号
+    private final int maxParameterLength; // 字符串参数保留的最大字符数
+    private final int maxBatchRows; // 批量执行最多保留的参数行数
+    private final boolean trackConnections; // 是否发送连接借出 / 归还事件
+    private final boolean trackTransactions; // 是否发送事务结束事件
+    private final LeakDetector leakDetector; // 连接泄漏检测，null 表示关闭
+    private final SqlMetricsRegistry metrics; // 指标注册表，null 表示关闭
+    private final JfrRecorder flightRecorder; // JFR 事件输出，null 表示关闭
+    private final ResultCache resultCache; // 查询结果缓存，null 表示关闭
+    private final WriteBehind writeBehind; // 写缓冲，null 表示关闭
+    private final StatementCache statementCache; // 预编译语句缓存，null 表示关闭
+    private final AtomicLong connectionIds = new AtomicLong(); // 连接序号
+
+    private SpyContext(Builder builder) {
+        List<SqlListener> all = new ArrayList<>(builder.listeners);
+        if (builder.metrics != null && !all.contains(builder.metrics)) {
+            all.add(builder.metrics);
+        }
+        this.guard = builder.guard;
+        for (int i = 0; i < all.size(); i++) {
+            all.set(i, guard(all.get(i)));
+        }
+        this.listeners = Collections.unmodifiableList(all); // 防御式拷贝并设为只读
+        this.dispatcher = builder.async == null
+                ? new DirectSqlEventDispatcher(listeners)
+                : new AsyncSqlEventDispatcher(listeners, builder.async);
+        this.trackResultSets = builder.trackResultSets;
+        this.clock = builder.clock;
+        this.enabled = builder.enabled;
+        this.sampler = builder.sampler;
+        this.filter = builder.filter;
+        this.captureParameters = builder.captureParameters;
+        this.reuseEvents = builder.reuseEvents;
+        this.templates = builder.templates;
+        this.maxParameterLength = builder.maxParameterLength;
+        this.maxBatchRows = builder.maxBatchRows;
+        this.trackConnections = builder.trackConnections;
+        this.trackTransactions = builder.trackTransactions;
+        this.metrics = builder.metrics;
+        this.flightRecorder = builder.flightRecorder ? new JfrRecorder() : null;
+        this.resultCache = builder.resultCache == null ? null : new ResultCache(builder.resultCache);
+        this.writeBehind = builder.writeBehind == null ? null : new WriteBehind(builder.writeBehind);
+        this.statementCache = builder.statementCache == null ? null : new StatementCache(builder.statementCache);
+        this.leakDetector = builder.leakDetection == null ? null : new LeakDetector(builder.leakDetection);
+    }
+
+    /**
+     * 创建上下文构建器。
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 只读监听器列表（当前快照）
+     */
+    public List<SqlListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * @return 运行时控制入口：开关、增删监听器、调整采样与过滤
+     */
+    public SpyControl control() {
+        return control;
+    }
+
+    /**
+     * @return 是否开启采集；关闭时语句直接委托，不计时也不产生事件
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        boolean wasEnabled = this.enabled;
+        this.enabled = enabled;
+        if (enabled && !wasEnabled && resultCache != null) {
+            resultCache.clear(); // 关闭期间的写入未经过失效，重新开启时整体清空
+        }
+    }
+
+    void setSampler(SqlSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    void setFilter(SqlEventFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * 写时复制地替换监听器列表，并同步给分发器。
+     */
+    synchronized void updateListeners(List<SqlListener> next) {
+        List<SqlListener> wrapped = new ArrayList<>(next.size());
+        for (SqlListener listener : next) {
+            wrapped.add(guard(listener));
+        }
+        List<SqlListener> previous = listeners;
+        listeners = Collections.unmodifiableList(wrapped);
+        dispatcher.setListeners(listeners);
+        for (SqlListener old : previous) {
+            if (old instanceof GuardedSqlListener && !listeners.contains(old)) {
+                ((GuardedSqlListener) old).close();
+            }
+        }
+    }
+
+    /**
+     * @return 是否为上下文自行注册的监听器（指标注册表），整体替换监听器时保留
+     */
+    boolean isInternalListener(SqlListener listener) {
+        return listener != null && listener == metrics;
+    }
+
+    /**
+     * 开启熔断时包装监听器，已包装的原样返回。
+     */
+    private SqlListener guard(SqlListener listener) {
+        if (guard == null || listener instanceof GuardedSqlListener) {
+            return listener;
+        }
+        return new GuardedSqlListener(listener, guard);
+    }
+
+    /**
+     * @return 各监听器的开销与熔断统计；未开启 {@link Builder#guardListeners} 时为空列表
+     */
+    public List<ListenerStats> getListenerStats() {
+        List<ListenerStats> stats = new ArrayList<>(listeners.size());
+        for (SqlListener listener : listeners) {
+            if (listener instanceof GuardedSqlListener) {
+                stats.add(((GuardedSqlListener) listener).getStats());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return 当前使用的事件分发器；异步模式下可转型为 {@link AsyncSqlEventDispatcher} 读取计数
+     */
+    public SqlEventDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * @return 是否包装结果集并发送 {@link ResultSetEvent}
+     */
+    public boolean isTrackResultSets() {
+        return trackResultSets;
+    }
+
+    /**
+     * @return 事件开始时间使用的时钟
+     */
+    public SpyClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return 采样器；未配置时为 null（全部采样）
+     */
+    public SqlSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * @return 事件过滤条件；未配置时为 null
+     */
+    public SqlEventFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return 是否采集预编译语句的绑定参数
+     */
+    public boolean isCaptureParameters() {
+        return captureParameters;
+    }
+
+    /**
+     * @return 是否向监听器传递线程复用的事件视图
+     */
+    public boolean isReuseEvents() {
+        return reuseEvents;
+    }
+
+    /**
+     * @return SQL 模板字典；未开启时为 null
+     */
+    public SqlTemplateRegistry getTemplateRegistry() {
+        return templates;
+    }
+
+    /**
+     * @return 字符串参数保留的最大字符数
+     */
+    public int getMaxParameterLength() {
+        return maxParameterLength;
+    }
+
+    /**
+     * @return 批量执行最多保留的参数行数
+     */
+    public int getMaxBatchRows() {
+        return maxBatchRows;
+    }
+
+    /**
+     * @return 是否发送连接借出 / 归还事件
+     */
+    public boolean isTrackConnections() {
+        return trackConnections;
+    }
+
+    /**
+     * @return 是否发送事务结束事件
+     */
+    public boolean isTrackTransactions() {
+        return trackTransactions;
+    }
+
+    /**
+     * @return 指标注册表；未开启时为 null
+     */
+    public SqlMetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return 查询结果缓存（命中率、占用见 {@link ResultCache#getStats()}）；未开启时为 null
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * @return 写缓冲（节省的往返次数见 {@link WriteBehind#getStats()}）；未开启时为 null
+     */
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * @return 预编译语句缓存（命中、淘汰次数见 {@link StatementCache#getStats()}）；未开启时为 null
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * @return JFR 事件输出；未开启时为 null
+     */
+    public JfrRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    /**
+     * @return 连接泄漏检测器；未开启时为 null
+     */
+    public LeakDetector getLeakDetector() {
+        return leakDetector;
+    }
+
+    /**
+     * @return 新连接的序号（从 1 开始）
+     */
+    long nextConnectionId() {
+        return connectionIds.incrementAndGet();
+    }
+
+    /**
+     * 判断事件是否通过过滤；过滤条件抛出的异常按“保留”处理，不影响主流程。
+     */
+    boolean accept(SqlEvent event) {
+        SqlEventFilter filter = this.filter;
+        if (filter == null) {
+            return true;
+        }
+        try {
+            return filter.test(event);
+        } catch (RuntimeException ignore) {
+            return true;
+        }
+    }
+
+    /**
+     * 分发事件，监听器异常由分发器吞掉。
+     */
+    void notifyListeners(SqlEvent event) {
+        dispatcher.dispatch(event);
+    }
+
+    /**
+     * 分发结果集事件。
+     */
+    void notifyResultSet(ResultSetEvent event) {
+        dispatcher.dispatch(event);
+    }
+
+    /**
+     * 分发连接生命周期事件。
+     */
+    void notifyConnection(ConnectionEvent event) {
+        dispatcher.dispatch(event);
+    }
+
+    /**
+     * 分发事务结束事件；采集关闭期间结束的事务不分发。
+     */
+    void notifyTransaction(TransactionEvent event) {
+        if (!enabled) {
+            return;
+        }
+        dispatcher.dispatch(event);
+    }
+
+    /**
+     * 停止泄漏检测并关闭分发器（异步模式下会等待剩余事件投递完毕）。
+     */
+    @Override
+    public void close() {
+        if (leakDetector != null) {
+            leakDetector.close();
+        }
+        dispatcher.close();
+        for (SqlListener listener : listeners) {
+            if (listener instanceof GuardedSqlListener) {
+                ((GuardedSqlListener) listener).close();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final List<SqlListener> listeners = new ArrayList<>();
+        private boolean enabled = true;
+        private AsyncDispatchOptions async;
+        private boolean trackResultSets = true;
+        private SpyClock clock = SpyClock.system();
+        private SqlSampler sampler;
+        private SqlEventFilter filter;
+        private boolean captureParameters = true;
+        private boolean reuseEvents;
+        private SqlTemplateRegistry templates;
+        private int maxParameterLength = 256;
+        private int maxBatchRows = 100;
+        private boolean trackConnections = true;
+        private boolean trackTransactions = true;
+        private LeakDetectionOptions leakDetection;
+        private SqlMetricsRegistry metrics;
+        private boolean flightRecorder;
+        private ListenerGuardOptions guard;
+        private ResultCacheOptions resultCache;
+        private WriteBehindOptions writeBehind;
+        private StatementCacheOptions statementCache;
+
+        private Builder() {
+        }
+
+        /**
+         * 初始是否开启采集（默认开启），运行时可通过 {@link SpyContext#control()} 切换。
+         */
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * 追加监听器，可多次调用叠加。
+         */
+        public Builder listeners(SqlListener... listeners) {
+            if (listeners != null) {
+                this.listeners.addAll(Arrays.asList(listeners));
+            }
+            return this;
+        }
+
+        /**
+         * 追加监听器集合。
+         */
+        public Builder listeners(List<SqlListener> listeners) {
+            if (listeners != null) {
+                this.listeners.addAll(listeners);
+            }
+            return this;
+        }
+
+        /**
+         * 开启异步分发；传 null 表示同步分发（默认）。
+         */
+        public Builder asyncDispatch(AsyncDispatchOptions options) {
+            this.async = options;
+            return this;
+        }
+
+        /**
+         * 是否包装 executeQuery / getResultSet 返回的结果集，统计行数与遍历耗时（默认开启）。
+         * 关闭后结果集原样返回，next() 不再有计时开销。
+         */
+        public Builder trackResultSets(boolean trackResultSets) {
+            this.trackResultSets = trackResultSets;
+            return this;
+        }
+
+        /**
+         * 设置开始时间的时钟来源，高 QPS 下可使用 {@link com.hsqyz.minip6spy.clock.CachedClock#shared()}。
+         */
+        public Builder clock(SpyClock clock) {
+            this.clock = clock == null ? SpyClock.system() : clock;
+            return this;
+        }
+
+        /**
+         * 设置采样器，未采样的执行不构建事件、不包装结果集；传 null 表示全部采样（默认）。
+         * 示例：{@code SqlSampler.probability(0.01).keepErrorsAndSlowerThan(200, TimeUnit.MILLISECONDS)}。
+         */
+        public Builder sampler(SqlSampler sampler) {
+            this.sampler = sampler;
+            return this;
+        }
+
+        /**
+         * 设置分发前的事件过滤条件，所有监听器共用一次判断；未通过的事件不分发、不包装结果集。
+         * 示例：{@code SqlEventFilter.slowerThan(100, TimeUnit.MILLISECONDS).or(SqlEventFilter.failuresOnly())}。
+         */
+        public Builder filter(SqlEventFilter filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        /**
+         * 是否采集 PreparedStatement 的绑定参数（默认开启）；关闭后 set* 只做委托。
+         */
+        public Builder captureParameters(boolean captureParameters) {
+            this.captureParameters = captureParameters;
+            return this;
+        }
+
+        /**
+         * 是否复用事件对象（默认关闭）：executeUpdate / executeBatch 等不返回结果集的执行向监听器传递
+         * 每个线程复用的 {@link SqlEvent} 视图，采集路径不再为每次执行分配 Builder 与事件。
+         * 开启后监听器若在回调之外保存事件，须改为保存 {@link SqlEvent#retain()}；异步分发入队前会自动复制。
+         * 查询仍创建不可变事件，因为结果集事件要关联它。
+         */
+        public Builder reuseEvents(boolean reuseEvents) {
+            this.reuseEvents = reuseEvents;
+            return this;
+        }
+
+        /**
+         * 设置 SQL 模板字典（默认无）：事件的 {@link SqlEvent#getTemplateId()} 在其中登记并返回 int 编号，
+         * 同一字典可被多个上下文与输出端共享。
+         */
+        public Builder templateRegistry(SqlTemplateRegistry templates) {
+            this.templates = templates;
+            return this;
+        }
+
+        /**
+         * 字符串参数保留的最大字符数（默认 256），超出部分在采集时截断。
+         */
+        public Builder maxParameterLength(int maxParameterLength) {
+            if (maxParameterLength < 0) {
+                throw new IllegalArgumentException("maxParameterLength must not be negative: " + maxParameterLength);
+            }
+            this.maxParameterLength = maxParameterLength;
+            return this;
+        }
+
+        /**
+         * 批量执行最多保留的参数行数（默认 100），超出的行只计入批量大小。
+         */
+        public Builder maxBatchRows(int maxBatchRows) {
+            if (maxBatchRows < 0) {
+                throw new IllegalArgumentException("maxBatchRows must not be negative: " + maxBatchRows);
+            }
+            this.maxBatchRows = maxBatchRows;
+            return this;
+        }
+
+        /**
+         * 是否在连接借出与归还时发送 {@link ConnectionEvent}（默认开启），包含获取耗时、持有时长与语句数。
+         */
+        public Builder trackConnections(boolean trackConnections) {
+            this.trackConnections = trackConnections;
+            return this;
+        }
+
+        /**
+         * 是否在事务结束时发送 {@link TransactionEvent}（默认开启），包含总时长、commit / rollback 耗时、
+         * 语句数与语句总耗时、语句间隔；关闭后 commit / rollback / setAutoCommit 直接委托。
+         */
+        public Builder trackTransactions(boolean trackTransactions) {
+            this.trackTransactions = trackTransactions;
+            return this;
+        }
+
+        /**
+         * 开启连接泄漏检测：持有超过阈值仍未 close() 的连接发送 {@link ConnectionEvent.Type#LEAK_SUSPECTED}；
+         * 传 null 表示关闭（默认）。示例：{@code LeakDetectionOptions.builder().threshold(30, TimeUnit.SECONDS).build()}。
+         */
+        public Builder leakDetection(LeakDetectionOptions options) {
+            this.leakDetection = options;
+            return this;
+        }
+
+        /**
+         * 开启指标采集：注册表作为监听器接收事件，并额外统计执行中的语句数；
+         * 可配合 {@link com.hsqyz.minip6spy.metrics.MetricsHttpServer} 以 Prometheus 文本格式暴露。
+         */
+        public Builder metrics(SqlMetricsRegistry metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * 开启查询结果缓存（默认关闭）：只缓存允许名单中的 SELECT 模板，且只在自动提交的连接上、
+         * 通过 executeQuery 执行时生效；同一上下文中的写语句使涉及表的条目失效，事务内的写入在提交或回滚时再失效一次。
+         * 预编译语句需开启参数采集，字符串参数超过 {@link #maxParameterLength(int)} 或绑定了二进制、流时不缓存。
+         */
+        public Builder resultCache(ResultCacheOptions options) {
+            this.resultCache = options;
+            return this;
+        }
+
+        /**
+         * 开启写缓冲（默认关闭）：非自动提交的连接上，prepareStatement(sql) 语句的 executeUpdate 先加入批量，
+         * 在 commit、读取相关表或执行其它语句前以一次 executeBatch 写出；被缓冲的调用返回 1。
+         * 完整语义见 {@link WriteBehind}。
+         */
+        public Builder writeBehind(WriteBehindOptions options) {
+            this.writeBehind = options;
+            return this;
+        }
+
+        /**
+         * 开启预编译语句缓存（默认关闭），供不提供语句缓存的连接池使用：每个连接按 SQL 与结果集参数复用
+         * close() 归还的 PreparedStatement，连接关闭时一并关闭。完整语义见 {@link StatementCache}。
+         */
+        public Builder statementCache(StatementCacheOptions options) {
+            this.statementCache = options;
+            return this;
+        }
+
+        /**
+         * 是否输出 JDK Flight Recorder 事件（默认关闭）：语句执行、获取连接与 commit / rollback，
+         * 需在记录配置中启用 com.hsqyz.minip6spy.* 事件；当前 JVM 不支持 JFR 时抛出 {@link IllegalStateException}。
+         */
+        public Builder flightRecorder(boolean flightRecorder) {
+            if (flightRecorder && !JfrRecorder.isAvailable()) {
+                throw new IllegalStateException("JDK Flight Recorder is not available in this JVM");
+            }
+            this.flightRecorder = flightRecorder;
+            return this;
+        }
+
+        /**
+         * 为每个监听器单独计时并加熔断保护：慢调用或异常比例过高时在一段时间内跳过（或转异步）该监听器，
+         * 之后放行一次探测；开销可通过 {@link SpyContext#getListenerStats()} 查看。传 null 表示关闭（默认）。
+         */
+        public Builder guardListeners(ListenerGuardOptions options) {
+            this.guard = options;
+            return this;
+        }
+
+        /**
+         * 构造上下文。
+         */
+        public SpyContext build() {
+            return new SpyContext(this);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.hsqyz.minip6spy.proxy;
+
+import com.hsqyz.minip6spy.filter.SqlEventFilter;
+import com.hsqyz.minip6spy.guard.GuardedSqlListener;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.sampling.SqlSampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SpyContext} 的运行时控制入口，无需重建数据源即可调整采集行为：
+ * - 总开关：关闭后已包装的语句直接委托给原始驱动，只多一次 volatile 读；
+ * - 增删或整体替换监听器，之后的事件投递给新列表；
+ * - 替换采样器与过滤条件（如调整采样率、慢 SQL 阈值）。
+ * 所有修改立即对已打开的连接生效；开关切换时正在执行的语句按开始时的状态完成。
+ */
+public final class SpyControl {
+
+    private final SpyContext context;
+
+    SpyControl(SpyContext context) {
+        this.context = context;
+    }
+
+    public void enable() {
+        context.setEnabled(true);
+    }
+
+    public void disable() {
+        context.setEnabled(false);
+    }
+
+    public boolean isEnabled() {
+        return context.isEnabled();
+    }
+
+    /**
+     * @return 当前监听器快照（开启熔断时为包装后的监听器）
+     */
+    public List<SqlListener> getListeners() {
+        return context.getListeners();
+    }
+
+    /**
+     * 追加监听器。
+     */
+    public synchronized void addListener(SqlListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        List<SqlListener> next = new ArrayList<>(context.getListeners());
+        next.add(listener);
+        context.updateListeners(next);
+    }
+
+    /**
+     * 移除监听器，按原始实例匹配（熔断包装也能匹配到）。
+     *
+     * @return 是否找到并移除
+     */
+    public synchronized boolean removeListener(SqlListener listener) {
+        List<SqlListener> next = new ArrayList<>(context.getListeners());
+        boolean removed = next.removeIf(l -> l == listener
+                || l instanceof GuardedSqlListener && ((GuardedSqlListener) l).getDelegate() == listener);
+        if (removed) {
+            context.updateListeners(next);
+        }
+        return removed;
+    }
+
+    /**
+     * 整体替换监听器列表；上下文内部注册的监听器（{@link SpyContext.Builder#metrics} 的指标注册表）
+     * 不在替换范围内，未出现在新列表中时保留在末尾。
+     */
+    public synchronized void setListeners(List<? extends SqlListener> listeners) {
+        List<SqlListener> next = new ArrayList<>(listeners.size() + 1);
+        for (SqlListener listener : listeners) {
+            next.add(Objects.requireNonNull(listener, "listener"));
+        }
+        for (SqlListener current : context.getListeners()) {
+            SqlListener raw = unwrap(current);
+            if (context.isInternalListener(raw) && !containsRaw(next, raw)) {
+                next.add(current); // 保留原实例（含熔断包装）
+            }
+        }
+        context.updateListeners(next);
+    }
+
+    private static boolean containsRaw(List<SqlListener> listeners, SqlListener raw) {
+        for (SqlListener listener : listeners) {
+            if (unwrap(listener) == raw) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SqlListener unwrap(SqlListener listener) {
+        return listener instanceof GuardedSqlListener ? ((GuardedSqlListener) listener).getDelegate() : listener;
+    }
+
+    /**
+     * @param sampler 采样器，null 表示全部采样
+     */
+    public void setSampler(SqlSampler sampler) {
+        context.setSampler(sampler);
+    }
+
+    /**
+     * 按概率采样，1 表示全部采样。
+     */
+    public void setSamplingRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("sampling rate must be in [0, 1]: " + rate);
+        }
+        context.setSampler(rate >= 1 ? null : SqlSampler.probability(rate));
+    }
+
+    /**
+     * @param filter 分发前的事件过滤，null 表示不过滤
+     */
+    public void setFilter(SqlEventFilter filter) {
+        context.setFilter(filter);
+    }
+
+    /**
+     * 只分发耗时不低于阈值的事件（替换当前过滤条件），阈值 ≤ 0 时取消过滤。
+     */
+    public void setSlowThreshold(long threshold, TimeUnit unit) {
+        context.setFilter(threshold > 0 ? SqlEventFilter.slowerThan(threshold, unit) : null);
+    }
+}
@@ -0,0 +1,659 @@
+package com.hsqyz.minip6spy.proxy;
+
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.param.BoundParameters;
+import com.hsqyz.minip6spy.param.ParameterRecorder;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * PreparedStatement 代理：记录 prepareStatement 时的 SQL 模板，
+ * 无参 execute* 与 addBatch 的采集逻辑复用 {@link SpyStatement}。
+ * set* 在委托成功后把参数写入复用的 {@link ParameterRecorder}，生成事件时复制快照，
+ * 带参数的 SQL 由监听器按需渲染。
+ */
+public class SpyPreparedStatement extends SpyStatement implements PreparedStatement {
+
+    private final PreparedStatement delegate;
+    private final ParameterRecorder params; // 关闭参数采集时为 null
+    private final boolean writeBehindAllowed; // 可加入写缓冲：普通预编译且未要求返回自增键
+    private final ConnectionStatementCache.Key cacheKey; // 由语句缓存创建时的键，close() 归还而不关闭；否则为 null
+    private boolean logicallyClosed;
+
+    SpyPreparedStatement(SpyConnection connection, PreparedStatement delegate, String sql) {
+        this(connection, delegate, sql, false, null);
+    }
+
+    SpyPreparedStatement(SpyConnection connection, PreparedStatement delegate, String sql, boolean writeBehindAllowed,
+                         ConnectionStatementCache.Key cacheKey) {
+        super(connection, delegate, sql);
+        this.delegate = delegate;
+        this.writeBehindAllowed = writeBehindAllowed;
+        this.cacheKey = cacheKey;
+        this.params = context.isCaptureParameters()
+                ? new ParameterRecorder(context.getMaxParameterLength(), context.getMaxBatchRows())
+                : null;
+    }
+
+    @Override
+    void attachParameters(SqlEvent.Builder builder, boolean batch) {
+        if (params == null) {
+            return;
+        }
+        builder.parameters(params.snapshot());
+        if (batch) {
+            builder.batchParameters(params.drainBatch());
+        }
+    }
+
+    boolean isWriteBehindAllowed() {
+        return writeBehindAllowed;
+    }
+
+    ConnectionStatementCache.Key cacheKey() {
+        return cacheKey;
+    }
+
+    boolean isDelegateClosed() {
+        try {
+            return delegate.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 从语句缓存取出时调用。
+     */
+    void reopen() {
+        logicallyClosed = false;
+    }
+
+    void closePhysically() throws SQLException {
+        super.close();
+    }
+
+    /**
+     * 语句缓存创建的语句只做逻辑关闭：写出缓冲、关闭结果集、清空参数与批量后归还给连接；
+     * 复原失败时物理关闭，不再复用。
+     */
+    @Override
+    public void close() throws SQLException {
+        if (cacheKey == null) {
+            super.close();
+            return;
+        }
+        if (logicallyClosed) {
+            return;
+        }
+        boolean reusable = false;
+        try {
+            connection.flushIfDeferred(this);
+            closeCurrentResultSet();
+            clearBatch();
+            clearParameters();
+            reusable = true;
+        } finally {
+            logicallyClosed = true;
+            if (reusable) {
+                connection.returnStatement(this);
+            } else {
+                super.close();
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return logicallyClosed || super.isClosed();
+    }
+
+    @Override
+    ResultSet queryDelegate(String sql) throws SQLException {
+        return delegate.executeQuery();
+    }
+
+    @Override
+    BoundParameters currentParameters() {
+        return params == null ? null : params.snapshot();
+    }
+
+    @Override
+    void resetBatch() {
+        super.resetBatch();
+        if (params != null) {
+            params.clearBatch();
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        connection.flushWritesBefore(this, null); // 写缓冲为空时只是一次字段判断
+        if (!context.isEnabled()) { // 关闭时直接委托：一次 volatile 读，不计时、不产生事件
+            return delegate.executeQuery();
+        }
+        long start = beforeExecute();
+        ResultSet rs;
+        try {
+            rs = query(null);
+        } catch (Throwable e) {
+            afterExecute(SqlMethodEnum.EXECUTE_QUERY, null, start, e);
+            throw e;
+        }
+        return wrapResultSet(rs, afterExecute(SqlMethodEnum.EXECUTE_QUERY, null, start, null));
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        if (connection.deferUpdate(this)) {
+            return 1; // 已加入写缓冲，真实影响行数在写出时的批量事件中
+        }
+        connection.flushWritesBefore(this, null);
+        if (!context.isEnabled()) {
+            return delegate.executeUpdate();
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeUpdate();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_UPDATE, null, start, error);
+        }
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        delegate.setNull(parameterIndex, sqlType);
+        if (params != null) {
+            params.setNull(parameterIndex);
+        }
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        delegate.setBoolean(parameterIndex, x);
+        if (params != null) {
+            params.setBoolean(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        delegate.setByte(parameterIndex, x);
+        if (params != null) {
+            params.setLong(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        delegate.setShort(parameterIndex, x);
+        if (params != null) {
+            params.setLong(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        delegate.setInt(parameterIndex, x);
+        if (params != null) {
+            params.setLong(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        delegate.setLong(parameterIndex, x);
+        if (params != null) {
+            params.setLong(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        delegate.setFloat(parameterIndex, x);
+        if (params != null) {
+            params.setDouble(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        delegate.setDouble(parameterIndex, x);
+        if (params != null) {
+            params.setDouble(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        delegate.setBigDecimal(parameterIndex, x);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        delegate.setString(parameterIndex, x);
+        if (params != null) {
+            params.setString(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        delegate.setBytes(parameterIndex, x);
+        if (params != null) {
+            params.setBytes(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        delegate.setDate(parameterIndex, x);
+        if (params != null) {
+            params.setTemporal(parameterIndex, x, null);
+        }
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        delegate.setTime(parameterIndex, x);
+        if (params != null) {
+            params.setTemporal(parameterIndex, x, null);
+        }
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        delegate.setTimestamp(parameterIndex, x);
+        if (params != null) {
+            params.setTemporal(parameterIndex, x, null);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate.setAsciiStream(parameterIndex, x, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate.setUnicodeStream(parameterIndex, x, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        delegate.setBinaryStream(parameterIndex, x, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        delegate.clearParameters();
+        if (params != null) {
+            params.clear();
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        delegate.setObject(parameterIndex, x);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        connection.flushWritesBefore(this, null);
+        if (!context.isEnabled()) {
+            return delegate.execute();
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.execute();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE, null, start, error);
+        }
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        connection.flushIfDeferred(this);
+        appendBatch();
+    }
+
+    /**
+     * 把当前参数加入批量；写缓冲直接调用，不触发写出。
+     */
+    void appendBatch() throws SQLException {
+        batchCount++;
+        delegate.addBatch();
+        if (params != null) {
+            params.addBatch();
+        }
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        delegate.setCharacterStream(parameterIndex, reader, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        delegate.setRef(parameterIndex, x);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Ref");
+        }
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        delegate.setBlob(parameterIndex, x);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Blob");
+        }
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        delegate.setClob(parameterIndex, x);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Clob");
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        delegate.setArray(parameterIndex, x);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Array");
+        }
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        delegate.setDate(parameterIndex, x, cal);
+        if (params != null) {
+            params.setTemporal(parameterIndex, x, cal);
+        }
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        delegate.setTime(parameterIndex, x, cal);
+        if (params != null) {
+            params.setTemporal(parameterIndex, x, cal);
+        }
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        delegate.setTimestamp(parameterIndex, x, cal);
+        if (params != null) {
+            params.setTemporal(parameterIndex, x, cal);
+        }
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        delegate.setNull(parameterIndex, sqlType, typeName);
+        if (params != null) {
+            params.setNull(parameterIndex);
+        }
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        delegate.setURL(parameterIndex, x);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        return delegate.getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        delegate.setRowId(parameterIndex, x);
+        if (params != null) {
+            params.setMarker(parameterIndex, "RowId");
+        }
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        delegate.setNString(parameterIndex, value);
+        if (params != null) {
+            params.setString(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        delegate.setNCharacterStream(parameterIndex, value, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        delegate.setNClob(parameterIndex, value);
+        if (params != null) {
+            params.setMarker(parameterIndex, "NClob");
+        }
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        delegate.setClob(parameterIndex, reader, length);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Clob");
+        }
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        delegate.setBlob(parameterIndex, inputStream, length);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Blob");
+        }
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        delegate.setNClob(parameterIndex, reader, length);
+        if (params != null) {
+            params.setMarker(parameterIndex, "NClob");
+        }
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        delegate.setSQLXML(parameterIndex, xmlObject);
+        if (params != null) {
+            params.setMarker(parameterIndex, "SQLXML");
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate.setAsciiStream(parameterIndex, x, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        delegate.setBinaryStream(parameterIndex, x, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        delegate.setCharacterStream(parameterIndex, reader, length);
+        if (params != null) {
+            params.setStream(parameterIndex, length);
+        }
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        delegate.setAsciiStream(parameterIndex, x);
+        if (params != null) {
+            params.setStream(parameterIndex, -1);
+        }
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        delegate.setBinaryStream(parameterIndex, x);
+        if (params != null) {
+            params.setStream(parameterIndex, -1);
+        }
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        delegate.setCharacterStream(parameterIndex, reader);
+        if (params != null) {
+            params.setStream(parameterIndex, -1);
+        }
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        delegate.setNCharacterStream(parameterIndex, value);
+        if (params != null) {
+            params.setStream(parameterIndex, -1);
+        }
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        delegate.setClob(parameterIndex, reader);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Clob");
+        }
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        delegate.setBlob(parameterIndex, inputStream);
+        if (params != null) {
+            params.setMarker(parameterIndex, "Blob");
+        }
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        delegate.setNClob(parameterIndex, reader);
+        if (params != null) {
+            params.setMarker(parameterIndex, "NClob");
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+        delegate.setObject(parameterIndex, x, targetSqlType);
+        if (params != null) {
+            params.setObject(parameterIndex, x);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        connection.flushWritesBefore(this, null);
+        if (!context.isEnabled()) {
+            return delegate.executeLargeUpdate();
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeLargeUpdate();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_LARGE_UPDATE, null, start, error);
+        }
+    }
+}
@@ -0,0 +1,765 @@
+package com.hsqyz.minip6spy.proxy;
+
+import com.hsqyz.minip6spy.cache.CachedResultSet;
+import com.hsqyz.minip6spy.cache.ResultCache;
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.jfr.JfrRecorder;
+import com.hsqyz.minip6spy.metrics.SqlMetricsRegistry;
+import com.hsqyz.minip6spy.param.BoundParameters;
+import com.hsqyz.minip6spy.sampling.SqlSampler;
+import com.hsqyz.minip6spy.sql.NormalizedSql;
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement 代理：直接实现 {@link Statement}，拦截 execute* / addBatch 等方法采集信息。
+ * - execute/executeQuery/executeUpdate/executeBatch/executeLarge* 统计耗时并回调监听器；
+ * - addBatch 仅计数，方便在 executeBatch 时计算批量大小；
+ * - 其余方法直接委托，不经过反射。
+ * 子类 {@link SpyPreparedStatement} / {@link SpyCallableStatement} 复用这里的事件采集逻辑。
+ */
+public class SpyStatement implements Statement {
+
+    final SpyConnection connection;
+    final SpyContext context;
+    private final Statement delegate;
+    private final String boundSql; // null 表示普通 Statement，需要从 execute 参数中拿 SQL
+    private NormalizedSql boundNormalized; // 预编译 SQL 的归一化结果，首次使用时计算
+    int batchCount = 0;            // addBatch 调用计数，用于生成批量大小
+    private SqlEvent lastEvent;    // 最近一次执行事件，getResultSet 包装结果集时关联
+    private SpyResultSet currentResultSet; // 当前打开的结果集代理
+    private Object jfrExecution;   // 进行中的 JFR 执行事件，未开启或未启用时为 null
+    // 结果缓存相关状态，未开启缓存时保持初始值
+    private boolean limitedRows;          // setMaxRows 限制了行数，不使用结果缓存
+    private boolean cacheHit;             // 本次查询由结果缓存返回，afterExecute 标记到事件
+    private ResultSet cachedResultSet;    // 结果缓存返回的当前结果集，getResultSet 返回它
+    private List<String> batchSqls;       // addBatch(sql) 的语句，批量执行后按表失效
+
+    SpyStatement(SpyConnection connection, Statement delegate, String boundSql) {
+        this.connection = connection;
+        this.context = connection.context();
+        this.delegate = delegate;
+        this.boundSql = boundSql;
+    }
+
+    /**
+     * 执行前调用：开启指标时累加执行中计数，返回开始时刻。
+     */
+    final long beforeExecute() {
+        cachedResultSet = null;
+        SqlMetricsRegistry metrics = context.getMetrics();
+        if (metrics != null) {
+            metrics.executionStarted();
+        }
+        JfrRecorder jfr = context.getFlightRecorder();
+        if (jfr != null) {
+            jfrExecution = jfr.beginExecution();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * execute* 结束后生成事件并通知监听器；批量执行后重置 addBatch 计数。
+     * 耗时只做两次 {@link System#nanoTime()} 相减，开始时间由“当前时钟 - 耗时”倒推，不分配时间对象。
+     * 配置了采样器时先做采样判断，未采样直接返回，不创建 Builder 与事件；
+     * 事件构建后再经过滤条件判断一次，未通过的不分发。
+     * 开启事件复用时，不返回结果集的执行使用线程复用的构建器与视图，分发结束即释放，返回值只在本次调用内有效。
+     *
+     * @param method     当前执行方法
+     * @param sql        execute*(sql) 传入的 SQL，预编译语句为 null
+     * @param startNanos 开始时的 {@link System#nanoTime()}
+     * @param error      执行异常，成功时为 null
+     * @return 本次执行事件；未采样或被过滤时为 null
+     */
+    final SqlEvent afterExecute(SqlMethodEnum method, String sql, long startNanos, Throwable error) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        boolean hit = cacheHit;
+        cacheHit = false;
+        SqlMetricsRegistry metrics = context.getMetrics();
+        if (metrics != null) {
+            metrics.executionFinished();
+        }
+        connection.statementExecuted(startNanos, elapsedNanos);
+        finishResultSet(); // 重新执行会隐式关闭上一个结果集
+        boolean batch = method == SqlMethodEnum.EXECUTE_BATCH || method == SqlMethodEnum.EXECUTE_LARGE_BATCH;
+        if (jfrExecution != null) {
+            context.getFlightRecorder().endExecution(jfrExecution, method, resolveSql(sql),
+                    batch ? Math.max(batchCount, 1) : 1, error == null, connection.getConnectionId());
+            jfrExecution = null;
+        }
+        ResultCache cache = context.getResultCache();
+        if (cache != null && !hit) {
+            invalidateWrites(cache, batch, sql);
+        }
+        SqlSampler sampler = context.getSampler();
+        if (sampler != null && !sampler.sample(elapsedNanos, error)) {
+            if (batch) {
+                resetBatch();
+            }
+            lastEvent = null;
+            return null;
+        }
+        boolean reuse = context.isReuseEvents() && !returnsResultSet(method);
+        SqlEvent.Builder builder = (reuse ? SqlEvent.reusableBuilder(resolveSql(sql)) : SqlEvent.builder(resolveSql(sql)))
+                .startedAtMillis(context.getClock().currentTimeMillis() - elapsedNanos / 1_000_000L)
+                .elapsedNanos(elapsedNanos)
+                .batchSize(batch ? Math.max(batchCount, 1) : 1)
+                .connectionId(connection.getConnectionId())
+                .method(method)
+                .cacheHit(hit)
+                .templates(context.getTemplateRegistry())
+                .normalized(boundNormalized())
+                .success(error == null)
+                .error(error);
+        try {
+            attachParameters(builder, batch);
+            SqlEvent event = builder.build();
+            if (batch) {
+                resetBatch();
+            }
+            if (!context.accept(event)) {
+                lastEvent = null;
+                return null;
+            }
+            lastEvent = reuse ? null : event; // 视图会被覆盖，不关联后续的 getResultSet
+            context.notifyListeners(event);
+            return event;
+        } finally {
+            builder.release();
+        }
+    }
+
+    private static boolean returnsResultSet(SqlMethodEnum method) {
+        return method == SqlMethodEnum.EXECUTE_QUERY || method == SqlMethodEnum.EXECUTE;
+    }
+
+    /**
+     * 向事件附加绑定参数，普通 Statement 没有参数；{@link SpyPreparedStatement} 覆盖。
+     */
+    void attachParameters(SqlEvent.Builder builder, boolean batch) {
+    }
+
+    /**
+     * 批量执行结束或 clearBatch 时重置批量状态。
+     */
+    void resetBatch() {
+        batchCount = 0;
+        batchSqls = null;
+    }
+
+    /**
+     * executeQuery 的实际查询：开启结果缓存且语句允许缓存时先查缓存，未命中再访问数据库并写入缓存。
+     *
+     * @param sql execute*(sql) 传入的 SQL，预编译语句为 null
+     */
+    final ResultSet query(String sql) throws SQLException {
+        ResultCache cache = context.getResultCache();
+        ResultCache.Lookup lookup = cache == null || limitedRows || !connection.isAutoCommitCached()
+                ? null : cache.lookup(connection.cacheScope(), resolveSql(sql), boundNormalized(), currentParameters());
+        if (lookup == null || delegate.getResultSetConcurrency() != ResultSet.CONCUR_READ_ONLY) {
+            return queryDelegate(sql);
+        }
+        ResultSet hit = cache.get(lookup, this);
+        if (hit != null) {
+            cacheHit = true;
+            cachedResultSet = hit;
+            return hit;
+        }
+        ResultSet rs = queryDelegate(sql);
+        ResultSet filled = cache.fill(lookup, rs, this);
+        if (filled == null) {
+            return rs; // 含无法物化的列，原样返回
+        }
+        cachedResultSet = filled;
+        return filled;
+    }
+
+    /**
+     * 访问数据库执行查询；{@link SpyPreparedStatement} 覆盖为无参 executeQuery。
+     */
+    ResultSet queryDelegate(String sql) throws SQLException {
+        return delegate.executeQuery(sql);
+    }
+
+    /**
+     * 结果缓存键使用的绑定参数，普通 Statement 没有参数；{@link SpyPreparedStatement} 覆盖，未采集参数时返回 null。
+     */
+    BoundParameters currentParameters() {
+        return BoundParameters.EMPTY;
+    }
+
+    /**
+     * 写语句执行后使结果缓存中涉及表的条目失效（只读语句由缓存自行忽略）。
+     */
+    private void invalidateWrites(ResultCache cache, boolean batch, String sql) {
+        if (batch && batchSqls != null) {
+            for (String batchSql : batchSqls) {
+                connection.writeExecuted(cache, batchSql, null);
+            }
+        } else {
+            connection.writeExecuted(cache, resolveSql(sql), boundNormalized()); // 语句批量未记录 SQL 时为 null，全部失效
+        }
+    }
+
+    /**
+     * 按上下文配置包装结果集，记录为当前结果集；执行未被采样或被过滤（event 为 null）时原样返回。
+     */
+    final ResultSet wrapResultSet(ResultSet rs, SqlEvent event) {
+        if (rs == null || event == null || !context.isTrackResultSets() || rs instanceof CachedResultSet) {
+            return rs;
+        }
+        currentResultSet = new SpyResultSet(this, rs, event);
+        connection.resultSetOpened(this);
+        return currentResultSet;
+    }
+
+    /**
+     * 语句缓存逻辑关闭时调用：像物理关闭一样关闭当前结果集，并清除上次执行留下的状态。
+     */
+    final void closeCurrentResultSet() throws SQLException {
+        SpyResultSet rs = currentResultSet;
+        currentResultSet = null;
+        cachedResultSet = null;
+        lastEvent = null;
+        if (rs != null) {
+            connection.resultSetFinished(this);
+            rs.close();
+        }
+    }
+
+    /**
+     * 结束当前结果集的统计（语句关闭、重新执行或 getMoreResults 时结果集会被驱动隐式关闭）。
+     */
+    final void finishResultSet() {
+        if (currentResultSet != null) {
+            currentResultSet.finish();
+            currentResultSet = null;
+            connection.resultSetFinished(this);
+        }
+    }
+
+    /**
+     * 提取 SQL：优先使用预编译模板，其次使用 execute*(sql) 的 SQL 参数。
+     */
+    String resolveSql(String sql) {
+        return boundSql != null ? boundSql : sql;
+    }
+
+    /**
+     * 预编译 SQL 固定不变，归一化结果按语句只计算一次，之后的执行不再查找归一化缓存。
+     *
+     * @return 预编译 SQL 的归一化结果；普通 Statement 返回 null
+     */
+    final NormalizedSql boundNormalized() {
+        if (boundSql == null) {
+            return null;
+        }
+        NormalizedSql n = boundNormalized;
+        if (n == null) {
+            n = SqlNormalizer.shared().normalize(boundSql);
+            boundNormalized = n;
+        }
+        return n;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        connection.flushWritesBefore(this, sql); // 写缓冲为空时只是一次字段判断
+        if (!context.isEnabled()) { // 关闭时直接委托：一次 volatile 读，不计时、不产生事件
+            return delegate.executeQuery(sql);
+        }
+        long start = beforeExecute();
+        ResultSet rs;
+        try {
+            rs = query(sql);
+        } catch (Throwable e) {
+            afterExecute(SqlMethodEnum.EXECUTE_QUERY, sql, start, e);
+            throw e;
+        }
+        return wrapResultSet(rs, afterExecute(SqlMethodEnum.EXECUTE_QUERY, sql, start, null));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeUpdate(sql);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeUpdate(sql);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.flushIfDeferred(this);
+        try {
+            delegate.close();
+        } finally {
+            finishResultSet();
+        }
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate.setMaxRows(max);
+        limitedRows = max > 0;
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.execute(sql);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.execute(sql);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE, sql, start, error);
+        }
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        if (cachedResultSet != null && context.isEnabled()) {
+            return cachedResultSet;
+        }
+        ResultSet rs = delegate.getResultSet();
+        if (rs == null || lastEvent == null || !context.isEnabled()) {
+            return rs;
+        }
+        if (currentResultSet != null && currentResultSet.delegate() == rs) {
+            return currentResultSet; // 多次调用返回同一个代理
+        }
+        return wrapResultSet(rs, lastEvent);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        finishResultSet(); // 默认 CLOSE_CURRENT_RESULT，当前结果集随之关闭
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        batchCount++;
+        delegate.addBatch(sql);
+        if (context.getResultCache() != null) {
+            if (batchSqls == null) {
+                batchSqls = new ArrayList<>();
+            }
+            batchSqls.add(sql);
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        connection.flushIfDeferred(this); // 缓冲的是调用方的 executeUpdate，不属于要清除的批量
+        resetBatch();
+        delegate.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        connection.flushWritesBefore(this, null);
+        if (!context.isEnabled()) {
+            try {
+                return delegate.executeBatch();
+            } finally {
+                resetBatch();
+            }
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeBatch();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_BATCH, null, start, error);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        if (current != KEEP_CURRENT_RESULT) {
+            finishResultSet();
+        }
+        return delegate.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        connection.flushIfDeferred(this);
+        return delegate.getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeUpdate(sql, autoGeneratedKeys);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeUpdate(sql, autoGeneratedKeys);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeUpdate(sql, columnIndexes);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeUpdate(sql, columnIndexes);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeUpdate(sql, columnNames);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeUpdate(sql, columnNames);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.execute(sql, autoGeneratedKeys);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.execute(sql, autoGeneratedKeys);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE, sql, start, error);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.execute(sql, columnIndexes);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.execute(sql, columnIndexes);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE, sql, start, error);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.execute(sql, columnNames);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.execute(sql, columnNames);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE, sql, start, error);
+        }
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate.setLargeMaxRows(max);
+        limitedRows = max > 0;
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        connection.flushWritesBefore(this, null);
+        if (!context.isEnabled()) {
+            try {
+                return delegate.executeLargeBatch();
+            } finally {
+                resetBatch();
+            }
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeLargeBatch();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_LARGE_BATCH, null, start, error);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeLargeUpdate(sql);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeLargeUpdate(sql);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_LARGE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_LARGE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeLargeUpdate(sql, columnIndexes);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeLargeUpdate(sql, columnIndexes);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_LARGE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        connection.flushWritesBefore(this, sql);
+        if (!context.isEnabled()) {
+            return delegate.executeLargeUpdate(sql, columnNames);
+        }
+        long start = beforeExecute();
+        Throwable error = null;
+        try {
+            return delegate.executeLargeUpdate(sql, columnNames);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            afterExecute(SqlMethodEnum.EXECUTE_LARGE_UPDATE, sql, start, error);
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,27 @@
+package com.hsqyz.minip6spy.sampling;
+
+/**
+ * 失败与慢执行始终保留，其余交给被包装的采样器决定。
+ */
+public final class KeepErrorsAndSlowSampler implements SqlSampler {
+
+    private final SqlSampler delegate;
+    private final long slowNanos;
+
+    /**
+     * @param delegate  普通执行使用的采样器
+     * @param slowNanos 慢执行阈值（纳秒），耗时大于等于该值必定采样
+     */
+    public KeepErrorsAndSlowSampler(SqlSampler delegate, long slowNanos) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate sampler must not be null");
+        }
+        this.delegate = delegate;
+        this.slowNanos = slowNanos;
+    }
+
+    @Override
+    public boolean sample(long elapsedNanos, Throwable error) {
+        return error != null || elapsedNanos >= slowNanos || delegate.sample(elapsedNanos, error);
+    }
+}
@@ -0,0 +1,30 @@
+package com.hsqyz.minip6spy.sampling;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 固定概率采样，随机数来自 {@link ThreadLocalRandom}，线程间无共享状态。
+ */
+public final class ProbabilitySampler implements SqlSampler {
+
+    private final double probability;
+
+    /**
+     * @param probability 采样概率，0~1；大于等于 1 全部采样，小于等于 0 全部丢弃
+     */
+    public ProbabilitySampler(double probability) {
+        if (Double.isNaN(probability)) {
+            throw new IllegalArgumentException("probability must be a number");
+        }
+        this.probability = probability;
+    }
+
+    @Override
+    public boolean sample(long elapsedNanos, Throwable error) {
+        return probability >= 1.0 || probability > 0.0 && ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+}
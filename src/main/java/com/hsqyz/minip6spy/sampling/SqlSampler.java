@@ -0,0 +1,52 @@
+package com.hsqyz.minip6spy.sampling;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 采样决策：在 execute* 结束、构建事件之前调用，返回 false 时不创建 {@link com.hsqyz.minip6spy.event.SqlEvent}，
+ * 也不包装结果集，未采样的执行只多一次计时与一次判断。
+ * 实现需线程安全且足够轻量，它运行在 JDBC 业务线程上。
+ */
+@FunctionalInterface
+public interface SqlSampler {
+
+    /**
+     * @param elapsedNanos 本次执行耗时（纳秒）
+     * @param error        执行异常，成功时为 null
+     * @return 是否生成事件并通知监听器
+     */
+    boolean sample(long elapsedNanos, Throwable error);
+
+    /**
+     * @return 全部采样
+     */
+    static SqlSampler always() {
+        return (elapsedNanos, error) -> true;
+    }
+
+    /**
+     * @param probability 采样概率，0~1
+     * @return 按固定概率采样
+     */
+    static SqlSampler probability(double probability) {
+        return new ProbabilitySampler(probability);
+    }
+
+    /**
+     * @param permitsPerSecond 每秒最多采样条数
+     * @return 令牌桶限速采样
+     */
+    static SqlSampler perSecond(int permitsPerSecond) {
+        return new TokenBucketSampler(permitsPerSecond);
+    }
+
+    /**
+     * 在当前采样器基础上始终保留失败与慢执行。
+     *
+     * @param slowThreshold 慢执行阈值
+     * @param unit          阈值单位
+     */
+    default SqlSampler keepErrorsAndSlowerThan(long slowThreshold, TimeUnit unit) {
+        return new KeepErrorsAndSlowSampler(this, unit.toNanos(slowThreshold));
+    }
+}
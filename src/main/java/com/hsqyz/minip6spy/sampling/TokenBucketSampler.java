@@ -0,0 +1,43 @@
+package com.hsqyz.minip6spy.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每秒 N 条的令牌桶采样，允许最多 1 秒的突发。
+ * 使用 GCRA 形式实现：只维护一个“理论到达时间”，令牌耗尽时直接拒绝、不做 CAS，
+ * 高并发下被拒绝的线程不会争用同一个原子变量。
+ */
+public final class TokenBucketSampler implements SqlSampler {
+
+    private final long intervalNanos; // 每个令牌的间隔
+    private final long burstNanos;    // 允许超前的最大时间（突发容量）
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond 每秒最多采样条数
+     */
+    public TokenBucketSampler(int permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.intervalNanos = Math.max(1, TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * permitsPerSecond;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    @Override
+    public boolean sample(long elapsedNanos, Throwable error) {
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat - now, 0) + intervalNanos; // 相对时间比较，避免 nanoTime 溢出
+            if (next > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, now + next)) {
+                return true;
+            }
+        }
+    }
+}
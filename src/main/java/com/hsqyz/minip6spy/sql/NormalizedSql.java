@@ -0,0 +1,74 @@
+package com.hsqyz.minip6spy.sql;
+
+import java.util.List;
+
+/**
+ * 归一化后的 SQL 及其 64 位指纹（不可变）。
+ * 字面量不同、IN 列表长度不同、空白或注释不同的 SQL 得到相同的文本与指纹。
+ * 语句类型与表名在首次访问时解析，随缓存条目复用，同一模板只解析一次。
+ */
+public final class NormalizedSql {
+    // 归一化文本，字面量替换为 ?
+    private final String sql;
+    // 归一化文本的 FNV-1a 64 位哈希
+    private final long fingerprint;
+    // 语句类型与表名，延迟解析；并发首次访问最多重复解析一次，结果相同
+    private volatile String verb;
+    private volatile List<String> tables;
+
+    NormalizedSql(String sql, long fingerprint) {
+        this.sql = sql;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return 归一化后的 SQL 文本
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return 稳定的 64 位指纹，跨进程、跨版本 JVM 一致
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return 16 位十六进制形式的指纹，便于日志与指标标签
+     */
+    public String getFingerprintHex() {
+        String hex = Long.toHexString(fingerprint);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * @return 语句类型（大写），如 SELECT / INSERT
+     */
+    public String getVerb() {
+        String v = verb;
+        if (v == null) {
+            v = SqlStructure.verb(sql);
+            verb = v;
+        }
+        return v;
+    }
+
+    /**
+     * @return 涉及的表名（小写、不含库名，只读）
+     */
+    public List<String> getTables() {
+        List<String> t = tables;
+        if (t == null) {
+            t = SqlStructure.tables(sql);
+            tables = t;
+        }
+        return t;
+    }
+
+    @Override
+    public String toString() {
+        return getFingerprintHex() + " " + sql;
+    }
+}
@@ -0,0 +1,278 @@
+package com.hsqyz.minip6spy.sql;
+
+/**
+ * 单趟扫描的 SQL 词法归一化，不使用正则、不构建语法树。
+ * - 单引号字符串、数字（含小数、科学计数、0x 十六进制）替换为 ?；
+ * - IN (?, ?, ...) 折叠为 IN (?)，不同长度的列表得到相同结果；
+ * - 去掉 -- / # 行注释与块注释，连续空白合并为一个空格并去掉首尾空白；
+ * - 双引号、反引号标识符与关键字原样保留。
+ */
+final class SqlLexer {
+
+    private SqlLexer() {
+    }
+
+    /**
+     * 归一化 SQL 文本。
+     */
+    static String normalize(String sql) {
+        int len = sql.length();
+        StringBuilder out = new StringBuilder(len);
+        boolean pendingSpace = false;
+        // IN 列表的状态：-1 表示不在 IN 列表中，否则为 '(' 之后的输出位置
+        int inListStart = -1;
+        boolean inListOnlyValues = false;
+        boolean lastWordIsIn = false;
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            // 空白与注释：只记录需要一个分隔空格
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+            if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-' || c == '#') {
+                i = skipLine(sql, i);
+                pendingSpace = true;
+                continue;
+            }
+            if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                i = skipBlock(sql, i + 2);
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && out.length() > 0) {
+                out.append(' ');
+            }
+            pendingSpace = false;
+
+            if (c == '\'') {
+                i = skipString(sql, i + 1);
+                out.append('?');
+                lastWordIsIn = false;
+                continue;
+            }
+            if (c == '-' && i + 1 < len && isDigit(sql.charAt(i + 1)) && isOperandPosition(out)) {
+                i++; // 负号属于字面量，-1 与 1 归一为同一个 ?
+                continue;
+            }
+            if (isDigit(c) || c == '.' && i + 1 < len && isDigit(sql.charAt(i + 1))) {
+                i = skipNumber(sql, i);
+                out.append('?');
+                lastWordIsIn = false;
+                continue;
+            }
+            if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i + 1, c);
+                out.append(sql, i, end);
+                i = end;
+                lastWordIsIn = false;
+                inListOnlyValues = false;
+                continue;
+            }
+            if (isIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < len && isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                lastWordIsIn = end - i == 2 && (c == 'i' || c == 'I')
+                        && (sql.charAt(i + 1) == 'n' || sql.charAt(i + 1) == 'N');
+                out.append(sql, i, end);
+                i = end;
+                inListOnlyValues = false;
+                continue;
+            }
+            if (c == '(') {
+                out.append(c);
+                if (lastWordIsIn) {
+                    inListStart = out.length();
+                    inListOnlyValues = true;
+                } else {
+                    inListStart = -1;
+                }
+            } else if (c == ')') {
+                if (inListStart >= 0 && inListOnlyValues && out.length() > inListStart) {
+                    out.setLength(inListStart);
+                    out.append('?');
+                }
+                inListStart = -1;
+                out.append(c);
+            } else {
+                out.append(c);
+                if (c != '?' && c != ',') {
+                    inListOnlyValues = false;
+                }
+            }
+            lastWordIsIn = false;
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * 仅合并连续空白为一个空格（等价于 {@code replaceAll("\\s+", " ")}），无需改动时返回原字符串。
+     */
+    static String collapseWhitespace(String sql) {
+        int len = sql.length();
+        int i = 0;
+        // 快速路径：没有需要替换的空白时直接返回
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c) && (c != ' ' || i + 1 < len && isWhitespace(sql.charAt(i + 1)))) {
+                break;
+            }
+            i++;
+        }
+        if (i == len) {
+            return sql;
+        }
+        StringBuilder out = new StringBuilder(len);
+        out.append(sql, 0, i);
+        boolean inSpace = false;
+        for (; i < len; i++) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c)) {
+                if (!inSpace) {
+                    out.append(' ');
+                    inSpace = true;
+                }
+            } else {
+                out.append(c);
+                inSpace = false;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 把合并空白后的 SQL 直接追加到 out，不产生中间字符串。
+     */
+    static void appendCollapsed(StringBuilder out, String sql) {
+        boolean inSpace = false;
+        for (int i = 0, len = sql.length(); i < len; i++) {
+            char c = sql.charAt(i);
+            if (isWhitespace(c)) {
+                if (!inSpace) {
+                    out.append(' ');
+                    inSpace = true;
+                }
+            } else {
+                out.append(c);
+                inSpace = false;
+            }
+        }
+    }
+
+    private static int skipLine(String sql, int i) {
+        int len = sql.length();
+        while (i < len && sql.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipBlock(String sql, int i) {
+        int len = sql.length();
+        while (i + 1 < len) {
+            if (sql.charAt(i) == '*' && sql.charAt(i + 1) == '/') {
+                return i + 2;
+            }
+            i++;
+        }
+        return len; // 未闭合的注释吞掉剩余部分
+    }
+
+    /**
+     * 跳过单引号字符串，支持 '' 与反斜杠转义。
+     */
+    private static int skipString(String sql, int i) {
+        int len = sql.length();
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'') {
+                if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return len;
+    }
+
+    private static int skipQuoted(String sql, int i, char quote) {
+        int len = sql.length();
+        while (i < len) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < len && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return len;
+    }
+
+    private static int skipNumber(String sql, int i) {
+        int len = sql.length();
+        if (sql.charAt(i) == '0' && i + 1 < len && (sql.charAt(i + 1) == 'x' || sql.charAt(i + 1) == 'X')) {
+            i += 2;
+            while (i < len && Character.digit(sql.charAt(i), 16) >= 0) {
+                i++;
+            }
+            return i;
+        }
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < len
+                    && (isDigit(sql.charAt(i + 1)) || (sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')
+                    && i + 2 < len && isDigit(sql.charAt(i + 2)))) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * 当前位置是否期望一个操作数（前面是运算符、逗号、左括号或语句开头）。
+     */
+    private static boolean isOperandPosition(StringBuilder out) {
+        int i = out.length() - 1;
+        if (i >= 0 && out.charAt(i) == ' ') {
+            i--;
+        }
+        if (i < 0) {
+            return true;
+        }
+        char prev = out.charAt(i);
+        return prev == '(' || prev == ',' || prev == '=' || prev == '<' || prev == '>'
+                || prev == '+' || prev == '-' || prev == '*' || prev == '/';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$' || c == '@' || c > 0x7F;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+}
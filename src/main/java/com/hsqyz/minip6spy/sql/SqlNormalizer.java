@@ -0,0 +1,157 @@
+package com.hsqyz.minip6spy.sql;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SQL 归一化与指纹计算入口，结果缓存在 {@link ConcurrentHashMap} 中，重复出现的 SQL 文本无需再次扫描。
+ * - 命中路径无锁：一次哈希查找，条目的访问位已置位时不写任何共享状态，热点 SQL 不争用监视器；
+ * - 超出上限时按 CLOCK（二次机会）近似 LRU 淘汰：指针沿哈希表循环，清除访问位、移除未被再次访问的条目；
+ *   淘汰由插入线程 tryLock 后执行，拿不到锁时直接返回，条目数可能短暂略超上限；
+ * - 超过 {@link #MAX_CACHEABLE_LENGTH} 的超长 SQL 每次重新计算，避免大文本占满缓存；
+ * - {@link #shared()} 为全局默认实例，{@link com.hsqyz.minip6spy.event.SqlEvent#getFingerprint()} 使用它。
+ */
+public final class SqlNormalizer {
+
+    // 默认缓存条目数
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    // 可缓存的原始 SQL 最大长度
+    public static final int MAX_CACHEABLE_LENGTH = 8192;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ConcurrentHashMap<String, Node> cache;
+    private final int maxEntries;
+    private final ReentrantLock evictLock = new ReentrantLock();
+    private Iterator<Node> hand; // CLOCK 指针，持有 evictLock 时访问
+
+    /**
+     * @param maxEntries 缓存总条目数上限
+     */
+    public SqlNormalizer(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.cache = new ConcurrentHashMap<>(Math.min(maxEntries, 1024) * 4 / 3 + 1);
+    }
+
+    /**
+     * @return 全局共享的默认实例（{@link #DEFAULT_MAX_ENTRIES} 条缓存）
+     */
+    public static SqlNormalizer shared() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 归一化 SQL 并计算指纹，命中缓存时不再扫描。
+     */
+    public NormalizedSql normalize(String sql) {
+        if (sql.length() > MAX_CACHEABLE_LENGTH) {
+            return compute(sql);
+        }
+        Node node = cache.get(sql); // String 自带缓存的哈希，重复文本不重复计算
+        if (node != null) {
+            if (!node.referenced) {
+                node.referenced = true; // 已置位时不写，避免热点条目所在缓存行来回失效
+            }
+            return node.value;
+        }
+        NormalizedSql computed = compute(sql); // 并发首次访问最多重复计算一次，结果相同
+        Node existing = cache.putIfAbsent(sql, new Node(computed));
+        if (existing != null) {
+            return existing.value;
+        }
+        if (cache.size() > maxEntries) {
+            evict();
+        }
+        return computed;
+    }
+
+    /**
+     * @return 当前缓存条目数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * CLOCK 淘汰：访问位为真的条目清零后跳过，为假的移除，直到回到上限以内；
+     * 最多扫描两圈，其余线程此时正在淘汰则直接返回。
+     */
+    private void evict() {
+        if (!evictLock.tryLock()) {
+            return;
+        }
+        try {
+            int budget = 2 * cache.size();
+            while (cache.size() > maxEntries && budget-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = cache.values().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Node node = hand.next();
+                if (node.referenced) {
+                    node.referenced = false;
+                } else {
+                    hand.remove();
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    /**
+     * 只合并连续空白为一个空格，不替换字面量；用于日志展示。
+     */
+    public static String collapseWhitespace(String sql) {
+        return SqlLexer.collapseWhitespace(sql);
+    }
+
+    /**
+     * 合并空白后直接追加到 out，用于复用缓冲区的日志格式化。
+     */
+    public static void appendCollapsedWhitespace(StringBuilder out, String sql) {
+        SqlLexer.appendCollapsed(out, sql);
+    }
+
+    /**
+     * 计算任意文本的 FNV-1a 64 位哈希（按 UTF-16 字符）。
+     */
+    public static long fingerprint(String text) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash ^= c & 0xFF;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static NormalizedSql compute(String sql) {
+        String normalized = SqlLexer.normalize(sql);
+        return new NormalizedSql(normalized, fingerprint(normalized));
+    }
+
+    /**
+     * 缓存条目：归一化结果与 CLOCK 访问位。访问位是否及时可见只影响淘汰精度，不影响正确性。
+     */
+    private static final class Node {
+        final NormalizedSql value;
+        volatile boolean referenced;
+
+        Node(NormalizedSql value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Holder {
+        private static final SqlNormalizer INSTANCE = new SqlNormalizer(DEFAULT_MAX_ENTRIES);
+    }
+}
@@ -0,0 +1,173 @@
+package com.hsqyz.minip6spy.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 从归一化 SQL 中提取语句类型与涉及的表名，只做浅层词法分析。
+ * - 语句类型取第一个单词（大写），如 SELECT / INSERT / UPDATE / DELETE；
+ * - 表名取 FROM / JOIN / STRAIGHT_JOIN / INTO / UPDATE / DELETE / TABLE 之后的标识符，支持别名；
+ *   FROM、UPDATE 与 DELETE 之后支持逗号分隔的多表（MySQL 多表 UPDATE / DELETE）；
+ * - 表名统一小写、去掉引号与库名前缀。
+ * 输入应为 {@link SqlLexer#normalize(String)} 的结果（已无注释与字面量）。
+ */
+final class SqlStructure {
+
+    private SqlStructure() {
+    }
+
+    /**
+     * @return 语句类型（大写），无法识别时为空串
+     */
+    static String verb(String sql) {
+        int len = sql.length();
+        int i = 0;
+        while (i < len && (sql.charAt(i) == '(' || sql.charAt(i) == ' ')) {
+            i++;
+        }
+        int start = i;
+        while (i < len && Character.isLetter(sql.charAt(i))) {
+            i++;
+        }
+        return sql.substring(start, i).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @return 涉及的表名（小写、去重、按出现顺序）
+     */
+    static List<String> tables(String sql) {
+        List<String> tokens = tokenize(sql);
+        List<String> tables = new ArrayList<>(2);
+        for (int i = 0; i < tokens.size(); i++) {
+            String kw = tokens.get(i).toUpperCase(Locale.ROOT);
+            if (!"FROM".equals(kw) && !"JOIN".equals(kw) && !"STRAIGHT_JOIN".equals(kw) && !"INTO".equals(kw)
+                    && !"UPDATE".equals(kw) && !"DELETE".equals(kw) && !"TABLE".equals(kw)) {
+                continue;
+            }
+            boolean list = "FROM".equals(kw) || "UPDATE".equals(kw) || "DELETE".equals(kw);
+            int j = i + 1;
+            while (j < tokens.size() && isModifier(tokens.get(j))) {
+                j++; // UPDATE LOW_PRIORITY IGNORE t、DELETE QUICK FROM t 等
+            }
+            while (j < tokens.size()) {
+                String name = tokens.get(j);
+                if (!isIdentifier(name)) {
+                    break; // 子查询或其它结构
+                }
+                String table = unqualify(name);
+                if (!tables.contains(table)) {
+                    tables.add(table);
+                }
+                j++;
+                // 跳过别名：AS x 或直接跟随的非关键字标识符
+                if (j < tokens.size() && "AS".equalsIgnoreCase(tokens.get(j))) {
+                    j += 2;
+                } else if (j < tokens.size() && isIdentifier(tokens.get(j)) && !isClauseKeyword(tokens.get(j))) {
+                    j++;
+                }
+                if (j < tokens.size() && ",".equals(tokens.get(j)) && list) {
+                    j++;
+                    continue;
+                }
+                break;
+            }
+        }
+        return tables.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(tables);
+    }
+
+    /**
+     * 拆分为标识符（含引号、点号）与单字符符号。
+     */
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == ' ') {
+                i++;
+            } else if (isNameChar(c)) {
+                int start = i;
+                while (i < len && isNameChar(sql.charAt(i))) {
+                    char q = sql.charAt(i);
+                    if (q == '`' || q == '"') {
+                        int close = sql.indexOf(q, i + 1);
+                        i = close < 0 ? len : close + 1;
+                    } else {
+                        i++;
+                    }
+                }
+                tokens.add(sql.substring(start, i));
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.' || c == '`' || c == '"';
+    }
+
+    private static boolean isIdentifier(String token) {
+        char c = token.charAt(0);
+        return (Character.isLetter(c) || c == '_' || c == '`' || c == '"') && !isClauseKeyword(token);
+    }
+
+    private static boolean isClauseKeyword(String token) {
+        switch (token.toUpperCase(Locale.ROOT)) {
+            case "SELECT":
+            case "WHERE":
+            case "SET":
+            case "VALUES":
+            case "VALUE":
+            case "ON":
+            case "USING":
+            case "FROM":
+            case "JOIN":
+            case "STRAIGHT_JOIN":
+            case "NATURAL":
+            case "LEFT":
+            case "RIGHT":
+            case "INNER":
+            case "OUTER":
+            case "CROSS":
+            case "GROUP":
+            case "ORDER":
+            case "LIMIT":
+            case "HAVING":
+            case "UNION":
+            case "FOR":
+            case "IF":
+            case "AS":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isModifier(String token) {
+        switch (token.toUpperCase(Locale.ROOT)) {
+            case "LOW_PRIORITY":
+            case "HIGH_PRIORITY":
+            case "DELAYED":
+            case "QUICK":
+            case "IGNORE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String unqualify(String name) {
+        int dot = name.lastIndexOf('.');
+        String table = dot >= 0 ? name.substring(dot + 1) : name;
+        if (table.length() >= 2 && (table.charAt(0) == '`' || table.charAt(0) == '"')) {
+            table = table.substring(1, table.length() - 1);
+        }
+        return table.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hsqyz.minip6spy.sql;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 模板字典：每个不同的归一化 SQL 只保存一份文本并分配一个 int 编号，
+ * 事件、日志与内存缓冲可以只记录编号（加参数），字典另行输出（见 {@link #snapshot()} 与 {@link RegistrationListener}）。
+ * - 按归一化文本登记，字面量不同的 Statement 与同一模板的 PreparedStatement 共用编号；
+ * - 编号从 1 开始单调递增、不复用：模板在字典中期间编号不变，被淘汰后再次出现会分配新编号，旧编号不会指向别的模板；
+ * - 条目数有上限，与 {@link SqlNormalizer} 相同按文本分 16 段各自 LRU 淘汰；
+ * - 编号到文本的反查为无锁的 {@link ConcurrentHashMap}。
+ */
+public final class SqlTemplateRegistry {
+
+    // 默认模板数上限
+    public static final int DEFAULT_MAX_TEMPLATES = 4096;
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final ConcurrentHashMap<Integer, String> byId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+    private final RegistrationListener listener;
+
+    public SqlTemplateRegistry() {
+        this(DEFAULT_MAX_TEMPLATES, null);
+    }
+
+    /**
+     * @param maxTemplates 模板总数上限
+     * @param listener     新模板登记后的回调（在登记线程上、锁外调用），可为 null
+     */
+    public SqlTemplateRegistry(int maxTemplates, RegistrationListener listener) {
+        if (maxTemplates < SEGMENTS) {
+            throw new IllegalArgumentException("maxTemplates must be at least " + SEGMENTS);
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxTemplates / SEGMENTS);
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * 登记原始 SQL 对应的模板。
+     *
+     * @return 模板编号（正数）
+     */
+    public int register(String sql) {
+        return idOf(SqlNormalizer.shared().normalize(sql).getSql());
+    }
+
+    /**
+     * 登记已归一化的模板文本，已存在时只刷新其 LRU 位置。
+     *
+     * @return 模板编号（正数）
+     */
+    public int idOf(String template) {
+        int h = template.hashCode();
+        Segment segment = segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+        int id;
+        synchronized (segment) {
+            Integer existing = segment.get(template);
+            if (existing != null) {
+                return existing;
+            }
+            id = nextId.incrementAndGet();
+            byId.put(id, template);
+            segment.put(template, id); // 可能淘汰本段最久未用的模板
+        }
+        if (listener != null) {
+            listener.onRegistered(id, template);
+        }
+        return id;
+    }
+
+    /**
+     * @return 编号对应的模板文本；未登记或已被淘汰时返回 null
+     */
+    public String templateOf(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return 当前字典（编号 → 模板）的只读副本
+     */
+    public Map<Integer, String> snapshot() {
+        return Collections.unmodifiableMap(new HashMap<>(byId));
+    }
+
+    /**
+     * @return 当前模板数
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * @return 超出上限被淘汰的模板数
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 新模板登记回调，供日志等输出端在首次出现时写出字典条目。
+     */
+    @FunctionalInterface
+    public interface RegistrationListener {
+        void onRegistered(int id, String template);
+    }
+
+    /**
+     * 单个 LRU 分段，由调用方对实例加锁；淘汰时同步移除反查表中的条目。
+     */
+    private final class Segment extends LinkedHashMap<String, Integer> {
+        private final int maxEntries;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            if (size() <= maxEntries) {
+                return false;
+            }
+            byId.remove(eldest.getValue());
+            evictions.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hsqyz.minip6spy.stats;
+
+/**
+ * {@link LatencyHistogram} 的只读快照，提供计数与分位数查询。
+ * 分位数取所在桶的中点，误差受桶宽限制（相对误差约 6%）。
+ */
+public final class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long total;
+
+    HistogramSnapshot(long[] counts) {
+        this.counts = counts;
+        long sum = 0;
+        for (long c : counts) {
+            sum += c;
+        }
+        this.total = sum;
+    }
+
+    /**
+     * @return 样本总数
+     */
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * 查询分位数。
+     *
+     * @param quantile 0~1 之间的分位，如 0.99
+     * @return 对应耗时（纳秒），无样本返回 0
+     */
+    public long valueAt(double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        double q = Math.min(1.0, Math.max(0.0, quantile));
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lower = LatencyHistogram.bucketLowerBound(i);
+                long upper = LatencyHistogram.bucketUpperBound(i);
+                return lower + (upper - lower) / 2;
+            }
+        }
+        return LatencyHistogram.bucketUpperBound(counts.length - 1);
+    }
+
+    /**
+     * @return 小于等于给定耗时的样本数，用于导出累积分布
+     */
+    public long countAtOrBelow(long nanos) {
+        long seen = 0;
+        for (int i = 0; i < counts.length && LatencyHistogram.bucketUpperBound(i) <= nanos; i++) {
+            seen += counts[i];
+        }
+        return seen;
+    }
+}
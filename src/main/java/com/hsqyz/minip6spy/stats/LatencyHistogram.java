@@ -0,0 +1,120 @@
+package com.hsqyz.minip6spy.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 无锁分段的对数线性延迟直方图（纳秒）。
+ * - 桶划分：每个 2 的幂区间再线性切成 8 份，相对误差不超过 12.5%，覆盖 0 ~ 2^40 ns（约 18 分钟）；
+ * - 分段计数：初始只有一段，某段出现 CAS 冲突时按需扩容（上限为 CPU 数），
+ *   不同线程落到不同段，热点模板在多线程下不会争用同一缓存行；
+ * - 读取时把所有段相加得到 {@link HistogramSnapshot}，写入方不受影响。
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BITS = 3;
+    static final int SUB_COUNT = 1 << SUB_BITS;
+    static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+    private static final int MAX_STRIPES = ceilPowerOfTwo(Runtime.getRuntime().availableProcessors());
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[]{seed()});
+
+    private final AtomicReference<AtomicLongArray[]> stripes =
+            new AtomicReference<>(new AtomicLongArray[]{new AtomicLongArray(BUCKETS)});
+
+    /**
+     * 记录一个耗时样本，负数按 0 处理，超出上限计入最后一个桶。
+     */
+    public void record(long nanos) {
+        int bucket = bucketIndex(nanos);
+        AtomicLongArray[] current = stripes.get();
+        int[] probe = PROBE.get();
+        AtomicLongArray stripe = current[probe[0] & (current.length - 1)];
+        long value = stripe.get(bucket);
+        if (!stripe.compareAndSet(bucket, value, value + 1)) {
+            // 发生争用：换一个探针并尝试扩容，再用原子加保证不丢样本
+            probe[0] = nextProbe(probe[0]);
+            grow(current);
+            stripe.incrementAndGet(bucket);
+        }
+    }
+
+    /**
+     * @return 所有分段合并后的快照
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (AtomicLongArray stripe : stripes.get()) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return new HistogramSnapshot(counts);
+    }
+
+    private void grow(AtomicLongArray[] current) {
+        if (current.length >= MAX_STRIPES) {
+            return;
+        }
+        AtomicLongArray[] next = new AtomicLongArray[current.length << 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        for (int i = current.length; i < next.length; i++) {
+            next[i] = new AtomicLongArray(BUCKETS);
+        }
+        stripes.compareAndSet(current, next); // 失败说明其它线程已扩容
+    }
+
+    /**
+     * 计算样本所在桶：小于 8 的值线性映射，其余按最高位指数 + 次高 3 位定位。
+     */
+    static int bucketIndex(long nanos) {
+        if (nanos < SUB_COUNT) {
+            return nanos < 0 ? 0 : (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) - SUB_COUNT;
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * @return 桶的下界（含）
+     */
+    static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        int sub = bucket % SUB_COUNT;
+        return (long) (SUB_COUNT + sub) << (exponent - SUB_BITS);
+    }
+
+    /**
+     * @return 桶的上界（含）
+     */
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        return bucketLowerBound(bucket) + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+    private static int seed() {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return h == 0 ? 1 : h;
+    }
+
+    private static int nextProbe(int probe) {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+
+    private static int ceilPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hsqyz.minip6spy.stats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个 SQL 模板在一个统计窗口内的聚合结果（不可变）。
+ * 耗时单位均为纳秒，分位数来自对数线性直方图。
+ */
+public final class SqlStatsSnapshot {
+    // SQL 模板（预编译 SQL 或普通 SQL 文本）
+    private final String template;
+    // 执行次数
+    private final long count;
+    // 失败次数
+    private final long errorCount;
+    // 总耗时
+    private final long totalNanos;
+    // 最小耗时
+    private final long minNanos;
+    // 最大耗时
+    private final long maxNanos;
+    // 耗时分布
+    private final HistogramSnapshot histogram;
+
+    SqlStatsSnapshot(String template, long count, long errorCount, long totalNanos,
+                     long minNanos, long maxNanos, HistogramSnapshot histogram) {
+        this.template = template;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.totalNanos = totalNanos;
+        this.minNanos = count == 0 ? 0 : minNanos;
+        this.maxNanos = count == 0 ? 0 : maxNanos;
+        this.histogram = histogram;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMinNanos() {
+        return minNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return 平均耗时（纳秒）
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getP50Nanos() {
+        return histogram.valueAt(0.50);
+    }
+
+    public long getP95Nanos() {
+        return histogram.valueAt(0.95);
+    }
+
+    public long getP99Nanos() {
+        return histogram.valueAt(0.99);
+    }
+
+    public long getP999Nanos() {
+        return histogram.valueAt(0.999);
+    }
+
+    /**
+     * @return 完整的耗时分布快照，可查询任意分位
+     */
+    public HistogramSnapshot getHistogram() {
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d errors=%d total=%dms mean=%dus p50=%dus p95=%dus p99=%dus p999=%dus max=%dus | %s",
+                count, errorCount, TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                micros(getMeanNanos()), micros(getP50Nanos()), micros(getP95Nanos()),
+                micros(getP99Nanos()), micros(getP999Nanos()), micros(maxNanos), template);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
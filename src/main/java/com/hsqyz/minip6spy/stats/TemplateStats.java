@@ -0,0 +1,47 @@
+package com.hsqyz.minip6spy.stats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个模板的实时计数器，全部基于 {@link LongAdder} / {@link LongAccumulator} 与分段直方图，写入无锁。
+ */
+public final class TemplateStats {
+
+    private final String template;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator minNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public TemplateStats(String template) {
+        this.template = template;
+    }
+
+    /**
+     * 记录一次执行。
+     *
+     * @param elapsedNanos 耗时（纳秒）
+     * @param success      是否成功
+     */
+    public void record(long elapsedNanos, boolean success) {
+        count.increment();
+        if (!success) {
+            errors.increment();
+        }
+        totalNanos.add(elapsedNanos);
+        minNanos.accumulate(elapsedNanos);
+        maxNanos.accumulate(elapsedNanos);
+        histogram.record(elapsedNanos);
+    }
+
+    /**
+     * @return 当前累计值的快照
+     */
+    public SqlStatsSnapshot snapshot() {
+        return new SqlStatsSnapshot(template, count.sum(), errors.sum(), totalNanos.sum(),
+                minNanos.get(), maxNanos.get(), histogram.snapshot());
+    }
+}
@@ -0,0 +1,48 @@
+package com.hsqyz.minip6spy.stmtcache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 预编译语句缓存：对连接池未提供语句缓存的场景，在代理层按连接复用 PreparedStatement。
+ * 同一连接上以相同 SQL、结果集类型、并发模式与可保持性 prepareStatement 时，优先取回此前 close() 归还的语句，
+ * 省去驱动的重复预编译（服务端预编译时即一次往返）与代理对象的重复创建。
+ * 每个连接的空闲语句由 {@link com.hsqyz.minip6spy.proxy.SpyConnection} 自己维护（最近归还的优先保留），
+ * 这里只保存配置与跨连接汇总的统计。
+ * 语义约定：
+ * - 只缓存 prepareStatement(sql) 及指定结果集类型 / 并发 / 可保持性的重载，要求返回自增键或指定列的重载与 prepareCall 不缓存；
+ * - close() 是逻辑关闭：写出缓冲、关闭当前结果集、清空参数与批量后归还，isClosed() 返回 true；
+ *   fetchSize、maxRows、queryTimeout 等语句设置保留到下次复用；
+ * - 归还后不应继续使用原引用，代理层不做检查；
+ * - 连接关闭时物理关闭该连接缓存的全部语句。
+ */
+public final class StatementCache {
+
+    private final StatementCacheOptions options;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StatementCache(StatementCacheOptions options) {
+        this.options = options;
+    }
+
+    public StatementCacheOptions getOptions() {
+        return options;
+    }
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public void evicted() {
+        evictions.increment();
+    }
+
+    public StatementCacheStats getStats() {
+        return new StatementCacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+}
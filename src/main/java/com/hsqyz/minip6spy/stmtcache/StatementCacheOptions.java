@@ -0,0 +1,43 @@
+package com.hsqyz.minip6spy.stmtcache;
+
+/**
+ * 语句缓存配置：每个连接缓存的预编译语句上限。
+ */
+public final class StatementCacheOptions {
+
+    private final int maxStatements;
+
+    private StatementCacheOptions(Builder builder) {
+        this.maxStatements = builder.maxStatements;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public static final class Builder {
+        private int maxStatements = 64;
+
+        private Builder() {
+        }
+
+        /**
+         * 每个连接最多缓存的空闲语句数（默认 64），超出时物理关闭最久未归还的语句。
+         */
+        public Builder maxStatements(int maxStatements) {
+            if (maxStatements < 1) {
+                throw new IllegalArgumentException("maxStatements must be positive: " + maxStatements);
+            }
+            this.maxStatements = maxStatements;
+            return this;
+        }
+
+        public StatementCacheOptions build() {
+            return new StatementCacheOptions(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.hsqyz.minip6spy.stmtcache;
+
+/**
+ * 语句缓存的统计快照，汇总同一上下文的所有连接。
+ */
+public final class StatementCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    StatementCacheStats(long hits, long misses, long evictions) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * @return 命中次数（prepareStatement 复用了归还的语句）
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return 未命中次数（向数据库新建了预编译语句）
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return 命中率，尚无 prepareStatement 时为 0
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    /**
+     * @return 超出上限或被同键语句替换而物理关闭的语句数
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheStats{hits=" + hits + ", misses=" + misses
+                + ", hitRatio=" + String.format("%.3f", getHitRatio())
+                + ", evictions=" + evictions + '}';
+    }
+}
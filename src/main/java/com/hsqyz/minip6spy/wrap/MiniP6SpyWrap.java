@@ -1,17 +1,25 @@
 package com.hsqyz.minip6spy.wrap;
 
 import com.hsqyz.minip6spy.datasource.SpyDataSource;
+import com.hsqyz.minip6spy.dispatch.AsyncDispatchOptions;
+import com.hsqyz.minip6spy.filter.SqlEventFilter;
 import com.hsqyz.minip6spy.listener.P6SpySqlListener;
 import com.hsqyz.minip6spy.listener.Slf4jSqlListener;
 import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+import com.hsqyz.minip6spy.sampling.SqlSampler;
 
 import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 入口工具类，提供便捷的 DataSource 包装能力。
  * - wrap：默认挂载 SLF4J 监听器
  * - wrap(DataSource, listeners...)：自定义监听器组合
  * - wrapWithP6FormatConsole：仿 p6spy 控制台格式监听
+ * - wrapAsync：监听器在后台线程执行，JDBC 线程只负责入队
+ * - wrapSampled：按采样器筛选，未采样的执行不构建事件
+ * - wrapFiltered：按过滤条件筛选，监听器只看到关心的事件
  */
 public final class MiniP6SpyWrap {
 
@@ -39,5 +47,41 @@ public final class MiniP6SpyWrap {
         return wrap(delegate, new P6SpySqlListener());
     }
 
-}
+    /**
+     * 异步分发包装：监听器在后台线程回调，慢日志不再叠加到 SQL 耗时上。
+     * 使用完毕后可调用返回值的 {@link SpyDataSource#close()} 等待剩余事件输出。
+     */
+    public static SpyDataSource wrapAsync(DataSource delegate, AsyncDispatchOptions options, SqlListener... listeners) {
+        return SpyDataSource.wrap(delegate, SpyContext.builder()
+                .listeners(listeners)
+                .asyncDispatch(options)
+                .build());
+    }
 
+    /**
+     * 采样包装：只有被采样的执行才会构建事件并回调监听器。
+     */
+    public static DataSource wrapSampled(DataSource delegate, SqlSampler sampler, SqlListener... listeners) {
+        return SpyDataSource.wrapSampled(delegate, sampler, listeners);
+    }
+
+    /**
+     * 按概率采样，失败与慢执行（耗时不低于 slowMillis）始终保留。
+     */
+    public static DataSource wrapSampled(DataSource delegate, double probability, long slowMillis, SqlListener... listeners) {
+        return wrapSampled(delegate, SqlSampler.probability(probability)
+                .keepErrorsAndSlowerThan(slowMillis, TimeUnit.MILLISECONDS), listeners);
+    }
+
+    /**
+     * 过滤包装：事件先经过 filter 判断一次，通过的才分发给监听器。
+     * 使用完毕后可调用返回值的 {@link SpyDataSource#close()}。
+     */
+    public static SpyDataSource wrapFiltered(DataSource delegate, SqlEventFilter filter, SqlListener... listeners) {
+        return SpyDataSource.wrap(delegate, SpyContext.builder()
+                .listeners(listeners)
+                .filter(filter)
+                .build());
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.hsqyz.minip6spy.writebehind;
+
+import com.hsqyz.minip6spy.sql.NormalizedSql;
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 写缓冲（write-behind）：事务内对同一预编译语句反复 executeUpdate 时，把每行加入 JDBC 批量而不立即执行，
+ * 之后以一次 executeBatch 写出。批量能否真正省去逐行的网络往返取决于驱动：MySQL Connector/J 须在 URL 上设置
+ * {@code rewriteBatchedStatements=true}，否则驱动仍逐条发送。
+ * 缓冲由各连接自己维护（见 {@link com.hsqyz.minip6spy.proxy.SpyConnection}），这里只负责判定与统计。
+ * 语义约定：
+ * - 只在关闭自动提交的连接上、对 prepareStatement(sql) 创建且未要求返回自增键的语句生效；
+ * - 默认只缓冲 INSERT / REPLACE；UPDATE / DELETE 的影响行数常被用于业务判断，须显式列入
+ *   {@link WriteBehindOptions.Builder#template(String...)} 才缓冲。INSERT IGNORE、ON DUPLICATE KEY UPDATE
+ *   等返回值有含义的插入同样会被缓冲，调用方不应依赖其返回值；
+ * - 被缓冲的 executeUpdate 返回 1（假定影响一行），真实影响行数只体现在写出时的批量事件中；
+ * - 同一连接同时只缓冲一个语句；以下情况先写出缓冲：达到 {@link WriteBehindOptions#getMaxBatchSize()}、commit、
+ *   setAutoCommit(true)、设置保存点、读取缓冲涉及的表、执行任何其它写语句或无法解析的语句、
+ *   缓冲语句自身的其它操作（查询、addBatch、getGeneratedKeys、关闭等）以及关闭连接；
+ * - rollback 与回滚到保存点直接丢弃缓冲的行；写出失败时异常（通常为 {@link java.sql.BatchUpdateException}）从触发写出的调用抛出，
+ *   例如 commit 失败时事务未提交，应由调用方回滚。
+ */
+public final class WriteBehind {
+
+    /**
+     * 写出缓冲的原因。
+     */
+    public enum FlushReason {
+        /** 缓冲行数达到上限 */
+        SIZE,
+        /** commit 或切回自动提交 */
+        COMMIT,
+        /** 读取缓冲涉及的表 */
+        READ,
+        /** 其它语句执行或缓冲语句自身的其它操作 */
+        STATEMENT,
+        /** 关闭连接 */
+        CLOSE
+    }
+
+    private final WriteBehindOptions options;
+    private final LongAdder deferredRows = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder discardedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder[] flushes = new LongAdder[FlushReason.values().length];
+
+    public WriteBehind(WriteBehindOptions options) {
+        this.options = options;
+        for (int i = 0; i < flushes.length; i++) {
+            flushes[i] = new LongAdder();
+        }
+    }
+
+    public WriteBehindOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return 可缓冲时返回写入的表名，否则返回 null（不是写语句、UPDATE / DELETE 不在允许名单或解析不出表名）
+     */
+    public List<String> tablesFor(String sql) {
+        return sql == null ? null : tablesFor(SqlNormalizer.shared().normalize(sql));
+    }
+
+    /**
+     * 同 {@link #tablesFor(String)}，使用已计算的归一化结果（预编译语句按语句缓存）。
+     */
+    public List<String> tablesFor(NormalizedSql normalized) {
+        if (normalized == null) {
+            return null;
+        }
+        switch (normalized.getVerb()) {
+            case "INSERT":
+            case "REPLACE":
+                break;
+            case "UPDATE":
+            case "DELETE":
+                if (!options.getTemplates().contains(normalized.getSql())) {
+                    return null;
+                }
+                break;
+            default:
+                return null;
+        }
+        List<String> tables = normalized.getTables();
+        return tables.isEmpty() ? null : tables;
+    }
+
+    /**
+     * 其它语句执行前判断是否需要先写出缓冲：只读且与缓冲表无交集的查询不必写出。
+     *
+     * @param sql           即将执行的 SQL，未知时为 null
+     * @param pendingTables 缓冲涉及的表
+     * @return 写出原因；不必写出时返回 null
+     */
+    public FlushReason flushReasonBefore(String sql, List<String> pendingTables) {
+        if (sql == null) {
+            return FlushReason.STATEMENT;
+        }
+        NormalizedSql normalized = SqlNormalizer.shared().normalize(sql);
+        if (!"SELECT".equals(normalized.getVerb())) {
+            return FlushReason.STATEMENT; // 写语句之间可能有外键或触发器依赖，保持原有顺序
+        }
+        List<String> tables = normalized.getTables();
+        if (tables.isEmpty()) {
+            return FlushReason.READ;
+        }
+        for (String table : tables) {
+            if (pendingTables.contains(table)) {
+                return FlushReason.READ;
+            }
+        }
+        return null;
+    }
+
+    public void rowDeferred() {
+        deferredRows.increment();
+    }
+
+    public void flushed(int rows, FlushReason reason) {
+        flushedRows.add(rows);
+        flushes[reason.ordinal()].increment();
+    }
+
+    /**
+     * 写出的 executeBatch 抛出异常时调用；这些行不计入写出统计。
+     */
+    public void flushFailed(int rows) {
+        failedRows.add(rows);
+        failedFlushes.increment();
+    }
+
+    public void discarded(int rows) {
+        discardedRows.add(rows);
+    }
+
+    public WriteBehindStats getStats() {
+        long[] byReason = new long[flushes.length];
+        for (int i = 0; i < byReason.length; i++) {
+            byReason[i] = flushes[i].sum();
+        }
+        return new WriteBehindStats(deferredRows.sum(), flushedRows.sum(), discardedRows.sum(),
+                failedRows.sum(), failedFlushes.sum(), byReason);
+    }
+}
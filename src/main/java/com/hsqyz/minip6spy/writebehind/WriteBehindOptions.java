@@ -0,0 +1,73 @@
+package com.hsqyz.minip6spy.writebehind;
+
+import com.hsqyz.minip6spy.sql.SqlNormalizer;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 写缓冲配置：单批最大行数与 UPDATE / DELETE 的模板允许名单。
+ * 对 MySQL 须在 JDBC URL 上设置 {@code rewriteBatchedStatements=true}，否则 Connector/J 仍逐条发送批量中的语句，
+ * 写缓冲只改变执行时机而不减少网络往返。
+ */
+public final class WriteBehindOptions {
+
+    private final int maxBatchSize;
+    private final Set<String> templates;
+
+    private WriteBehindOptions(Builder builder) {
+        this.maxBatchSize = builder.maxBatchSize;
+        this.templates = Collections.unmodifiableSet(new HashSet<>(builder.templates));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * @return 允许缓冲的 UPDATE / DELETE 模板（归一化文本）；INSERT / REPLACE 不受名单限制
+     */
+    public Set<String> getTemplates() {
+        return templates;
+    }
+
+    public static final class Builder {
+        private int maxBatchSize = 100;
+        private final Set<String> templates = new HashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 缓冲行数达到该值时立即写出（默认 100）。
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * 允许缓冲的 UPDATE / DELETE，可多次调用叠加；未列入的 UPDATE / DELETE 直接执行并返回真实影响行数。
+         * INSERT / REPLACE 默认缓冲，无需列入。
+         * 依赖 executeUpdate 真实返回值的语句（如乐观锁版本检查、先更新再插入）不要放入名单。
+         */
+        public Builder template(String... sqls) {
+            for (String sql : sqls) {
+                templates.add(SqlNormalizer.shared().normalize(sql).getSql());
+            }
+            return this;
+        }
+
+        public WriteBehindOptions build() {
+            return new WriteBehindOptions(this);
+        }
+    }
+}
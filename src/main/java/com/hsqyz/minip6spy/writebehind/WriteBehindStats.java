@@ -0,0 +1,88 @@
+package com.hsqyz.minip6spy.writebehind;
+
+/**
+ * 写缓冲的统计快照。
+ */
+public final class WriteBehindStats {
+
+    private final long deferredRows;
+    private final long flushedRows;
+    private final long discardedRows;
+    private final long failedRows;
+    private final long failedFlushes;
+    private final long[] flushes; // 按 FlushReason 下标
+
+    WriteBehindStats(long deferredRows, long flushedRows, long discardedRows, long failedRows, long failedFlushes,
+                     long[] flushes) {
+        this.deferredRows = deferredRows;
+        this.flushedRows = flushedRows;
+        this.discardedRows = discardedRows;
+        this.failedRows = failedRows;
+        this.failedFlushes = failedFlushes;
+        this.flushes = flushes;
+    }
+
+    /**
+     * @return 被缓冲（未立即执行）的 executeUpdate 次数
+     */
+    public long getDeferredRows() {
+        return deferredRows;
+    }
+
+    /**
+     * @return 以批量成功写出的行数
+     */
+    public long getFlushedRows() {
+        return flushedRows;
+    }
+
+    /**
+     * @return rollback 时丢弃的行数
+     */
+    public long getDiscardedRows() {
+        return discardedRows;
+    }
+
+    /**
+     * @return 写出失败（executeBatch 抛出异常）的批次中的行数
+     */
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    /**
+     * @return 写出失败的次数
+     */
+    public long getFailedFlushes() {
+        return failedFlushes;
+    }
+
+    /**
+     * @return 成功写出的次数（即成功返回的 executeBatch 次数）
+     */
+    public long getFlushes() {
+        long total = 0;
+        for (long f : flushes) {
+            total += f;
+        }
+        return total;
+    }
+
+    public long getFlushes(WriteBehind.FlushReason reason) {
+        return flushes[reason.ordinal()];
+    }
+
+    /**
+     * @return 合并进批量的行数：成功写出的行数减去写出次数，即少调用的 executeUpdate 次数。
+     *         只有驱动把批量合并为一次发送时（MySQL 须设置 {@code rewriteBatchedStatements=true}）才等于节省的网络往返
+     */
+    public long getRowsCoalesced() {
+        return flushedRows - getFlushes();
+    }
+
+    @Override
+    public String toString() {
+        return "WriteBehindStats{deferred=" + deferredRows + ", flushed=" + flushedRows + ", flushes=" + getFlushes()
+                + ", coalesced=" + getRowsCoalesced() + ", failed=" + failedRows + ", discarded=" + discardedRows + '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.hsqyz.minip6spy;
+
+import com.hsqyz.minip6spy.datasource.SpyDataSource;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class JfrRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldEmitFlightRecorderEvents() throws Exception {
+        SpyDataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), SpyContext.builder().flightRecorder(true).build());
+        Path file = dir.resolve("sql.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hsqyz.minip6spy.SqlExecution");
+            recording.enable("com.hsqyz.minip6spy.ConnectionAcquire");
+            recording.enable("com.hsqyz.minip6spy.TransactionEnd");
+            recording.start();
+            try (Connection conn = ds.getConnection();
+                 PreparedStatement ps = conn.prepareStatement("UPDATE t SET a = ? WHERE id = 5")) {
+                ps.setInt(1, 1);
+                ps.executeUpdate();
+                conn.commit();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.hsqyz.minip6spy."))
+                .collect(Collectors.toList());
+        RecordedEvent execution = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith("SqlExecution")).findFirst().orElseThrow(AssertionError::new);
+        Assertions.assertEquals("UPDATE t SET a = ? WHERE id = ?", execution.getString("sql"));
+        Assertions.assertEquals("executeUpdate", execution.getString("method"));
+        Assertions.assertTrue(execution.getBoolean("success"));
+        Assertions.assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith("ConnectionAcquire")));
+        Assertions.assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith("TransactionEnd")
+                && "COMMIT".equals(e.getString("outcome"))));
+    }
+}
@@ -0,0 +1,658 @@
+package com.hsqyz.minip6spy;
+
+import com.hsqyz.minip6spy.cache.ResultCacheOptions;
+import com.hsqyz.minip6spy.cache.ResultCacheStats;
+import com.hsqyz.minip6spy.config.SpyConfigWatcher;
+import com.hsqyz.minip6spy.datasource.SpyDataSource;
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.ResultSetEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.event.TransactionEvent;
+import com.hsqyz.minip6spy.leak.LeakDetectionOptions;
+import com.hsqyz.minip6spy.listener.P6SpySqlListener;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.metrics.SqlMetricsRegistry;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+import com.hsqyz.minip6spy.proxy.SpyControl;
+import com.hsqyz.minip6spy.proxy.SpyResultSet;
+import com.hsqyz.minip6spy.sampling.SqlSampler;
+import com.hsqyz.minip6spy.sql.SqlTemplateRegistry;
+import com.hsqyz.minip6spy.stmtcache.StatementCacheOptions;
+import com.hsqyz.minip6spy.stmtcache.StatementCacheStats;
+import com.hsqyz.minip6spy.writebehind.WriteBehind;
+import com.hsqyz.minip6spy.writebehind.WriteBehindOptions;
+import com.hsqyz.minip6spy.writebehind.WriteBehindStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Properties;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用 {@link StubJdbc} 验证 Spy 代理类的事件采集，不依赖数据库。
+ */
+class SpyProxyTest {
+
+    @Test
+    void shouldCaptureStatementAndPreparedEvents() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), events::add);
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO t(a) VALUES (?)")) {
+            Assertions.assertSame(conn, stmt.getConnection(), "语句应返回代理连接");
+
+            stmt.executeUpdate("UPDATE t SET a = 1");
+            ps.setInt(1, 1);
+            ps.addBatch();
+            ps.setInt(1, 2);
+            ps.addBatch();
+            ps.executeBatch();
+
+            Assertions.assertEquals(2, events.size());
+            Assertions.assertEquals("UPDATE t SET a = 1", events.get(0).getSql());
+            Assertions.assertEquals(1, events.get(0).getBatchSize());
+            Assertions.assertEquals("INSERT INTO t(a) VALUES (?)", events.get(1).getSql());
+            Assertions.assertEquals(2, events.get(1).getBatchSize());
+        }
+    }
+
+    @Test
+    void shouldReportFailureAndPropagateSqlException() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), events::add);
+        try (Connection conn = ds.getConnection();
+             CallableStatement cs = conn.prepareCall("{call fail_proc()}")) {
+            Assertions.assertThrows(SQLException.class, cs::execute);
+            Assertions.assertEquals(1, events.size());
+            Assertions.assertFalse(events.get(0).isSuccess());
+            Assertions.assertTrue(events.get(0).getError() instanceof SQLException);
+        }
+    }
+
+    @Test
+    void shouldMeasureElapsedTimeInNanos() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), events::add);
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE slow_t SET a = 1");
+        }
+        Assertions.assertEquals(1, events.size());
+        SqlEvent event = events.get(0);
+        Assertions.assertTrue(event.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(StubJdbc.SLOW_MS),
+                "耗时应覆盖桩驱动的休眠时间：" + event.getElapsedNanos());
+        Assertions.assertEquals(TimeUnit.NANOSECONDS.toMillis(event.getElapsedNanos()), event.getElapsedMs(),
+                "毫秒耗时由纳秒换算");
+    }
+
+    @Test
+    void shouldReportResultSetRowsAfterClose() throws Exception {
+        List<ResultSetEvent> rsEvents = new ArrayList<>();
+        SqlListener listener = new SqlListener() {
+            @Override
+            public void onEvent(SqlEvent event) {
+            }
+
+            @Override
+            public void onResultSetEvent(ResultSetEvent event) {
+                rsEvents.add(event);
+            }
+        };
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(3), listener);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT * FROM t WHERE a = ?")) {
+            ps.setInt(1, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                Assertions.assertSame(ps, rs.getStatement());
+                while (rs.next()) {
+                    rs.getInt(1);
+                }
+            }
+            ps.executeQuery().next(); // 未关闭，随语句关闭结束统计
+        }
+        try (Connection conn = ds.getConnection()) {
+            conn.createStatement().executeQuery("SELECT * FROM t").next(); // 语句与结果集均未关闭，随连接关闭结束统计
+        }
+        Assertions.assertEquals(3, rsEvents.size());
+        Assertions.assertEquals("SELECT * FROM t", rsEvents.get(2).getSql());
+        Assertions.assertEquals(3, rsEvents.get(0).getRows());
+        Assertions.assertTrue(rsEvents.get(0).isExhausted());
+        Assertions.assertEquals("SELECT * FROM t WHERE a = ?", rsEvents.get(0).getSql());
+        Assertions.assertEquals(1, rsEvents.get(1).getRows());
+        Assertions.assertFalse(rsEvents.get(1).isExhausted());
+    }
+
+    @Test
+    void shouldSwallowListenerExceptions() throws Exception {
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), e -> {
+            throw new IllegalStateException("boom");
+        });
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement()) {
+            Assertions.assertEquals(1, stmt.executeUpdate("DELETE FROM t"));
+        }
+    }
+
+    @Test
+    void shouldSkipUnsampledExecutionsButKeepErrors() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SqlSampler sampler = SqlSampler.probability(0).keepErrorsAndSlowerThan(1, TimeUnit.HOURS);
+        DataSource ds = SpyDataSource.wrapSampled(StubJdbc.dataSource(2), sampler, events::add);
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE t SET a = 1");
+            try (ResultSet rs = stmt.executeQuery("SELECT a FROM t")) {
+                Assertions.assertFalse(rs instanceof SpyResultSet, "未采样时不包装结果集");
+            }
+            Assertions.assertThrows(SQLException.class, () -> stmt.execute("fail"));
+        }
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertFalse(events.get(0).isSuccess());
+    }
+
+    @Test
+    void shouldCaptureBindParametersAndRenderOnDemand() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), SpyContext.builder()
+                .listeners(events::add)
+                .maxParameterLength(4)
+                .build());
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("UPDATE t SET name = ?, note = '?' WHERE id = ? AND data = ?")) {
+            ps.setString(1, "O'Neil");
+            ps.setLong(2, 42L);
+            ps.setBytes(3, new byte[16]);
+            ps.executeUpdate();
+            ps.setString(1, "a");
+            ps.addBatch();
+            ps.setString(1, "b");
+            ps.addBatch();
+            ps.executeBatch();
+        }
+        Assertions.assertEquals("UPDATE t SET name = 'O''Ne'/*6 chars*/, note = '?' WHERE id = 42 AND data = <bytes:16>",
+                events.get(0).getRenderedSql());
+        Assertions.assertEquals(42L, events.get(0).getParameters().get(2));
+        Assertions.assertEquals(2, events.get(1).getBatchParameters().size());
+        Assertions.assertEquals("a", events.get(1).getBatchParameters().get(0).get(1));
+        Assertions.assertEquals("b", events.get(1).getParameters().get(1));
+    }
+
+    @Test
+    void shouldSnapshotMutableTemporalParameters() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), SpyContext.builder().listeners(events::add).build());
+        Timestamp ts = Timestamp.valueOf("2024-01-02 03:04:05.123456789");
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("UPDATE t SET at = ?, at_utc = ? WHERE id = 1")) {
+            ps.setTimestamp(1, ts);
+            ps.setTimestamp(2, new Timestamp(0), Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+            ps.executeUpdate();
+        }
+        ts.setTime(0); // 应用复用并修改了同一个对象
+        Assertions.assertEquals("UPDATE t SET at = '2024-01-02 03:04:05.123456789', at_utc = '1970-01-01 00:00:00.0' WHERE id = 1",
+                events.get(0).getRenderedSql());
+        Object captured = events.get(0).getParameters().get(1);
+        Assertions.assertEquals(Timestamp.valueOf("2024-01-02 03:04:05.123456789"), captured);
+        ((Timestamp) captured).setTime(0);
+        Assertions.assertEquals(Timestamp.valueOf("2024-01-02 03:04:05.123456789"), events.get(0).getParameters().get(1),
+                "读取返回副本，修改不影响快照");
+    }
+
+    @Test
+    void shouldReportConnectionLifecycleAndSuspectedLeaks() throws Exception {
+        List<ConnectionEvent> events = new CopyOnWriteArrayList<>();
+        SqlListener listener = new SqlListener() {
+            @Override
+            public void onEvent(SqlEvent event) {
+            }
+
+            @Override
+            public void onConnectionEvent(ConnectionEvent event) {
+                events.add(event);
+            }
+        };
+        try (SpyDataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), SpyContext.builder()
+                .listeners(listener)
+                .leakDetection(LeakDetectionOptions.builder()
+                        .threshold(50, TimeUnit.MILLISECONDS)
+                        .tick(5, TimeUnit.MILLISECONDS)
+                        .stackSampleRate(1)
+                        .build())
+                .build())) {
+            try (Connection conn = ds.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE t SET a = 1");
+                stmt.executeUpdate("UPDATE t SET a = 2");
+            }
+            Connection leaked = ds.getConnection();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            leaked.close();
+        }
+        Assertions.assertEquals(ConnectionEvent.Type.ACQUIRED, events.get(0).getType());
+        Assertions.assertEquals(ConnectionEvent.Type.RELEASED, events.get(1).getType());
+        Assertions.assertEquals(2, events.get(1).getStatementCount());
+        Assertions.assertEquals(ConnectionEvent.Type.LEAK_SUSPECTED, events.get(3).getType());
+        Assertions.assertEquals(events.get(2).getConnectionId(), events.get(3).getConnectionId());
+        Assertions.assertNotNull(events.get(3).getAcquireStack());
+        Assertions.assertEquals(5, events.size(), "已关闭的连接不会被报告为泄漏");
+    }
+
+    @Test
+    void shouldReportTransactionTimingOnCommitAndRollback() throws Exception {
+        List<TransactionEvent> events = new ArrayList<>();
+        SqlListener listener = new SqlListener() {
+            @Override
+            public void onEvent(SqlEvent event) {
+            }
+
+            @Override
+            public void onTransactionEvent(TransactionEvent event) {
+                events.add(event);
+            }
+        };
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), SpyContext.builder().listeners(listener).build());
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.rollback(); // 事务未开始，不发送事件
+            conn.setAutoCommit(false);
+            stmt.executeUpdate("UPDATE t SET a = 1");
+            Thread.sleep(20);
+            stmt.executeUpdate("UPDATE t SET a = 2");
+            conn.commit();
+            stmt.executeUpdate("UPDATE t SET a = 3");
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+        Assertions.assertEquals(2, events.size());
+        TransactionEvent commit = events.get(0);
+        Assertions.assertEquals(TransactionEvent.Outcome.COMMIT, commit.getOutcome());
+        Assertions.assertEquals(2, commit.getStatementCount());
+        Assertions.assertTrue(commit.getThinkNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        Assertions.assertEquals(commit.getDurationNanos(),
+                commit.getStatementNanos() + commit.getEndNanos() + commit.getThinkNanos());
+        Assertions.assertEquals(TransactionEvent.Outcome.ROLLBACK, events.get(1).getOutcome());
+        Assertions.assertEquals(1, events.get(1).getStatementCount());
+    }
+
+    @Test
+    void shouldBypassWhenDisabledAndReconfigureListenersAtRuntime() throws Exception {
+        List<SqlEvent> first = new ArrayList<>();
+        List<SqlEvent> second = new ArrayList<>();
+        SqlListener extra = second::add;
+        SpyDataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), SpyContext.builder().listeners(first::add).build());
+        SpyControl control = ds.control();
+        try (Connection conn = ds.getConnection();
+             Statement stmt = conn.createStatement()) {
+            control.disable();
+            try (ResultSet rs = stmt.executeQuery("SELECT a FROM t")) {
+                Assertions.assertFalse(rs instanceof SpyResultSet, "关闭时不包装结果集");
+            }
+            stmt.executeUpdate("DELETE FROM t");
+            Assertions.assertTrue(first.isEmpty());
+
+            control.enable();
+            control.addListener(extra);
+            stmt.executeUpdate("DELETE FROM t");
+            Assertions.assertEquals(1, first.size());
+            Assertions.assertEquals(1, second.size());
+
+            Assertions.assertTrue(control.removeListener(extra));
+            control.setSlowThreshold(1, TimeUnit.HOURS);
+            stmt.executeUpdate("DELETE FROM t");
+            Assertions.assertEquals(1, first.size(), "低于阈值的事件被过滤");
+            control.setSlowThreshold(0, TimeUnit.MILLISECONDS);
+            stmt.executeUpdate("DELETE FROM t");
+            Assertions.assertEquals(2, first.size());
+            Assertions.assertEquals(1, second.size());
+        }
+    }
+
+    @Test
+    void shouldApplyPropertiesToControl() {
+        SpyContext context = SpyContext.builder().build();
+        Properties properties = new Properties();
+        properties.setProperty(SpyConfigWatcher.ENABLED, "false");
+        properties.setProperty(SpyConfigWatcher.LISTENERS, P6SpySqlListener.class.getName());
+        SpyConfigWatcher.apply(properties, context.control());
+        Assertions.assertFalse(context.isEnabled());
+        Assertions.assertEquals(1, context.getListeners().size());
+        SqlListener listener = context.getListeners().get(0);
+
+        properties.setProperty(SpyConfigWatcher.ENABLED, "true");
+        properties.setProperty(SpyConfigWatcher.SAMPLING_RATE, "2");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SpyConfigWatcher.apply(properties, context.control()));
+        Assertions.assertFalse(context.isEnabled(), "非法取值时整体不生效");
+
+        properties.setProperty(SpyConfigWatcher.SAMPLING_RATE, "0.5");
+        SpyConfigWatcher.apply(properties, context.control());
+        Assertions.assertTrue(context.isEnabled());
+        Assertions.assertSame(listener, context.getListeners().get(0), "同类监听器复用原实例");
+    }
+
+    @Test
+    void shouldKeepMetricsListenerWhenListenersAreReplaced() {
+        SqlMetricsRegistry metrics = new SqlMetricsRegistry();
+        SpyContext context = SpyContext.builder().listeners(e -> { }).metrics(metrics).build();
+        Properties properties = new Properties();
+        properties.setProperty(SpyConfigWatcher.LISTENERS, P6SpySqlListener.class.getName());
+        SpyConfigWatcher.apply(properties, context.control());
+        Assertions.assertEquals(2, context.getListeners().size());
+        Assertions.assertTrue(context.getListeners().get(0) instanceof P6SpySqlListener);
+        Assertions.assertSame(metrics, context.getListeners().get(1), "内部注册的指标监听器不被配置文件替换");
+
+        SqlListener other = e -> { };
+        context.control().setListeners(Arrays.asList(metrics, other));
+        Assertions.assertEquals(2, context.getListeners().size(), "新列表已含指标监听器时不重复追加");
+    }
+
+    @Test
+    void shouldReapplyOnlyChangedKeysOnReload(@TempDir Path dir) throws Exception {
+        SqlSampler custom = SqlSampler.probability(0.25);
+        SpyContext context = SpyContext.builder().sampler(custom).build();
+        Path file = dir.resolve("minip6spy.properties");
+        Files.write(file, "enabled=true\nsampling.rate=1\n".getBytes(StandardCharsets.ISO_8859_1));
+        try (SpyConfigWatcher ignored = SpyConfigWatcher.watch(file, context.control())) {
+            Assertions.assertNull(context.getSampler(), "首次加载应用文件中的全部键");
+            context.control().setSampler(custom);
+            Files.write(file, "enabled=false\nsampling.rate=1\n".getBytes(StandardCharsets.ISO_8859_1));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (context.isEnabled() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            Assertions.assertFalse(context.isEnabled(), "改动的键重新应用");
+            Assertions.assertSame(custom, context.getSampler(), "未改动的 sampling.rate 不覆盖运行时设置的采样器");
+        }
+    }
+
+    @Test
+    void shouldServeAllowListedQueriesFromResultCacheUntilTableIsWritten() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(events::add)
+                .resultCache(ResultCacheOptions.builder().template("SELECT v FROM ref WHERE id = ?").build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(2), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT v FROM ref WHERE id = ?");
+             Statement stmt = conn.createStatement()) {
+            ps.setInt(1, 7);
+            for (int i = 0; i < 2; i++) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals("row-1", rs.getString("V"));
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertFalse(rs.next());
+                }
+            }
+            stmt.executeUpdate("UPDATE other SET v = 1");
+            ps.executeQuery().close();
+            stmt.executeUpdate("UPDATE ref SET v = 'x' WHERE id = 7");
+            ps.executeQuery().close();
+            stmt.executeQuery("SELECT v FROM other").close();
+        }
+        Assertions.assertEquals(7, events.size());
+        Assertions.assertFalse(events.get(0).isCacheHit());
+        Assertions.assertTrue(events.get(1).isCacheHit());
+        Assertions.assertTrue(events.get(3).isCacheHit(), "写入无关表不影响缓存");
+        Assertions.assertFalse(events.get(5).isCacheHit(), "写入缓存涉及的表后重新查询");
+        ResultCacheStats stats = context.getResultCache().getStats();
+        Assertions.assertEquals(2, stats.getHits());
+        Assertions.assertEquals(2, stats.getMisses());
+        Assertions.assertEquals(1, stats.getEntries());
+        Assertions.assertTrue(stats.getBytes() > 0);
+        Assertions.assertEquals(0.5, stats.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void shouldStreamResultsLargerThanEntryLimitWithoutCaching() throws Exception {
+        SpyContext context = SpyContext.builder()
+                .resultCache(ResultCacheOptions.builder().template("SELECT v FROM ref WHERE id = ?").maxEntryBytes(2048).build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(500), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT v FROM ref WHERE id = ?")) {
+            ps.setInt(1, 7);
+            try (ResultSet rs = ps.executeQuery()) {
+                for (int i = 1; i <= 500; i++) {
+                    Assertions.assertTrue(rs.next());
+                    Assertions.assertEquals("row-" + i, rs.getString(1), "先回放已缓冲的行，再继续读取数据库游标");
+                }
+                Assertions.assertFalse(rs.next());
+            }
+        }
+        ResultCacheStats stats = context.getResultCache().getStats();
+        Assertions.assertEquals(1, stats.getRejected());
+        Assertions.assertEquals(0, stats.getEntries());
+    }
+
+    @Test
+    void shouldScopeResultCacheByCatalog() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(events::add)
+                .resultCache(ResultCacheOptions.builder().template("SELECT v FROM ref WHERE id = ?").build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT v FROM ref WHERE id = ?")) {
+            ps.setInt(1, 7);
+            conn.setCatalog("a");
+            ps.executeQuery().close();
+            conn.setCatalog("b");
+            ps.executeQuery().close();
+            conn.setCatalog("a");
+            ps.executeQuery().close();
+        }
+        Assertions.assertFalse(events.get(1).isCacheHit(), "其它库的同一查询不命中");
+        Assertions.assertTrue(events.get(2).isCacheHit());
+    }
+
+    @Test
+    void shouldInvalidateResultCacheOnMultiTableUpdate() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(events::add)
+                .resultCache(ResultCacheOptions.builder().template("SELECT v FROM ref WHERE id = ?").build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT v FROM ref WHERE id = ?");
+             Statement stmt = conn.createStatement()) {
+            ps.setInt(1, 7);
+            ps.executeQuery().close();
+            ps.executeQuery().close();
+            stmt.executeUpdate("UPDATE other o, ref r SET r.v = o.v WHERE r.id = o.id");
+            ps.executeQuery().close();
+        }
+        Assertions.assertTrue(events.get(1).isCacheHit());
+        Assertions.assertFalse(events.get(3).isCacheHit(), "多表 UPDATE 中逗号之后的表同样使缓存失效");
+    }
+
+    @Test
+    void shouldBatchDeferredUpdatesUntilCommitOrConflictingRead() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(events::add)
+                .writeBehind(WriteBehindOptions.builder().maxBatchSize(3).build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO orders(id) VALUES (?)");
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < 4; i++) {
+                ps.setInt(1, i);
+                Assertions.assertEquals(1, ps.executeUpdate());
+            }
+            Assertions.assertEquals(1, events.size(), "达到上限时写出一批");
+            stmt.executeQuery("SELECT v FROM other").close();
+            Assertions.assertEquals(2, events.size(), "无关表的查询不写出缓冲");
+            stmt.executeQuery("SELECT v FROM orders").close();
+            ps.setInt(1, 4);
+            ps.executeUpdate();
+            conn.commit();
+            ps.executeUpdate();
+            conn.rollback();
+        }
+        Assertions.assertEquals(5, events.size());
+        Assertions.assertEquals(SqlMethodEnum.EXECUTE_BATCH, events.get(0).getMethod());
+        Assertions.assertEquals(3, events.get(0).getBatchSize());
+        Assertions.assertEquals(1, events.get(2).getBatchSize(), "读取缓冲涉及的表前先写出");
+        Assertions.assertEquals("SELECT v FROM orders", events.get(3).getSql());
+        Assertions.assertEquals(SqlMethodEnum.EXECUTE_BATCH, events.get(4).getMethod());
+        WriteBehindStats stats = context.getWriteBehind().getStats();
+        Assertions.assertEquals(6, stats.getDeferredRows());
+        Assertions.assertEquals(5, stats.getFlushedRows());
+        Assertions.assertEquals(1, stats.getDiscardedRows());
+        Assertions.assertEquals(1, stats.getFlushes(WriteBehind.FlushReason.SIZE));
+        Assertions.assertEquals(1, stats.getFlushes(WriteBehind.FlushReason.READ));
+        Assertions.assertEquals(1, stats.getFlushes(WriteBehind.FlushReason.COMMIT));
+        Assertions.assertEquals(2, stats.getRowsCoalesced());
+        Assertions.assertEquals(0, stats.getFailedFlushes());
+    }
+
+    @Test
+    void shouldCountFailedWriteBehindFlushSeparately() throws Exception {
+        SpyContext context = SpyContext.builder()
+                .writeBehind(WriteBehindOptions.builder().build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO fail_orders(id) VALUES (?)")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < 2; i++) {
+                ps.setInt(1, i);
+                ps.executeUpdate();
+            }
+            Assertions.assertThrows(SQLException.class, conn::commit);
+        }
+        WriteBehindStats stats = context.getWriteBehind().getStats();
+        Assertions.assertEquals(0, stats.getFlushedRows(), "executeBatch 失败的行不计入写出");
+        Assertions.assertEquals(0, stats.getFlushes());
+        Assertions.assertEquals(2, stats.getFailedRows());
+        Assertions.assertEquals(1, stats.getFailedFlushes());
+    }
+
+    @Test
+    void shouldReuseClosedPreparedStatementsPerConnection() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(events::add)
+                .statementCache(StatementCacheOptions.builder().maxStatements(1).build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), context);
+        try (Connection conn = ds.getConnection()) {
+            PreparedStatement first = conn.prepareStatement("SELECT v FROM ref WHERE id = ?");
+            first.setInt(1, 1);
+            first.executeQuery();
+            first.close();
+            Assertions.assertTrue(first.isClosed());
+            PreparedStatement second = conn.prepareStatement("SELECT v FROM ref WHERE id = ?");
+            Assertions.assertSame(first, second, "同一连接同一 SQL 复用归还的语句");
+            Assertions.assertFalse(second.isClosed());
+            Assertions.assertNotSame(second, conn.prepareStatement("SELECT v FROM ref WHERE id = ?"), "借出中的语句不共享");
+            Assertions.assertNotSame(second, conn.prepareStatement("SELECT v FROM ref WHERE id = ?",
+                    ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY));
+            second.close();
+            conn.prepareStatement("SELECT v FROM other").close();
+        }
+        Assertions.assertEquals(1, events.size());
+        StatementCacheStats stats = context.getStatementCache().getStats();
+        Assertions.assertEquals(1, stats.getHits());
+        Assertions.assertEquals(4, stats.getMisses());
+        Assertions.assertEquals(1, stats.getEvictions(), "超出每连接上限时关闭最久未归还的语句");
+    }
+
+    @Test
+    void shouldPassReusableViewForUpdatesWhenEventReuseIsEnabled() throws Exception {
+        List<SqlEvent> seen = new ArrayList<>();
+        List<SqlEvent> retained = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(e -> {
+                    seen.add(e);
+                    retained.add(e.retain());
+                })
+                .reuseEvents(true)
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(1), context);
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE a SET v = 1");
+            stmt.executeUpdate("UPDATE b SET v = 2");
+            stmt.executeQuery("SELECT v FROM a").close();
+        }
+        Assertions.assertSame(seen.get(0), seen.get(1), "同一线程的更新复用同一个视图");
+        Assertions.assertTrue(seen.get(0).isReusable());
+        Assertions.assertFalse(seen.get(2).isReusable(), "查询事件要关联结果集，不复用");
+        Assertions.assertEquals("UPDATE a SET v = 1", retained.get(0).getSql());
+        Assertions.assertEquals("UPDATE b SET v = 2", retained.get(1).getSql());
+        Assertions.assertFalse(retained.get(0).isReusable());
+        Assertions.assertSame(seen.get(2), retained.get(2), "不可变事件 retain 返回自身");
+    }
+
+    @Test
+    void shouldExposeTemplateIdsFromSharedRegistry() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SqlTemplateRegistry registry = new SqlTemplateRegistry();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0),
+                SpyContext.builder().listeners(events::add).templateRegistry(registry).build());
+        try (Connection conn = ds.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE t SET v = 1 WHERE id = 7");
+            stmt.executeUpdate("UPDATE t SET v = 2 WHERE id = 8");
+            stmt.executeUpdate("DELETE FROM t WHERE id = 9");
+        }
+        int id = events.get(0).getTemplateId();
+        Assertions.assertTrue(id > 0);
+        Assertions.assertEquals(id, events.get(1).getTemplateId(), "字面量不同的语句共用模板编号");
+        Assertions.assertNotEquals(id, events.get(2).getTemplateId());
+        Assertions.assertEquals("UPDATE t SET v = ? WHERE id = ?", registry.templateOf(id));
+        Assertions.assertEquals(0, SqlEvent.builder("SELECT 1").build().getTemplateId());
+    }
+
+    @Test
+    void shouldNotDeferUpdatesThatAreNotAllowListed() throws Exception {
+        List<SqlEvent> events = new ArrayList<>();
+        SpyContext context = SpyContext.builder()
+                .listeners(events::add)
+                .writeBehind(WriteBehindOptions.builder()
+                        .template("UPDATE audit SET seen = ? WHERE id = ?")
+                        .build())
+                .build();
+        DataSource ds = SpyDataSource.wrap(StubJdbc.dataSource(0), context);
+        try (Connection conn = ds.getConnection();
+             PreparedStatement lock = conn.prepareStatement("UPDATE missing_rows SET version = ? WHERE version = ?");
+             PreparedStatement audit = conn.prepareStatement("UPDATE audit SET seen = ? WHERE id = ?")) {
+            conn.setAutoCommit(false);
+            Assertions.assertEquals(0, lock.executeUpdate(), "未列入名单的 UPDATE 直接执行，返回真实影响行数");
+            Assertions.assertEquals(1, events.size());
+            Assertions.assertEquals(SqlMethodEnum.EXECUTE_UPDATE, events.get(0).getMethod());
+            audit.executeUpdate();
+            Assertions.assertEquals(1, events.size(), "列入名单的 UPDATE 被缓冲");
+            conn.commit();
+        }
+        Assertions.assertEquals(SqlMethodEnum.EXECUTE_BATCH, events.get(1).getMethod());
+        Assertions.assertEquals(1, context.getWriteBehind().getStats().getDeferredRows());
+    }
+}
@@ -0,0 +1,205 @@
+package com.hsqyz.minip6spy;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * 无 I/O 的 JDBC 桩实现，基于 JDK 动态代理，供单元测试在没有数据库时驱动 Spy 代理层。
+ * - executeUpdate 返回 1（SQL 中包含 "missing" 时返回 0，模拟未命中任何行），execute 返回 false，executeBatch 返回与 addBatch 次数一致的数组；
+ * - executeQuery 返回包含 {@code rows} 行、单列 v 的 ResultSet；
+ * - SQL 中包含 "fail" 时 execute* 抛出 SQLException，便于验证失败事件；
+ * - SQL 中包含 "slow" 时 executeUpdate 先休眠 {@link #SLOW_MS} 毫秒，模拟慢执行。
+ */
+final class StubJdbc {
+
+    // 慢执行的休眠时间（毫秒）
+    static final long SLOW_MS = 20;
+
+    private StubJdbc() {
+    }
+
+    static DataSource dataSource(int rows) {
+        return proxy(DataSource.class, (p, m, a) -> {
+            if (m.getName().equals("getConnection")) {
+                return connection(rows);
+            }
+            return defaultValue(m.getReturnType());
+        });
+    }
+
+    static Connection connection(int rows) {
+        boolean[] closed = new boolean[1];
+        String[] catalog = new String[1];
+        return proxy(Connection.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "setCatalog":
+                    catalog[0] = (String) a[0];
+                    return null;
+                case "getCatalog":
+                    return catalog[0];
+                case "createStatement":
+                    return statement(Statement.class, null, rows);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (String) a[0], rows);
+                case "prepareCall":
+                    return statement(CallableStatement.class, (String) a[0], rows);
+                case "getAutoCommit":
+                    return true;
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                default:
+                    return defaultValue(m.getReturnType());
+            }
+        });
+    }
+
+    private static <T extends Statement> T statement(Class<T> type, String boundSql, int rows) {
+        int[] batch = new int[1];
+        return proxy(type, (p, m, a) -> {
+            String sql = a != null && a.length > 0 && a[0] instanceof String ? (String) a[0] : boundSql;
+            switch (m.getName()) {
+                case "addBatch":
+                    batch[0]++;
+                    return null;
+                case "clearBatch":
+                    batch[0] = 0;
+                    return null;
+                case "executeQuery":
+                    failIfNeeded(sql);
+                    return resultSet(rows);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    failIfNeeded(sql);
+                    if (sql != null && sql.contains("slow")) {
+                        Thread.sleep(SLOW_MS);
+                    }
+                    int count = sql != null && sql.contains("missing") ? 0 : 1;
+                    return m.getReturnType() == long.class ? (Object) (long) count : (Object) count;
+                case "execute":
+                    failIfNeeded(sql);
+                    return false;
+                case "executeBatch": {
+                    failIfNeeded(boundSql);
+                    int[] counts = new int[batch[0]];
+                    java.util.Arrays.fill(counts, 1);
+                    batch[0] = 0;
+                    return counts;
+                }
+                case "getUpdateCount":
+                    return -1;
+                case "getResultSetConcurrency":
+                    return ResultSet.CONCUR_READ_ONLY;
+                default:
+                    return defaultValue(m.getReturnType());
+            }
+        });
+    }
+
+    static ResultSet resultSet(int rows) {
+        int[] cursor = new int[1];
+        return proxy(ResultSet.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "next":
+                    return ++cursor[0] <= rows;
+                case "getInt":
+                case "getLong":
+                    return m.getReturnType() == long.class ? (Object) (long) cursor[0] : (Object) cursor[0];
+                case "getString":
+                case "getObject":
+                    return "row-" + cursor[0];
+                case "getMetaData":
+                    return metaData();
+                default:
+                    return defaultValue(m.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * 单列 VARCHAR 的结果集元数据，列名为 v。
+     */
+    private static ResultSetMetaData metaData() {
+        return proxy(ResultSetMetaData.class, (p, m, a) -> {
+            switch (m.getName()) {
+                case "getColumnCount":
+                    return 1;
+                case "getColumnLabel":
+                case "getColumnName":
+                    return "v";
+                case "getColumnType":
+                    return Types.VARCHAR;
+                default:
+                    return defaultValue(m.getReturnType());
+            }
+        });
+    }
+
+    private static void failIfNeeded(String sql) throws SQLException {
+        if (sql != null && sql.contains("fail")) {
+            throw new SQLException("stub failure: " + sql);
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(StubJdbc.class.getClassLoader(), new Class[]{type}, (p, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                switch (m.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "equals":
+                        return p == a[0];
+                    default:
+                        return type.getSimpleName() + "Stub";
+                }
+            }
+            try {
+                return handler.handle(p, m, a);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hsqyz.minip6spy.binlog;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+class BinaryLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRoundTripAcrossRotatedSegments() throws Exception {
+        BinaryLogOptions options = BinaryLogOptions.builder(dir).segmentSize(4096).build();
+        try (BinaryLogWriter writer = new BinaryLogWriter(options)) {
+            for (int i = 0; i < 200; i++) {
+                Assertions.assertTrue(writer.append(SqlEvent.builder("SELECT * FROM 用户 WHERE id = " + i)
+                        .startedAtMillis(1_700_000_000_000L + i)
+                        .elapsedNanos(i * 1000L)
+                        .build()));
+            }
+            writer.append(SqlEvent.builder("DELETE FROM t").error(new SQLException("boom")).build());
+        }
+        Assertions.assertTrue(BinaryLogReader.segments(dir).size() > 1, "应按大小切换段文件");
+
+        List<BinaryLogRecord> records = new ArrayList<>();
+        Assertions.assertEquals(201, BinaryLogReader.read(dir, records::add));
+        Assertions.assertEquals("SELECT * FROM 用户 WHERE id = 7", records.get(7).getSql());
+        Assertions.assertEquals(7000L, records.get(7).getElapsedNanos());
+        Assertions.assertEquals(1_700_000_000_007L, records.get(7).toSqlEvent().getStartedAtMillis());
+        BinaryLogRecord failed = records.get(200);
+        Assertions.assertFalse(failed.isSuccess());
+        Assertions.assertEquals("java.sql.SQLException: boom", failed.getError());
+    }
+}
@@ -0,0 +1,72 @@
+package com.hsqyz.minip6spy.dispatch;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AsyncSqlEventDispatcherTest {
+
+    @Test
+    void shouldDeliverAllEventsFromManyProducers() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        AsyncDispatchOptions options = AsyncDispatchOptions.builder()
+                .capacity(1024)
+                .consumerThreads(2)
+                .overflowPolicy(OverflowPolicy.BLOCK)
+                .build();
+        AsyncSqlEventDispatcher dispatcher = new AsyncSqlEventDispatcher(
+                Collections.<SqlListener>singletonList(e -> received.incrementAndGet()), options);
+        int producers = 4;
+        int perProducer = 10_000;
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(() -> {
+                for (int n = 0; n < perProducer; n++) {
+                    dispatcher.dispatch(SqlEvent.builder("select 1").build());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        dispatcher.close();
+
+        Assertions.assertEquals(producers * perProducer, received.get());
+        Assertions.assertEquals(producers * perProducer, dispatcher.getQueuedCount());
+        Assertions.assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void shouldDropNewestWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        SqlListener blocking = e -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        AsyncSqlEventDispatcher dispatcher = new AsyncSqlEventDispatcher(Collections.singletonList(blocking),
+                AsyncDispatchOptions.builder().capacity(4).build());
+        dispatcher.dispatch(SqlEvent.builder("select 1").build());
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(SqlEvent.builder("select 1").build());
+        }
+        release.countDown();
+        dispatcher.close();
+
+        Assertions.assertEquals(5, dispatcher.getQueuedCount());
+        Assertions.assertEquals(6, dispatcher.getDroppedCount());
+        Assertions.assertEquals(5, dispatcher.getDeliveredCount());
+    }
+}
@@ -0,0 +1,110 @@
+package com.hsqyz.minip6spy.driver;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.listener.SqlListener;
+import com.hsqyz.minip6spy.proxy.SpyContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class P6SpyDriverTest {
+
+    @Test
+    void shouldRewriteUrlAndShareContextAcrossConnections() throws Exception {
+        List<String> urls = new ArrayList<>();
+        P6SpyDriver driver = new P6SpyDriver(stubDriver(urls));
+        Assertions.assertTrue(driver.acceptsURL("jdbc:p6spy:mysql://localhost:3306/demo"));
+
+        SpyContext context = P6SpyDriver.getContext();
+        List<SqlEvent> events = new CopyOnWriteArrayList<>();
+        SqlListener listener = events::add;
+        P6SpyDriver.control().addListener(listener);
+        try {
+            for (int i = 0; i < 2; i++) {
+                try (Connection conn = driver.connect("jdbc:p6spy:mysql://localhost:3306/demo?useSSL=false", new Properties());
+                     Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("UPDATE t SET a = " + i);
+                }
+            }
+        } finally {
+            P6SpyDriver.control().removeListener(listener);
+        }
+        Assertions.assertEquals(2, urls.size());
+        Assertions.assertEquals("jdbc:mysql://localhost:3306/demo?useSSL=false", urls.get(0));
+        Assertions.assertEquals(urls.get(0), urls.get(1));
+        Assertions.assertSame(context, P6SpyDriver.getContext(), "上下文只构建一次");
+        Assertions.assertEquals(2, events.size(), "两个连接的事件分发到同一监听器链");
+        Assertions.assertNotEquals(events.get(0).getConnectionId(), events.get(1).getConnectionId());
+    }
+
+    @Test
+    void shouldRejectNonSpyUrls() throws Exception {
+        List<String> urls = new ArrayList<>();
+        P6SpyDriver driver = new P6SpyDriver(stubDriver(urls));
+        Assertions.assertFalse(driver.acceptsURL("jdbc:mysql://localhost:3306/demo"));
+        Assertions.assertFalse(driver.acceptsURL(null));
+        Assertions.assertNull(driver.connect("jdbc:mysql://localhost:3306/demo", new Properties()));
+        Assertions.assertTrue(urls.isEmpty(), "不接受的 URL 不委托给底层驱动");
+    }
+
+    /**
+     * 记录收到的 URL，返回不访问数据库的连接桩。
+     */
+    private static Driver stubDriver(List<String> urls) {
+        return proxy(Driver.class, (m, a) -> {
+            if ("connect".equals(m.getName())) {
+                urls.add((String) a[0]);
+                return connection();
+            }
+            return null;
+        });
+    }
+
+    private static Connection connection() {
+        return proxy(Connection.class, (m, a) -> {
+            if ("createStatement".equals(m.getName())) {
+                return proxy(Statement.class, (sm, sa) -> "executeUpdate".equals(sm.getName()) ? 1 : null);
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(P6SpyDriverTest.class.getClassLoader(), new Class[]{type}, (p, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                switch (m.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "equals":
+                        return p == a[0];
+                    default:
+                        return type.getSimpleName() + "Stub";
+                }
+            }
+            Object value = handler.handle(m, a);
+            Class<?> returnType = m.getReturnType();
+            if (value != null || !returnType.isPrimitive() || returnType == void.class) {
+                return value;
+            }
+            // 未处理的方法返回基本类型的零值
+            if (returnType == boolean.class) {
+                return false;
+            }
+            return returnType == long.class ? (Object) 0L : (Object) 0;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(java.lang.reflect.Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hsqyz.minip6spy.filter;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+class SqlEventFilterTest {
+
+    @Test
+    void shouldMatchTablesVerbsAndThresholds() {
+        SqlEvent join = event("select * from shop.`Orders` o join user_demo u on o.uid = u.id where u.name = 'Bob'", 5);
+        SqlEvent insert = event("INSERT INTO user_demo(name) VALUES ('Carol')", 1);
+
+        Assertions.assertTrue(SqlEventFilter.table("orders").test(join));
+        Assertions.assertTrue(SqlEventFilter.table("USER_DEMO").test(insert));
+        Assertions.assertFalse(SqlEventFilter.table("orders").test(insert));
+        Assertions.assertTrue(SqlEventFilter.verb("insert").test(insert));
+
+        SqlEventFilter slowOrFailed = SqlEventFilter.slowerThan(2, TimeUnit.MILLISECONDS).or(SqlEventFilter.failuresOnly());
+        Assertions.assertTrue(slowOrFailed.test(join));
+        Assertions.assertFalse(slowOrFailed.test(insert));
+        Assertions.assertTrue(slowOrFailed.test(SqlEvent.builder("DELETE FROM t").error(new SQLException()).build()));
+    }
+
+    @Test
+    void shouldLearnPerTemplateThreshold() {
+        AdaptiveSlowQueryFilter filter = AdaptiveSlowQueryFilter.builder()
+                .window(1, TimeUnit.SECONDS)
+                .minSamples(10)
+                .floor(0, TimeUnit.MILLISECONDS)
+                .warmupThreshold(50, TimeUnit.MILLISECONDS)
+                .build();
+        long t = 1_000_000L;
+        // 第一个窗口：该模板通常耗时 1~2ms
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertFalse(filter.test(event("SELECT * FROM t WHERE id = " + i, 1 + i % 2, t + i)));
+        }
+        // 进入下一窗口后，10ms 对该模板已经算慢，尽管低于 warmup 阈值
+        Assertions.assertTrue(filter.test(event("SELECT * FROM t WHERE id = 7", 10, t + 1500)));
+        Assertions.assertFalse(filter.test(event("SELECT * FROM t WHERE id = 8", 1, t + 1501)));
+    }
+
+    private static SqlEvent event(String sql, long millis) {
+        return event(sql, millis, System.currentTimeMillis());
+    }
+
+    private static SqlEvent event(String sql, long millis, long startedAt) {
+        return SqlEvent.builder(sql).elapsedMs(millis).startedAtMillis(startedAt).build();
+    }
+}
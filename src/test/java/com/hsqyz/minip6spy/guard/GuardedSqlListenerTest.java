@@ -0,0 +1,68 @@
+package com.hsqyz.minip6spy.guard;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class GuardedSqlListenerTest {
+
+    @Test
+    void shouldTripOnSlowCallsAndRecoverAfterProbe() throws Exception {
+        AtomicBoolean slow = new AtomicBoolean(true);
+        AtomicInteger invoked = new AtomicInteger();
+        GuardedSqlListener guarded = new GuardedSqlListener(e -> {
+            invoked.incrementAndGet();
+            if (slow.get()) {
+                sleep(3);
+            }
+        }, ListenerGuardOptions.builder()
+                .budget(1, TimeUnit.MILLISECONDS)
+                .minimumCalls(4)
+                .failureRateThreshold(0.5)
+                .openDuration(50, TimeUnit.MILLISECONDS)
+                .build());
+        SqlEvent event = SqlEvent.builder("SELECT 1").build();
+        for (int i = 0; i < 4; i++) {
+            guarded.onEvent(event);
+        }
+        Assertions.assertEquals(GuardedSqlListener.State.OPEN, guarded.getState());
+        guarded.onEvent(event);
+        Assertions.assertEquals(4, invoked.get(), "熔断期间不调用");
+
+        Thread.sleep(60);
+        slow.set(false);
+        guarded.onEvent(event); // 探测调用
+        Assertions.assertEquals(GuardedSqlListener.State.CLOSED, guarded.getState());
+
+        ListenerStats stats = guarded.getStats();
+        Assertions.assertEquals(5, stats.getCalls());
+        Assertions.assertEquals(4, stats.getSlowCalls());
+        Assertions.assertEquals(1, stats.getSkipped());
+        Assertions.assertEquals(1, stats.getTrips());
+        Assertions.assertTrue(stats.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(3));
+    }
+
+    @Test
+    void shouldTripOnFailuresAndCountThem() {
+        GuardedSqlListener guarded = new GuardedSqlListener(e -> {
+            throw new IllegalStateException("boom");
+        }, ListenerGuardOptions.builder().minimumCalls(2).build());
+        SqlEvent event = SqlEvent.builder("SELECT 1").build();
+        guarded.onEvent(event);
+        guarded.onEvent(event);
+        Assertions.assertEquals(GuardedSqlListener.State.OPEN, guarded.getState());
+        Assertions.assertEquals(2, guarded.getStats().getFailures());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hsqyz.minip6spy.listener;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+class P6SpySqlListenerTest {
+
+    @Test
+    void shouldBatchFormattedLinesUntilFlush() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferedConsoleWriter writer = new BufferedConsoleWriter(out, StandardCharsets.UTF_8, 1 << 20, 60_000)) {
+            P6SpySqlListener listener = new P6SpySqlListener(writer);
+            long startedAt = 1_700_000_000_007L;
+            listener.onEvent(SqlEvent.builder("SELECT *\n  FROM\tt").elapsedMs(12).startedAtMillis(startedAt).build());
+            listener.onEvent(SqlEvent.builder("   ").build());
+            Assertions.assertEquals(0, out.size(), "未达到阈值前不写出");
+
+            writer.flush();
+            String expectedTime = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+                    .withZone(ZoneId.systemDefault()).format(Instant.ofEpochMilli(startedAt));
+            Assertions.assertEquals("\u001B[31m Consume Time：12 ms " + expectedTime + "\n Execute SQL：SELECT * FROM t\u001B[0m\n",
+                    new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hsqyz.minip6spy.listener;
+
+import com.hsqyz.minip6spy.event.SqlEvent;
+import com.hsqyz.minip6spy.stats.SqlStatsSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SqlStatsListenerTest {
+
+    @Test
+    void shouldAggregatePerTemplateAndReset() {
+        SqlStatsListener listener = new SqlStatsListener();
+        for (int i = 1; i <= 100; i++) {
+            listener.onEvent(event("SELECT * FROM t WHERE id = ?", TimeUnit.MICROSECONDS.toNanos(i), i != 100));
+        }
+        listener.onEvent(event("DELETE FROM t", 10, true));
+
+        List<SqlStatsSnapshot> stats = listener.snapshotAndReset();
+        Assertions.assertEquals(2, stats.size());
+        SqlStatsSnapshot select = stats.get(0);
+        Assertions.assertEquals("SELECT * FROM t WHERE id = ?", select.getTemplate());
+        Assertions.assertEquals(100, select.getCount());
+        Assertions.assertEquals(1, select.getErrorCount());
+        Assertions.assertEquals(TimeUnit.MICROSECONDS.toNanos(1), select.getMinNanos());
+        Assertions.assertEquals(TimeUnit.MICROSECONDS.toNanos(100), select.getMaxNanos());
+        // 桶宽带来的误差不超过 12.5%
+        Assertions.assertEquals(50_000, select.getP50Nanos(), 50_000 * 0.125);
+        Assertions.assertEquals(99_000, select.getP99Nanos(), 99_000 * 0.125);
+
+        Assertions.assertTrue(listener.snapshot().isEmpty());
+    }
+
+    @Test
+    void shouldFoldTemplatesBeyondLimit() {
+        SqlStatsListener listener = new SqlStatsListener(2);
+        listener.onEvent(event("SELECT * FROM t1", 1, true));
+        listener.onEvent(event("SELECT * FROM t2", 1, true));
+        listener.onEvent(event("SELECT * FROM t3", 1, true));
+        listener.onEvent(event("SELECT * FROM t4", 1, true));
+        List<SqlStatsSnapshot> stats = listener.snapshot();
+        Assertions.assertEquals(3, stats.size());
+        Assertions.assertTrue(stats.stream().anyMatch(s -> SqlStatsListener.OTHER_TEMPLATE.equals(s.getTemplate())
+                && s.getCount() == 2));
+    }
+
+    private static SqlEvent event(String sql, long nanos, boolean success) {
+        return SqlEvent.builder(sql).elapsedNanos(nanos).success(success).build();
+    }
+}
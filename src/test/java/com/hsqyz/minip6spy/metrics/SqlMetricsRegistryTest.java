@@ -0,0 +1,61 @@
+package com.hsqyz.minip6spy.metrics;
+
+import com.hsqyz.minip6spy.enums.SqlMethodEnum;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+class SqlMetricsRegistryTest {
+
+    @Test
+    void shouldAggregateByOperationAndCapTemplates() {
+        SqlMetricsRegistry registry = new SqlMetricsRegistry("test", 2);
+        registry.onEvent(event("SELECT * FROM a WHERE id = 1", 2));
+        registry.onEvent(event("SELECT * FROM a WHERE id = 2", 30));
+        registry.onEvent(event("UPDATE b SET x = 1", 1));
+        registry.onEvent(event("DELETE FROM c", 1)); // 第三个模板超出上限
+        registry.onEvent(SqlEvent.builder("INSERT INTO d VALUES (?)").method(SqlMethodEnum.EXECUTE_BATCH)
+                .batchSize(40).error(new SQLException("dup", "23000")).build());
+
+        String text = registry.scrape();
+        Assertions.assertTrue(text.contains("test_sql_executions_total{operation=\"select\",outcome=\"success\"} 2"), text);
+        Assertions.assertTrue(text.contains("test_sql_duration_seconds_bucket{operation=\"select\",le=\"0.0025\"} 1"), text);
+        Assertions.assertTrue(text.contains("test_sql_duration_seconds_bucket{operation=\"select\",le=\"+Inf\"} 2"), text);
+        Assertions.assertTrue(text.contains("test_sql_duration_seconds_sum{operation=\"select\"} 0.032"), text);
+        Assertions.assertTrue(text.contains("test_sql_errors_total{operation=\"insert\",sqlstate_class=\"23\"} 1"), text);
+        Assertions.assertTrue(text.contains("test_sql_batch_size_bucket{le=\"50\"} 1"), text);
+        Assertions.assertTrue(text.contains("test_sql_template_overflow_total 2"), text);
+        Assertions.assertTrue(text.contains("sql=\"SELECT * FROM a WHERE id = ?\""), text);
+        Assertions.assertEquals(2, registry.getTemplateCount());
+    }
+
+    @Test
+    void shouldServeMetricsOverHttp() throws Exception {
+        SqlMetricsRegistry registry = new SqlMetricsRegistry();
+        registry.executionStarted();
+        try (MetricsHttpServer server = MetricsHttpServer.start(registry, 0)) {
+            HttpURLConnection conn = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + "/metrics").openConnection();
+            Assertions.assertEquals(200, conn.getResponseCode());
+            Assertions.assertEquals(MetricsHttpServer.CONTENT_TYPE, conn.getHeaderField("Content-Type"));
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream in = conn.getInputStream()) {
+                byte[] buf = new byte[4096];
+                for (int n; (n = in.read(buf)) > 0; ) {
+                    body.write(buf, 0, n);
+                }
+            }
+            Assertions.assertTrue(new String(body.toByteArray(), StandardCharsets.UTF_8).contains("mini_p6spy_sql_in_flight 1"));
+        }
+    }
+
+    private static SqlEvent event(String sql, long elapsedMs) {
+        return SqlEvent.builder(sql).elapsedMs(elapsedMs).method(SqlMethodEnum.EXECUTE_QUERY).build();
+    }
+}
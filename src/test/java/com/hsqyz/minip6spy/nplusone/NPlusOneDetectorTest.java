@@ -0,0 +1,66 @@
+package com.hsqyz.minip6spy.nplusone;
+
+import com.hsqyz.minip6spy.event.ConnectionEvent;
+import com.hsqyz.minip6spy.event.SqlEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class NPlusOneDetectorTest {
+
+    @Test
+    void shouldReportRepeatedTemplateWithinWindowOnce() {
+        List<NPlusOneReport> reports = new ArrayList<>();
+        NPlusOneDetector detector = NPlusOneDetector.builder()
+                .threshold(5)
+                .window(1, TimeUnit.SECONDS)
+                .reporter(reports::add)
+                .build();
+        long t = 1_000_000L;
+        detector.onEvent(event("SELECT * FROM orders WHERE uid = 1", 1, t));
+        for (int i = 0; i < 20; i++) {
+            detector.onEvent(event("SELECT * FROM items WHERE order_id = " + i, 1, t + i));
+            detector.onEvent(event("SELECT * FROM users WHERE id = " + i, 2, t + i));
+        }
+        detector.onEvent(event("SELECT * FROM items WHERE order_id = 99", 2, t + 5000)); // 窗口外重新计数
+        Assertions.assertEquals(2, reports.size());
+        NPlusOneReport items = reports.get(0);
+        Assertions.assertEquals("SELECT * FROM items WHERE order_id = ?", items.getSql());
+        Assertions.assertEquals(5, items.getCount());
+        Assertions.assertEquals(5, items.getTotalMs());
+        Assertions.assertNotNull(items.getCallSite());
+
+        detector.onConnectionEvent(ConnectionEvent.builder(ConnectionEvent.Type.RELEASED, 7).build());
+        Assertions.assertEquals(0, detector.trackedConnections());
+    }
+
+    @Test
+    void shouldReportFinalCountsWhenScopeCloses() {
+        List<NPlusOneReport> reports = new ArrayList<>();
+        NPlusOneDetector detector = NPlusOneDetector.builder()
+                .threshold(3)
+                .captureCallSite(false)
+                .reporter(reports::add)
+                .build();
+        try (NPlusOneDetector.Scope ignored = detector.openScope("listOrders")) {
+            for (int i = 0; i < 4; i++) {
+                detector.onEvent(SqlEvent.builder("SELECT * FROM items WHERE id = " + i).startedAtMillis(i * 10_000L).build());
+            }
+        }
+        Assertions.assertEquals(1, reports.size());
+        Assertions.assertEquals(NPlusOneReport.Kind.SCOPE, reports.get(0).getKind());
+        Assertions.assertEquals("listOrders", reports.get(0).getScopeName());
+        Assertions.assertEquals(4, reports.get(0).getCount());
+    }
+
+    private static SqlEvent event(String sql, long elapsedMs, long startedAtMillis) {
+        return SqlEvent.builder(sql)
+                .elapsedMs(elapsedMs)
+                .startedAtMillis(startedAtMillis)
+                .connectionId(7)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.hsqyz.minip6spy.sql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class SqlNormalizerTest {
+
+    private final SqlNormalizer normalizer = new SqlNormalizer(64);
+
+    @Test
+    void shouldReplaceLiteralsAndCollapseInLists() {
+        NormalizedSql carol = normalizer.normalize("SELECT * FROM user_demo WHERE name = 'Carol' AND age > 18");
+        NormalizedSql bob = normalizer.normalize("select * from user_demo where name = 'B''ob' and age > -3.5e2");
+        Assertions.assertEquals("SELECT * FROM user_demo WHERE name = ? AND age > ?", carol.getSql());
+        Assertions.assertEquals("select * from user_demo where name = ? and age > ?", bob.getSql());
+
+        NormalizedSql in2 = normalizer.normalize("DELETE FROM t WHERE id IN (1, 2)");
+        NormalizedSql in3 = normalizer.normalize("DELETE  FROM t\n WHERE id IN (3,4,5) -- cleanup");
+        Assertions.assertEquals("DELETE FROM t WHERE id IN (?)", in2.getSql());
+        Assertions.assertEquals(in2.getFingerprint(), in3.getFingerprint());
+        Assertions.assertEquals(16, in2.getFingerprintHex().length());
+    }
+
+    @Test
+    void shouldKeepIdentifiersAndPlaceholders() {
+        Assertions.assertEquals("SELECT `col1`, t2.x FROM \"T\" WHERE a = ? AND b IN (SELECT c FROM d)",
+                normalizer.normalize("SELECT `col1`, t2.x /* hint */ FROM \"T\" WHERE a = ? AND b IN (SELECT c FROM d)").getSql());
+        Assertions.assertNotEquals(normalizer.normalize("SELECT a FROM t1").getFingerprint(),
+                normalizer.normalize("SELECT a FROM t2").getFingerprint());
+    }
+
+    @Test
+    void shouldExtractTablesOfMultiTableStatements() {
+        Assertions.assertEquals(Arrays.asList("a", "b"),
+                normalizer.normalize("UPDATE a x, db.b AS y SET x.v = y.v WHERE x.id = y.id").getTables());
+        Assertions.assertEquals(Arrays.asList("a", "b"),
+                normalizer.normalize("DELETE a, b FROM a INNER JOIN b ON a.id = b.id WHERE a.id = 1").getTables());
+        Assertions.assertEquals(Arrays.asList("t"), normalizer.normalize("DELETE FROM t WHERE id = 1").getTables());
+        Assertions.assertEquals(Arrays.asList("t"), normalizer.normalize("UPDATE LOW_PRIORITY t SET v = 1").getTables());
+        Assertions.assertEquals(Arrays.asList("a", "b"),
+                normalizer.normalize("SELECT * FROM a STRAIGHT_JOIN b ON a.id = b.id").getTables());
+    }
+
+    @Test
+    void shouldKeepRecentlyUsedEntriesWithinBound() {
+        SqlNormalizer small = new SqlNormalizer(16);
+        NormalizedSql hot = small.normalize("SELECT * FROM hot WHERE id = 1");
+        for (int i = 0; i < 1000; i++) {
+            small.normalize("SELECT * FROM t" + i);
+            Assertions.assertSame(hot, small.normalize("SELECT * FROM hot WHERE id = 1"), "反复访问的条目不被淘汰");
+        }
+        Assertions.assertTrue(small.size() <= 16, "条目数不超过上限：" + small.size());
+    }
+
+    @Test
+    void shouldCollapseWhitespaceOnly() {
+        String plain = "SELECT 1 FROM t";
+        Assertions.assertSame(plain, SqlNormalizer.collapseWhitespace(plain));
+        Assertions.assertEquals(" SELECT 'a b' FROM t ", SqlNormalizer.collapseWhitespace("\n SELECT 'a  b'\tFROM t  "));
+    }
+}
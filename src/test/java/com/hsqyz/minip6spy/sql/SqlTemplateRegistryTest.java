@@ -0,0 +1,43 @@
+package com.hsqyz.minip6spy.sql;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SqlTemplateRegistryTest {
+
+    @Test
+    void shouldAssignOneIdPerNormalizedTemplate() {
+        List<String> registered = new ArrayList<>();
+        SqlTemplateRegistry registry = new SqlTemplateRegistry(64, (id, template) -> registered.add(id + "=" + template));
+        int first = registry.register("SELECT * FROM t WHERE id = 1");
+        Assertions.assertEquals(first, registry.register("SELECT  *\n FROM t WHERE id = 2 -- again"));
+        Assertions.assertEquals(first, registry.register("SELECT * FROM t WHERE id = ?"));
+        int second = registry.register("DELETE FROM t WHERE id IN (1, 2, 3)");
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertEquals("SELECT * FROM t WHERE id = ?", registry.templateOf(first));
+        Assertions.assertEquals(2, registry.snapshot().size());
+        Assertions.assertEquals(2, registered.size(), "每个模板只回调一次");
+    }
+
+    @Test
+    void shouldEvictWhenFullAndNeverReuseIds() {
+        SqlTemplateRegistry registry = new SqlTemplateRegistry(16, null);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(registry.idOf("SELECT c" + i + " FROM t"));
+        }
+        Assertions.assertTrue(registry.size() <= 16);
+        Assertions.assertEquals(100 - registry.size(), registry.getEvictions());
+        int evicted = -1;
+        for (int i = 0; i < ids.size() && evicted < 0; i++) {
+            if (registry.templateOf(ids.get(i)) == null) {
+                evicted = i;
+            }
+        }
+        Assertions.assertTrue(evicted >= 0);
+        Assertions.assertTrue(registry.idOf("SELECT c" + evicted + " FROM t") > 100, "再次出现时分配新编号");
+    }
+}